@@ -0,0 +1,56 @@
+#!/usr/bin/env bash
+# Compara el modo de hilos de plataforma con el modo de hilos virtuales contra /productos y /posts.
+# Requiere: el jar construido (mvn package -DskipTests), la base de datos configurada y 'hey' (https://github.com/rakyll/hey).
+#
+# Uso: ./scripts/comparar-hilos.sh [concurrencia] [duracion]
+# Ejemplo: ./scripts/comparar-hilos.sh 400 30s
+set -euo pipefail
+
+CONCURRENCIA=${1:-400}
+DURACION=${2:-30s}
+PUERTO=${PUERTO:-8080}
+BASE_URL="http://localhost:${PUERTO}/producto-api"
+JAR=$(ls target/producto-*.jar | grep -v original | head -n 1)
+RESULTADOS="target/comparar-hilos"
+ENDPOINTS=("/productos?limit=50" "/posts/1" "/posts?ids=1,2,3,4,5,6,7,8,9,10")
+
+command -v hey >/dev/null || { echo "Se requiere 'hey' en el PATH"; exit 1; }
+mkdir -p "$RESULTADOS"
+
+esperar_arranque() {
+  for _ in $(seq 1 120); do
+    if curl -fs "${BASE_URL}/actuator/health" >/dev/null; then
+      return 0
+    fi
+    sleep 1
+  done
+  echo "La aplicacion no arranco"; exit 1
+}
+
+ejecutar_modo() {
+  local modo=$1 virtual=$2
+  echo "== Modo ${modo} (spring.threads.virtual.enabled=${virtual})"
+  APP_VIRTUAL_THREADS=${virtual} java -jar "$JAR" --server.port="${PUERTO}" > "${RESULTADOS}/${modo}.log" 2>&1 &
+  local pid=$!
+  trap "kill ${pid} 2>/dev/null || true" EXIT
+  esperar_arranque
+
+  for endpoint in "${ENDPOINTS[@]}"; do
+    local nombre
+    nombre=$(echo "$endpoint" | tr '/?=,&' '_____')
+    # Calentamiento para que JIT, pools y caches esten en estado estable antes de medir
+    hey -z 10s -c 50 "${BASE_URL}${endpoint}" >/dev/null
+    hey -z "$DURACION" -c "$CONCURRENCIA" "${BASE_URL}${endpoint}" > "${RESULTADOS}/${modo}${nombre}.txt"
+    printf "%-45s %s req/s, p99 %s\n" "$endpoint" \
+      "$(grep 'Requests/sec' "${RESULTADOS}/${modo}${nombre}.txt" | awk '{print $2}')" \
+      "$(grep '99% in' "${RESULTADOS}/${modo}${nombre}.txt" | awk '{print $3 $4}')"
+  done
+
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  trap - EXIT
+}
+
+ejecutar_modo plataforma false
+ejecutar_modo virtual true
+echo "Resultados completos en ${RESULTADOS}"
@@ -0,0 +1,52 @@
+#!/usr/bin/env bash
+# Compara el tiempo de arranque de la imagen actual (Dockerfile) con la optimizada (Dockerfile.optimizado).
+# Mide desde 'docker run' hasta que /actuator/health responde UP, varias veces por imagen.
+# Requiere: docker, la base de datos y Keycloak configurados con las mismas variables que docker-compose.yml.
+#
+# Uso: ./scripts/medir-arranque.sh [repeticiones]
+# Variables: SPRING_DATASOURCE_URL, SPRING_DATASOURCE_USERNAME, SPRING_DATASOURCE_PASSWORD,
+#            SPRING_SECURITY_OAUTH2_RESOURCESERVER_JWT_ISSUER_URI, RED (red docker, opcional)
+set -euo pipefail
+
+REPETICIONES=${1:-5}
+PUERTO=${PUERTO:-18080}
+RED=${RED:-}
+HEALTH_URL="http://localhost:${PUERTO}/producto-api/actuator/health"
+
+command -v docker >/dev/null || { echo "Se requiere docker en el PATH"; exit 1; }
+
+echo "== Construyendo imagenes"
+docker build -q -f Dockerfile -t producto-api:actual . >/dev/null
+docker build -q -f Dockerfile.optimizado -t producto-api:optimizado . >/dev/null
+
+medir_imagen() {
+  local imagen=$1 total=0 minimo=0
+  for i in $(seq 1 "$REPETICIONES"); do
+    local inicio fin ms
+    inicio=$(date +%s%N)
+    docker run -d --rm --name producto-arranque -p "${PUERTO}:8080" ${RED:+--network "$RED"} \
+      -e SPRING_DATASOURCE_URL -e SPRING_DATASOURCE_USERNAME -e SPRING_DATASOURCE_PASSWORD \
+      -e SPRING_SECURITY_OAUTH2_RESOURCESERVER_JWT_ISSUER_URI \
+      "$imagen" >/dev/null
+    until curl -fs "$HEALTH_URL" | grep -q '"UP"'; do
+      if ! docker ps -q -f name=producto-arranque | grep -q .; then
+        echo "El contenedor de ${imagen} termino antes de arrancar"; exit 1
+      fi
+      sleep 0.1
+    done
+    fin=$(date +%s%N)
+    ms=$(( (fin - inicio) / 1000000 ))
+    total=$((total + ms))
+    if [ "$minimo" -eq 0 ] || [ "$ms" -lt "$minimo" ]; then minimo=$ms; fi
+    # Tiempo reportado por Spring, sin contar la creación del contenedor
+    local spring
+    spring=$(docker logs producto-arranque 2>&1 | grep -o 'Started ProductoApplication in [0-9.]* seconds' | awk '{print $4}')
+    printf "  %-25s intento %d: %6d ms hasta UP (Spring: %ss)\n" "$imagen" "$i" "$ms" "${spring:-?}"
+    docker stop producto-arranque >/dev/null
+  done
+  printf "%-27s promedio %6d ms, minimo %6d ms\n" "$imagen" $((total / REPETICIONES)) "$minimo"
+}
+
+echo "== Midiendo (${REPETICIONES} arranques por imagen)"
+medir_imagen producto-api:actual
+medir_imagen producto-api:optimizado
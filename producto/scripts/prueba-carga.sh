@@ -0,0 +1,40 @@
+#!/usr/bin/env bash
+# Prueba de carga local: arranca la aplicación con el perfil perf (H2 con datos generados, emisor de JWT local y
+# posts simulados con latencia configurable) y mide cada endpoint de productos, categorias y posts con GeneradorCarga.
+# No requiere RDS, Keycloak ni acceso a internet. Requiere Java 21 y las dependencias de Maven ya descargadas.
+#
+# Uso: ./scripts/prueba-carga.sh [parametros de GeneradorCarga]
+# Ejemplos:
+#   ./scripts/prueba-carga.sh --concurrencia=64 --duracion=30s
+#   ./scripts/prueba-carga.sh --tasa=500 --escenarios='^productos\.(listar|buscar)'
+# Variables: PUERTO (8080), PERF_LATENCIA_POSTS (50ms), PERF_VARIACION_POSTS (20ms), PERF_PRODUCTOS (20000),
+#            PERF_LIMITES (false, true para medir también las cuotas y el rechazo por sobrecarga),
+#            APP_VIRTUAL_THREADS (false), JAVA_OPTS
+set -euo pipefail
+
+PUERTO=${PUERTO:-8080}
+BASE_URL="http://localhost:${PUERTO}/producto-api"
+RESULTADOS="target/prueba-carga"
+# mvnw no tiene permiso de ejecución en el repositorio, se invoca con sh
+MVN=${MVN:-sh ./mvnw}
+
+mkdir -p "$RESULTADOS"
+echo "== Compilando clases de prueba"
+$MVN -B -q test-compile
+$MVN -B -q dependency:build-classpath -Dmdep.includeScope=test -Dmdep.outputFile="${RESULTADOS}/classpath.txt" >/dev/null
+CLASSPATH="target/test-classes:target/classes:$(cat "${RESULTADOS}/classpath.txt")"
+
+echo "== Arrancando la aplicación con el perfil perf (log en ${RESULTADOS}/app.log)"
+java ${JAVA_OPTS:-} -cp "$CLASSPATH" com.devsenior.co.producto.perf.PerfProductoApplication \
+  --server.port="${PUERTO}" > "${RESULTADOS}/app.log" 2>&1 &
+PID=$!
+trap "kill ${PID} 2>/dev/null || true" EXIT
+
+for _ in $(seq 1 120); do
+  curl -fs "${BASE_URL}/actuator/health" >/dev/null && break
+  kill -0 "$PID" 2>/dev/null || { echo "La aplicacion no arranco, ver ${RESULTADOS}/app.log"; exit 1; }
+  sleep 1
+done
+
+java -cp "$CLASSPATH" com.devsenior.co.producto.perf.GeneradorCarga --url="${BASE_URL}" \
+  --salida="${RESULTADOS}/resultados-$(date +%Y%m%d-%H%M%S).csv" "$@"
@@ -0,0 +1,198 @@
+package com.devsenior.co.producto.benchmark;
+
+import com.devsenior.co.producto.ProductoApplication;
+import com.devsenior.co.producto.model.BusquedaProductoDto;
+import com.devsenior.co.producto.model.CategoriaResumenDto;
+import com.devsenior.co.producto.model.ProductoDto;
+import com.devsenior.co.producto.model.ProductoProyeccion;
+import com.devsenior.co.producto.model.ResultadoBusquedaDto;
+import com.devsenior.co.producto.model.entity.CategoriaEntity;
+import com.devsenior.co.producto.model.entity.ProductoEntity;
+import com.devsenior.co.producto.repository.ICategoriaRepository;
+import com.devsenior.co.producto.repository.IProductoRepository;
+import com.devsenior.co.producto.service.CatalogoColumnar;
+import com.devsenior.co.producto.service.ProductoSearchIndex;
+import com.devsenior.co.producto.service.ProductoService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Compara las lecturas del catalogo desde la copia en columnas (CatalogoColumnar) con las que consultan H2:
+ * entidades (findAll/findById de JPA) y la proyección que usa ProductoService sin la copia.
+ * Los filtros se comparan con el indice de busqueda. Al iniciar findAllColumnas imprime la memoria retenida por cada representación.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CatalogoColumnarBenchmark {
+
+    // Copias retenidas a la vez al medir la memoria: equivalen a 1 millón de productos para que el ruido no pese
+    private static final int PRODUCTOS_MEDICION = 1_000_000;
+
+    @Param({"10000", "100000"})
+    private int productos;
+
+    private ConfigurableApplicationContext context;
+    private ProductoService productoService;
+    private ProductoSearchIndex productoSearchIndex;
+    private IProductoRepository iProductoRepository;
+    private TransactionTemplate transactionTemplate;
+    private List<Integer> ids;
+    private final BusquedaProductoDto filtros = BusquedaProductoDto.builder()
+            .precioMin(100.0).precioMax(5000.0).cantidadMin(3).estaDisponible(true).limit(20).build();
+
+    @Setup(Level.Trial)
+    public void iniciar(BenchmarkParams parametros) {
+        context = ProductoServiceBenchmark.BenchmarkContext.iniciar(ProductoApplication.class,
+                "--producto.catalogo-columnar.habilitado=true");
+        productoService = context.getBean(ProductoService.class);
+        productoSearchIndex = context.getBean(ProductoSearchIndex.class);
+        iProductoRepository = context.getBean(IProductoRepository.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transactionTemplate.setReadOnly(true);
+
+        ids = guardarProductos();
+        productoSearchIndex.construir();
+
+        context.getBean(CatalogoColumnar.class).reconstruir();
+        // La memoria no depende del benchmark, se mide solo en uno
+        if (parametros.getBenchmark().endsWith(".findAllColumnas")) {
+            medirMemoria();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void detener() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ProductoDto> findAllEntidades() {
+        return transactionTemplate.execute(status -> iProductoRepository.findAll().stream()
+                .map(CatalogoColumnarBenchmark::toDto).toList());
+    }
+
+    @Benchmark
+    public List<ProductoDto> findAllProyeccion() {
+        return transactionTemplate.execute(status -> iProductoRepository.findAllProyectados().stream()
+                .map(ProductoProyeccion::toDto).toList());
+    }
+
+    @Benchmark
+    public List<ProductoDto> findAllColumnas() {
+        return productoService.findAll();
+    }
+
+    @Benchmark
+    public ProductoDto findByIdEntidad() {
+        Integer id = idAleatorio();
+        return transactionTemplate.execute(status -> iProductoRepository.findById(id)
+                .map(CatalogoColumnarBenchmark::toDto).orElseThrow());
+    }
+
+    @Benchmark
+    public ProductoDto findByIdProyeccion() {
+        Integer id = idAleatorio();
+        return transactionTemplate.execute(status -> iProductoRepository.findProyectadoById(id)
+                .map(ProductoProyeccion::toDto).orElseThrow());
+    }
+
+    @Benchmark
+    public ProductoDto findByIdColumnas() {
+        return productoService.findById(idAleatorio());
+    }
+
+    @Benchmark
+    public ResultadoBusquedaDto filtrarIndice() {
+        return productoSearchIndex.buscar(filtros);
+    }
+
+    @Benchmark
+    public ResultadoBusquedaDto filtrarColumnas() {
+        return productoService.search(filtros);
+    }
+
+    private List<Integer> guardarProductos() {
+        List<CategoriaEntity> categorias = context.getBean(ICategoriaRepository.class).saveAll(
+                IntStream.rangeClosed(1, 20)
+                        .mapToObj(i -> CategoriaEntity.builder().nombre("Categoria " + i).descripcion("Benchmark").build())
+                        .toList());
+        List<ProductoEntity> entities = new ArrayList<>(productos);
+        for (int i = 0; i < productos; i++) {
+            ProductoEntity producto = new ProductoEntity("Producto " + (i % 2000), i % 16, (i % 10_000) * 1.5, i % 2 == 0);
+            producto.setCategoria(categorias.get(i % categorias.size()));
+            entities.add(producto);
+        }
+        return iProductoRepository.saveAll(entities).stream().map(ProductoEntity::getId).toList();
+    }
+
+    private Integer idAleatorio() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    private static ProductoDto toDto(ProductoEntity entity) {
+        ProductoDto dto = new ProductoDto(entity.getNombre(), entity.getCantidad(), entity.getPrecio(), entity.getEstaDisponible());
+        if (entity.getCategoria() != null) {
+            dto.setCategoria(new CategoriaResumenDto(entity.getCategoria().getId(), entity.getCategoria().getNombre()));
+        }
+        return dto;
+    }
+
+    /**
+     * Memoria retenida por el listado completo en cada representación. Cada una se obtiene primero una vez
+     * (para que H2 y Hibernate ya tengan sus caches) y luego se mide el promedio de las copias retenidas a la vez.
+     * Las columnas se miden con instancias nuevas de CatalogoColumnar, cada una con su propia copia.
+     */
+    private void medirMemoria() {
+        Supplier<Object> entidades = () -> transactionTemplate.execute(status -> iProductoRepository.findAll());
+        Supplier<Object> dtos = this::findAllProyeccion;
+        Supplier<Object> columnas = () -> {
+            CatalogoColumnar catalogo = context.getAutowireCapableBeanFactory().createBean(CatalogoColumnar.class);
+            catalogo.reconstruir();
+            return catalogo;
+        };
+        System.out.printf("%nMemoria retenida con %d productos: entidades %d KB, DTO %d KB, columnas %d KB%n", productos,
+                retenida(entidades) / 1024, retenida(dtos) / 1024, retenida(columnas) / 1024);
+    }
+
+    private long retenida(Supplier<Object> lectura) {
+        lectura.get();
+        Object[] copias = new Object[Math.max(2, PRODUCTOS_MEDICION / productos)];
+        long antes = memoriaUsada();
+        for (int i = 0; i < copias.length; i++) {
+            copias[i] = lectura.get();
+        }
+        long retenida = (memoriaUsada() - antes) / copias.length;
+        // Mantiene las copias vivas hasta despues de medir
+        if (copias[copias.length - 1] == null) {
+            throw new IllegalStateException("Sin resultado");
+        }
+        return retenida;
+    }
+
+    private static long memoriaUsada() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
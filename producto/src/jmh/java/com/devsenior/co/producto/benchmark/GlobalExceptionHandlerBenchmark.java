@@ -0,0 +1,51 @@
+package com.devsenior.co.producto.benchmark;
+
+import com.devsenior.co.producto.controller.ProductoController;
+import com.devsenior.co.producto.model.ProductoDto;
+import com.devsenior.co.producto.shared.exceptions.GlobalExceptionHandler;
+import com.devsenior.co.producto.shared.exceptions.RecursoNoEncontradoException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide la construcción de respuestas de error, incluyendo la creación de la excepción como ocurre en los servicios
+ * y la serialización del cuerpo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GlobalExceptionHandlerBenchmark {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler(new JsonMapper(), new SimpleMeterRegistry());
+    private MethodArgumentNotValidException validacion;
+
+    @Setup
+    public void iniciar() throws NoSuchMethodException {
+        BeanPropertyBindingResult bindingResult = new BeanPropertyBindingResult(new ProductoDto(), "producto");
+        bindingResult.addError(new FieldError("producto", "nombre", "El nombre no puede estar vacio"));
+        bindingResult.addError(new FieldError("producto", "cantidad", "La cantidad no puede ser mayor a 15"));
+        MethodParameter parametro = new MethodParameter(ProductoController.class.getMethod("create", ProductoDto.class), 0);
+        validacion = new MethodArgumentNotValidException(parametro, bindingResult);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> noEncontrado() {
+        return handler.handleException(new RecursoNoEncontradoException("El producto con id: 1 no existe."));
+    }
+
+    @Benchmark
+    public ResponseEntity<?> validacion() {
+        return handler.handleValidationExceptions(validacion);
+    }
+}
@@ -0,0 +1,49 @@
+package com.devsenior.co.producto.benchmark;
+
+import com.devsenior.co.producto.model.Post;
+import com.devsenior.co.producto.model.ProductoDto;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide la serialización JSON de las listas que retornan /productos y /posts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"20", "1000"})
+    private int elementos;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private List<ProductoDto> productos;
+    private List<Post> posts;
+
+    @Setup
+    public void iniciar() {
+        productos = new ArrayList<>(elementos);
+        posts = new ArrayList<>(elementos);
+        for (int i = 0; i < elementos; i++) {
+            productos.add(new ProductoDto("Producto " + i, i % 15, i * 1.5, i % 2 == 0));
+            posts.add(new Post(i % 10, i, "Titulo del post " + i, "Contenido del post numero " + i));
+        }
+    }
+
+    @Benchmark
+    public byte[] productos() {
+        return jsonMapper.writeValueAsBytes(productos);
+    }
+
+    @Benchmark
+    public byte[] posts() {
+        return jsonMapper.writeValueAsBytes(posts);
+    }
+}
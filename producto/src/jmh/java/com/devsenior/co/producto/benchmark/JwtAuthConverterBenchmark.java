@@ -0,0 +1,46 @@
+package com.devsenior.co.producto.benchmark;
+
+import com.devsenior.co.producto.shared.config.JwtAuthConverter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide la conversión del JWT a autoridades que se ejecuta en cada petición autenticada.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthConverterBenchmark {
+
+    private JwtAuthConverter converter;
+    private Jwt jwt;
+
+    @Setup
+    public void iniciar() {
+        converter = new JwtAuthConverter();
+        jwt = Jwt.withTokenValue("token-benchmark")
+                .header("alg", "RS256")
+                .subject("cliente-benchmark")
+                .claim("jti", "jti-benchmark")
+                .claim("scope", "openid profile email")
+                .claim("realm_access", Map.of("roles", List.of("producto-rol1", "producto-rol2", "offline_access", "uma_authorization")))
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(3600))
+                .build();
+    }
+
+    @Benchmark
+    public Collection<GrantedAuthority> convert() {
+        return converter.convert(jwt);
+    }
+}
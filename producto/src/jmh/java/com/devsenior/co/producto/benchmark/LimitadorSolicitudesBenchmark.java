@@ -0,0 +1,51 @@
+package com.devsenior.co.producto.benchmark;
+
+import com.devsenior.co.producto.shared.limites.CuotaGcra;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de la cuota por cliente que se evalua en cada petición. Con 4 hilos se mide la contención de
+ * un mismo cliente (un solo AtomicLong) y la de muchos clientes distintos (lecturas del ConcurrentHashMap).
+ * Las cuotas son tan altas que nunca rechazan, se mide el camino de una petición permitida.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class LimitadorSolicitudesBenchmark {
+
+    private static final int CLIENTES = 10_000;
+
+    private CuotaGcra cuota;
+    private String[] clientes;
+
+    @Setup
+    public void iniciar() {
+        cuota = new CuotaGcra("/productos", 1_000_000_000, 1_000_000, CLIENTES * 2);
+        clientes = new String[CLIENTES];
+        for (int i = 0; i < CLIENTES; i++) {
+            clientes[i] = "10.0." + (i / 256) + "." + (i % 256);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Hilo {
+        int siguiente;
+    }
+
+    @Benchmark
+    public long mismoCliente() {
+        return cuota.intentar("cliente-benchmark", System.nanoTime());
+    }
+
+    @Benchmark
+    public long clientesDistintos(Hilo hilo) {
+        hilo.siguiente = (hilo.siguiente + 1) % CLIENTES;
+        return cuota.intentar(clientes[hilo.siguiente], System.nanoTime());
+    }
+}
@@ -0,0 +1,83 @@
+package com.devsenior.co.producto.benchmark;
+
+import com.devsenior.co.producto.ProductoApplication;
+import com.devsenior.co.producto.model.ProductoDto;
+import com.devsenior.co.producto.model.entity.ProductoEntity;
+import com.devsenior.co.producto.repository.IProductoRepository;
+import com.devsenior.co.producto.service.ProductoService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide ProductoService.findAll (consulta por proyección + conversión a DTO) sobre H2 en memoria.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductoServiceBenchmark {
+
+    @Param({"1000", "10000"})
+    private int productos;
+
+    private ConfigurableApplicationContext context;
+    private ProductoService productoService;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        context = BenchmarkContext.iniciar(ProductoApplication.class);
+        productoService = context.getBean(ProductoService.class);
+
+        List<ProductoEntity> entities = new ArrayList<>(productos);
+        for (int i = 0; i < productos; i++) {
+            entities.add(new ProductoEntity("Producto " + i, i % 15, i * 1.5, i % 2 == 0));
+        }
+        context.getBean(IProductoRepository.class).saveAll(entities);
+    }
+
+    @TearDown(Level.Trial)
+    public void detener() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ProductoDto> findAll() {
+        return productoService.findAll();
+    }
+
+    static final class BenchmarkContext {
+
+        private BenchmarkContext() {
+        }
+
+        /**
+         * Inicia la aplicación con H2 en memoria y sin logs de SQL para medir sin red ni PostgreSQL.
+         * Los argumentos adicionales se agregan al final y reemplazan a los anteriores.
+         */
+        static ConfigurableApplicationContext iniciar(Class<?> aplicacion, String... adicionales) {
+            // Se pasan como argumentos para que tengan prioridad sobre application.yaml
+            List<String> argumentos = new ArrayList<>(List.of(
+                    "--server.port=0",
+                    "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                    "--spring.datasource.driver-class-name=org.h2.Driver",
+                    "--spring.datasource.username=sa",
+                    "--spring.datasource.password=",
+                    "--spring.jpa.database=h2",
+                    "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                    "--spring.jpa.hibernate.ddl-auto=create-drop",
+                    "--spring.jpa.show-sql=false",
+                    "--spring.jpa.properties.hibernate.format_sql=false",
+                    "--spring.jpa.properties.hibernate.use_sql_comments=false",
+                    "--logging.level.root=WARN"));
+            argumentos.addAll(List.of(adicionales));
+            return new SpringApplicationBuilder(aplicacion).run(argumentos.toArray(String[]::new));
+        }
+    }
+}
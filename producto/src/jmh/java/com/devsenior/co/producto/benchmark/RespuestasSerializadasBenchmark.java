@@ -0,0 +1,115 @@
+package com.devsenior.co.producto.benchmark;
+
+import com.devsenior.co.producto.ProductoApplication;
+import com.devsenior.co.producto.model.PaginaDto;
+import com.devsenior.co.producto.model.ProductoDto;
+import com.devsenior.co.producto.model.entity.ProductoEntity;
+import com.devsenior.co.producto.repository.IProductoRepository;
+import com.devsenior.co.producto.service.CatalogoColumnar;
+import com.devsenior.co.producto.service.ProductoService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * CPU por petición de GET /productos y GET /productos/{id} sin contar la red: la ruta anterior (datos en cache
+ * serializados con el ObjectMapper de la aplicación en cada petición, y comprimidos como lo hace el servidor cuando
+ * el cliente acepta gzip) contra las respuestas ya serializadas de RespuestasProductoCache.
+ * La página de la ruta anterior se guarda una vez al iniciar, como la guardaba la cache de objetos.
+ * Con -prof gc se ve ademas la memoria asignada por petición.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RespuestasSerializadasBenchmark {
+
+    private static final int PRODUCTOS = 10_000;
+
+    @Param({"20", "100"})
+    private int limit;
+
+    private ConfigurableApplicationContext context;
+    private ProductoService productoService;
+    private ObjectMapper objectMapper;
+    private List<Integer> ids;
+    private PaginaDto<ProductoDto> pagina;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        context = ProductoServiceBenchmark.BenchmarkContext.iniciar(ProductoApplication.class,
+                "--producto.catalogo-columnar.habilitado=true");
+        productoService = context.getBean(ProductoService.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        List<ProductoEntity> entities = new ArrayList<>(PRODUCTOS);
+        for (int i = 0; i < PRODUCTOS; i++) {
+            entities.add(new ProductoEntity("Producto " + i, i % 16, i * 1.5, i % 2 == 0));
+        }
+        ids = context.getBean(IProductoRepository.class).saveAll(entities).stream().map(ProductoEntity::getId).toList();
+        context.getBean(CatalogoColumnar.class).reconstruir();
+        pagina = objectMapper.readValue(productoService.findPageSerializada(null, limit).json(),
+                new TypeReference<PaginaDto<ProductoDto>>() {
+                });
+    }
+
+    @TearDown(Level.Trial)
+    public void detener() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] paginaJackson() {
+        return objectMapper.writeValueAsBytes(pagina);
+    }
+
+    @Benchmark
+    public byte[] paginaJacksonGzip() {
+        return gzip(objectMapper.writeValueAsBytes(pagina));
+    }
+
+    @Benchmark
+    public byte[] paginaSerializada() {
+        return productoService.findPageSerializada(null, limit).json();
+    }
+
+    @Benchmark
+    public byte[] paginaSerializadaGzip() {
+        return productoService.findPageSerializada(null, limit).gzip();
+    }
+
+    @Benchmark
+    public byte[] productoJackson() {
+        return objectMapper.writeValueAsBytes(productoService.findById(idAleatorio()));
+    }
+
+    @Benchmark
+    public byte[] productoSerializado() {
+        return productoService.findByIdSerializado(idAleatorio()).json();
+    }
+
+    private Integer idAleatorio() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(salida)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return salida.toByteArray();
+    }
+}
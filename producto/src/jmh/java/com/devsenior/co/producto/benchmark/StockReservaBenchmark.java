@@ -0,0 +1,76 @@
+package com.devsenior.co.producto.benchmark;
+
+import com.devsenior.co.producto.ProductoApplication;
+import com.devsenior.co.producto.model.ResultadoReservaDto;
+import com.devsenior.co.producto.model.entity.ProductoEntity;
+import com.devsenior.co.producto.repository.IProductoRepository;
+import com.devsenior.co.producto.service.StockReservaService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reservas por milisegundo sobre un mismo producto con 1, 2, 4 y 8 hilos (el resultado suma todos los hilos).
+ * En modo condicional cada reserva es un UPDATE condicional en H2, que serializa las escrituras sobre la fila;
+ * en modo memoria el producto ya es caliente y las reservas se toman del StockLease, con una escritura por bloque.
+ * El producto tiene stock de sobra para que ninguna reserva falle durante la medición.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StockReservaBenchmark {
+
+    @Param({"condicional", "memoria"})
+    private String modo;
+
+    private ConfigurableApplicationContext context;
+    private StockReservaService stockReservaService;
+    private Integer id;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        boolean memoria = modo.equals("memoria");
+        context = ProductoServiceBenchmark.BenchmarkContext.iniciar(ProductoApplication.class,
+                "--producto.stock.umbral-caliente=" + (memoria ? 1 : Integer.MAX_VALUE));
+        stockReservaService = context.getBean(StockReservaService.class);
+        id = context.getBean(IProductoRepository.class)
+                .save(new ProductoEntity("Producto caliente", Integer.MAX_VALUE / 2, 10.0, true)).getId();
+        if (memoria) {
+            stockReservaService.reservar(id, 1);
+            stockReservaService.consolidar();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void detener() {
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public ResultadoReservaDto hilos1() {
+        return stockReservaService.reservar(id, 1);
+    }
+
+    @Benchmark
+    @Threads(2)
+    public ResultadoReservaDto hilos2() {
+        return stockReservaService.reservar(id, 1);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public ResultadoReservaDto hilos4() {
+        return stockReservaService.reservar(id, 1);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public ResultadoReservaDto hilos8() {
+        return stockReservaService.reservar(id, 1);
+    }
+}
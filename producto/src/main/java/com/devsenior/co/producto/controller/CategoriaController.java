@@ -1,21 +1,58 @@
 package com.devsenior.co.producto.controller;
 
 import com.devsenior.co.producto.model.CategoriaDto;
+import com.devsenior.co.producto.model.PaginaDto;
+import com.devsenior.co.producto.model.ProductoDto;
 import com.devsenior.co.producto.model.entity.CategoriaEntity;
+import com.devsenior.co.producto.service.CatalogoVersionService;
 import com.devsenior.co.producto.service.ICategoriaService;
+import com.devsenior.co.producto.service.ProductoService;
+import io.micrometer.core.annotation.Timed;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
 
 @RestController
+@Timed(value = "app.controller", histogram = true)
 @Tag(name = "Categorias", description = "API para gestión de categorias")
 public class CategoriaController {
 
     @Autowired
     private ICategoriaService iCategoriaService;
 
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private CatalogoVersionService catalogoVersionService;
+
+    @GetMapping("/categorias")
+    @Operation(summary = "Obtener las categorias", description = "Metodo para obtener todas las categorias")
+    public List<CategoriaEntity> findAll(WebRequest request) {
+        if (catalogoVersionService.noModificado(request)) {
+            return null;
+        }
+        return iCategoriaService.findAll();
+    }
+
+    @GetMapping("/categorias/{id}/productos")
+    @Operation(summary = "Obtener los productos de una categoria", description = "Retorna una página de los productos " +
+            "de la categoria ordenada por id, con la misma paginación por cursor de /productos")
+    public PaginaDto<ProductoDto> findProductos(@PathVariable Integer id,
+                                                @RequestParam(required = false) String after,
+                                                @RequestParam(defaultValue = "20") int limit,
+                                                WebRequest request) {
+        if (catalogoVersionService.noModificado(request)) {
+            return null;
+        }
+        return productoService.findPageByCategoria(id, after, limit);
+    }
+
     @PostMapping
     @Operation(summary = "Crear una categoria", description = "Metodo para crear una categoria")
     public CategoriaEntity create(@Valid @RequestBody CategoriaDto categoriaDto) {
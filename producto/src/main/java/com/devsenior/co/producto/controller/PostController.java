@@ -2,17 +2,22 @@ package com.devsenior.co.producto.controller;
 
 import com.devsenior.co.producto.feign.IPostRest;
 import com.devsenior.co.producto.model.Post;
+import com.devsenior.co.producto.model.PostsLoteDto;
+import com.devsenior.co.producto.service.PostsService;
+import io.micrometer.core.annotation.Timed;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
 
 @RestController
+@Timed(value = "app.controller", histogram = true)
 @RequestMapping("/posts")
 @Tag(name = "Posts", description = "API para consultar posts")
 @SecurityRequirement(name = "token")
@@ -21,6 +26,9 @@ public class PostController {
     @Autowired
     private IPostRest postRest;
 
+    @Autowired
+    private PostsService postsService;
+
     @GetMapping("/{id}")
     public Post getPostById(@PathVariable Integer id) {
         return postRest.getPostById(id);
@@ -31,4 +39,9 @@ public class PostController {
     public List<Post> getPosts() {
         return postRest.getPosts();
     }
+
+    @GetMapping(params = "ids")
+    public PostsLoteDto getPostsByIds(@RequestParam List<Integer> ids) {
+        return postsService.getPostsByIds(ids);
+    }
 }
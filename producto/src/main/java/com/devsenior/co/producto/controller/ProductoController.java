@@ -1,19 +1,45 @@
 package com.devsenior.co.producto.controller;
 
+import com.devsenior.co.producto.model.BusquedaProductoDto;
+import com.devsenior.co.producto.model.EstadisticasDto;
+import com.devsenior.co.producto.model.FeedCambiosDto;
+import com.devsenior.co.producto.model.PaginaDto;
 import com.devsenior.co.producto.model.ProductoDto;
+import com.devsenior.co.producto.model.ReservaDto;
+import com.devsenior.co.producto.model.ResultadoBusquedaDto;
+import com.devsenior.co.producto.model.ResultadoReservaDto;
+import com.devsenior.co.producto.model.TicketEscrituraDto;
 import com.devsenior.co.producto.model.entity.ProductoEntity;
+import com.devsenior.co.producto.service.CambioCatalogoService;
+import com.devsenior.co.producto.service.CambiosStreamService;
+import com.devsenior.co.producto.service.CatalogoVersionService;
+import com.devsenior.co.producto.service.EstadisticasService;
+import com.devsenior.co.producto.service.ProductoEscrituraAsincronaService;
 import com.devsenior.co.producto.service.ProductoService;
+import com.devsenior.co.producto.service.RespuestasProductoCache;
+import com.devsenior.co.producto.service.StockReservaService;
+import io.micrometer.core.annotation.Timed;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.util.List;
 
 @RestController
+@Timed(value = "app.controller", histogram = true)
 @RequestMapping("/productos")
 @Tag(name = "Productos", description = "API para gestión de productos")
 @SecurityRequirement(name = "token")
@@ -23,10 +49,83 @@ public class ProductoController {
     @Autowired
     private ProductoService productoService;
 
+    @Autowired
+    private StockReservaService stockReservaService;
+
+    @Autowired
+    private CatalogoVersionService catalogoVersionService;
+
+    @Autowired
+    private CambioCatalogoService cambioCatalogoService;
+
+    @Autowired
+    private CambiosStreamService cambiosStreamService;
+
+    @Autowired
+    private EstadisticasService estadisticasService;
+
+    @Autowired
+    private ProductoEscrituraAsincronaService productoEscrituraAsincronaService;
+
     @GetMapping
-    @Operation(summary = "Obtener todos los productos", description = "Retorna una lista con todos los productos disponibles")
-    public List<ProductoDto> findAll() {
-        return productoService.findAll();
+    @Operation(summary = "Obtener los productos paginados", description = "Retorna una página de productos ordenada por id. " +
+            "Para obtener la siguiente página se envía el siguienteCursor recibido en el parametro after. " +
+            "Si se envía el ETag recibido en If-None-Match y el catalogo no cambió retorna 304 sin contenido")
+    @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = PaginaDto.class)))
+    public ResponseEntity<byte[]> findAll(@RequestParam(required = false) String after,
+                                          @RequestParam(defaultValue = "20") int limit,
+                                          WebRequest request) {
+        if (catalogoVersionService.noModificado(request)) {
+            return null;
+        }
+        return responder(productoService.findPageSerializada(after, limit), request);
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Obtener un producto", description = "Retorna el producto con su categoria. " +
+            "Si se envía el ETag recibido en If-None-Match y el catalogo no cambió retorna 304 sin contenido")
+    @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = ProductoDto.class)))
+    public ResponseEntity<byte[]> findById(@PathVariable Integer id, WebRequest request) {
+        if (catalogoVersionService.noModificado(request)) {
+            return null;
+        }
+        return responder(productoService.findByIdSerializado(id), request);
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Buscar productos", description = "Busca por palabras del nombre (prefijo o aproximada con fuzzy=true) " +
+            "y filtra por precio, cantidad, disponibilidad y categoria. Retorna el total y el conteo por categoria")
+    public ResultadoBusquedaDto search(@ModelAttribute BusquedaProductoDto filtros, WebRequest request) {
+        if (catalogoVersionService.noModificado(request)) {
+            return null;
+        }
+        return productoService.search(filtros);
+    }
+
+    @GetMapping("/estadisticas")
+    @Operation(summary = "Estadisticas del inventario", description = "Valor del inventario (precio * cantidad), productos disponibles " +
+            "y percentiles del precio por categoria y del catalogo completo. Con memoria=true se calculan sobre una copia " +
+            "en memoria que puede tener unos segundos de atraso")
+    public EstadisticasDto estadisticas(@RequestParam(defaultValue = "false") boolean memoria) {
+        return memoria ? estadisticasService.calcularEnMemoria() : estadisticasService.calcular();
+    }
+
+    @GetMapping("/changes")
+    @Operation(summary = "Obtener los cambios del catalogo", description = "Retorna los eventos de productos y categorias " +
+            "publicados despues de la secuencia since. Para la siguiente consulta se envía la ultimaSecuencia recibida")
+    public FeedCambiosDto changes(@RequestParam(defaultValue = "0") long since,
+                                  @RequestParam(defaultValue = "100") int limit) {
+        return cambioCatalogoService.findDesde(since, limit);
+    }
+
+    @GetMapping(path = "/changes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Suscribirse a los cambios del catalogo", description = "Envía los eventos por Server-Sent Events. " +
+            "Sin since ni Last-Event-ID solo se reciben los cambios nuevos")
+    public SseEmitter changesStream(@RequestParam(required = false) Long since,
+                                    @RequestHeader(name = "Last-Event-ID", required = false) Long ultimoEvento) {
+        long desde = ultimoEvento != null ? ultimoEvento
+                : since != null ? since : cambioCatalogoService.getUltimaSecuencia();
+        return cambiosStreamService.suscribir(desde);
     }
 
     @PostMapping
@@ -38,12 +137,108 @@ public class ProductoController {
     @PutMapping("/{id}")
     @Operation(summary = "Actualizar un producto", description = "Metodo para actualizar un producto")
     public ProductoEntity update(@PathVariable Integer id, @Valid @RequestBody ProductoDto producto) {
+        productoEscrituraAsincronaService.esperarPendiente(id);
         return productoService.update(id, producto);
     }
 
+    /**
+     * Con header Prefer. Puede traer varias preferencias (RFC 7240), por ejemplo "respond-async, wait=10"
+     * o "handling=lenient, respond-async"; sin respond-async la actualización es la normal.
+     */
+    @PutMapping(path = "/{id}", headers = "Prefer")
+    @Operation(summary = "Actualizar un producto de forma asincrona", description = "Con la preferencia respond-async en el header Prefer " +
+            "la actualización se escribe en lote junto con otras y retorna 202 con el ticket para consultar el resultado en Location. " +
+            "Si la cola esta llena, o el header no pide respond-async, se actualiza de inmediato y retorna 200 con el producto")
+    public ResponseEntity<?> updateAsync(@PathVariable Integer id, @Valid @RequestBody ProductoDto producto,
+                                         @RequestHeader("Prefer") List<String> prefer) {
+        if (!prefiereAsincrono(prefer)) {
+            return ResponseEntity.ok(update(id, producto));
+        }
+        TicketEscrituraDto ticket = productoEscrituraAsincronaService.encolar(id, producto);
+        if (ticket == null) {
+            return ResponseEntity.ok(productoService.update(id, producto));
+        }
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                        .path("/productos/escrituras/{ticket}").buildAndExpand(ticket.getId()).toUri())
+                .header("Preference-Applied", "respond-async")
+                .body(ticket);
+    }
+
+    @GetMapping("/escrituras/{ticket}")
+    @Operation(summary = "Consultar una actualización asincrona", description = "Retorna el estado de la actualización. " +
+            "Los tickets terminados se conservan unos minutos")
+    public TicketEscrituraDto escritura(@PathVariable String ticket) {
+        return productoEscrituraAsincronaService.consultar(ticket);
+    }
+
+    @PostMapping("/{id}/reservas")
+    @Operation(summary = "Reservar stock de un producto", description = "Descuenta la cantidad de forma atomica. " +
+            "Retorna 409 si el producto no tiene stock suficiente")
+    public ResultadoReservaDto reservar(@PathVariable Integer id, @Valid @RequestBody ReservaDto reserva) {
+        return stockReservaService.reservar(id, reserva.getCantidad());
+    }
+
+    @PostMapping("/{id}/liberaciones")
+    @Operation(summary = "Liberar stock de un producto", description = "Devuelve al stock una cantidad reservada")
+    public ResultadoReservaDto liberar(@PathVariable Integer id, @Valid @RequestBody ReservaDto reserva) {
+        return stockReservaService.liberar(id, reserva.getCantidad());
+    }
+
     @DeleteMapping("/{id}")
     @Operation(summary = "Eliminar un producto", description = "Metodo para actualizar un producto")
     public void delete(@PathVariable Integer id) {
          productoService.delete(id);
     }
+
+    /**
+     * Cada header Prefer trae preferencias separadas por comas; cada una es un token seguido opcionalmente
+     * de "=valor" y de parametros con ";". Los nombres no distinguen mayusculas.
+     */
+    private static boolean prefiereAsincrono(List<String> headers) {
+        for (String header : headers) {
+            for (String preferencia : header.split(",")) {
+                int fin = preferencia.length();
+                int igual = preferencia.indexOf('=');
+                int parametro = preferencia.indexOf(';');
+                if (igual >= 0) {
+                    fin = igual;
+                }
+                if (parametro >= 0 && parametro < fin) {
+                    fin = parametro;
+                }
+                if (preferencia.substring(0, fin).trim().equalsIgnoreCase("respond-async")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Escribe la respuesta ya serializada. Si el cliente acepta gzip y existe la variante comprimida se envía con
+     * Content-Encoding: gzip, y el servidor ya no la vuelve a comprimir.
+     */
+    private static ResponseEntity<byte[]> responder(RespuestasProductoCache.RespuestaSerializada respuesta, WebRequest request) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (respuesta.gzip() != null && aceptaGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(respuesta.gzip());
+        }
+        return builder.body(respuesta.json());
+    }
+
+    private static boolean aceptaGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String codificacion : acceptEncoding.split(",")) {
+            String[] partes = codificacion.split(";");
+            if (partes[0].trim().equalsIgnoreCase("gzip")) {
+                return partes.length == 1 || !partes[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
 }
\ No newline at end of file
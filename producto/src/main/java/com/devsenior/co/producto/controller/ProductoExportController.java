@@ -0,0 +1,52 @@
+package com.devsenior.co.producto.controller;
+
+import com.devsenior.co.producto.model.FormatoExportacion;
+import com.devsenior.co.producto.service.ProductoExportService;
+import io.micrometer.core.annotation.Timed;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+
+@Slf4j
+@RestController
+@Timed(value = "app.controller", histogram = true)
+@RequestMapping("/productos/export")
+@Tag(name = "Productos", description = "API para gestión de productos")
+@SecurityRequirement(name = "token")
+public class ProductoExportController {
+
+    @Autowired
+    private ProductoExportService productoExportService;
+
+    @GetMapping
+    @Operation(summary = "Exportar el catalogo", description = "Retorna todos los productos en formato ndjson o csv a medida que se leen de la base de datos")
+    public ResponseEntity<StreamingResponseBody> exportar(@RequestParam(defaultValue = "ndjson") String formato) {
+        FormatoExportacion formatoExportacion = FormatoExportacion.desde(formato);
+
+        StreamingResponseBody body = salida -> {
+            try {
+                productoExportService.exportar(formatoExportacion, salida);
+            } catch (IOException e) {
+                // El cliente cerro la conexion, el cursor ya fue liberado
+                log.debug("Exportacion interrumpida por el cliente: {}", e.getMessage());
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(formatoExportacion.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=productos." + formatoExportacion.name().toLowerCase())
+                .body(body);
+    }
+}
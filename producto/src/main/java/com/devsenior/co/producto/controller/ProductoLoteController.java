@@ -0,0 +1,84 @@
+package com.devsenior.co.producto.controller;
+
+import com.devsenior.co.producto.model.ProductoActualizacionDto;
+import com.devsenior.co.producto.model.ProductoDto;
+import com.devsenior.co.producto.model.ResultadoLoteDto;
+import com.devsenior.co.producto.service.ProductoLoteService;
+import io.micrometer.core.annotation.Timed;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+
+@RestController
+@Timed(value = "app.controller", histogram = true)
+@RequestMapping("/productos/batch")
+@Tag(name = "Productos", description = "API para gestión de productos")
+@SecurityRequirement(name = "token")
+public class ProductoLoteController {
+
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    @Autowired
+    private ProductoLoteService productoLoteService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Crear productos en lote", description = "Recibe un arreglo de productos y retorna el resumen con los errores por registro")
+    public ResultadoLoteDto create(@RequestBody List<ProductoDto> productos) {
+        return productoLoteService.crear(productos.iterator());
+    }
+
+    @PostMapping(consumes = APPLICATION_NDJSON)
+    @Operation(summary = "Crear productos en lote (ndjson)", description = "Recibe un producto por linea y los procesa a medida que se leen")
+    public ResultadoLoteDto createNdjson(InputStream body) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            return productoLoteService.crear(leerLineas(reader, ProductoDto.class));
+        }
+    }
+
+    @PutMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Actualizar productos en lote", description = "Recibe un arreglo de {id, producto} y retorna el resumen con los errores por registro")
+    public ResultadoLoteDto update(@RequestBody List<ProductoActualizacionDto> productos) {
+        return productoLoteService.actualizar(productos.iterator());
+    }
+
+    @PutMapping(consumes = APPLICATION_NDJSON)
+    @Operation(summary = "Actualizar productos en lote (ndjson)", description = "Recibe un {id, producto} por linea y los procesa a medida que se leen")
+    public ResultadoLoteDto updateNdjson(InputStream body) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            return productoLoteService.actualizar(leerLineas(reader, ProductoActualizacionDto.class));
+        }
+    }
+
+    /**
+     * Convierte cada linea no vacia en un objeto sin cargar todo el cuerpo en memoria.
+     * Las lineas que no son JSON valido se entregan como null para que se reporten como error del registro.
+     */
+    private <T> Iterator<T> leerLineas(BufferedReader reader, Class<T> tipo) {
+        return reader.lines()
+                .filter(linea -> !linea.isBlank())
+                .map(linea -> {
+                    try {
+                        return objectMapper.readValue(linea, tipo);
+                    } catch (JacksonException e) {
+                        return null;
+                    }
+                })
+                .iterator();
+    }
+}
@@ -7,7 +7,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 
 import java.util.List;
 
-@FeignClient(name = "Posts", url = "${post.baseUrl}")
+@FeignClient(name = "Posts", url = "${post.baseUrl}", qualifiers = "postRestFeign", primary = false)
 public interface IPostRest {
 
     @GetMapping("/{id}")
@@ -0,0 +1,166 @@
+package com.devsenior.co.producto.feign;
+
+import com.devsenior.co.producto.model.Post;
+import com.devsenior.co.producto.shared.cache.CacheStats;
+import com.devsenior.co.producto.shared.cache.LocalCache;
+import com.devsenior.co.producto.shared.metrics.RequestStats;
+import feign.FeignException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Decorador del cliente Feign de posts. Las respuestas se guardan por id y la lista completa en una sola entrada.
+ * <ul>
+ *     <li>Respuesta fresca: se entrega desde la cache.</li>
+ *     <li>Respuesta vencida: se entrega desde la cache y se refresca en segundo plano (stale-while-revalidate).</li>
+ *     <li>Sin respuesta: se consulta al servicio externo. Las consultas simultaneas por la misma llave comparten una sola llamada.</li>
+ * </ul>
+ * Las llamadas al servicio externo pasan por un bulkhead y un circuit breaker; si fallan y existe una respuesta vencida se entrega esa.
+ */
+@Slf4j
+@Primary
+@Component
+@EnableConfigurationProperties(PostRestProperties.class)
+public class PostRestCache implements IPostRest {
+
+    private static final String TODOS = "todos";
+
+    private final IPostRest delegate;
+    private final Executor executor;
+    private final LongSupplier reloj;
+    private final long ttlFrescoNanos;
+    private final LocalCache<Object, Entrada<?>> cache;
+    private final ConcurrentHashMap<Object, CompletableFuture<Object>> enCurso = new ConcurrentHashMap<>();
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+
+    @Autowired
+    public PostRestCache(@Qualifier("postRestFeign") IPostRest delegate,
+                         @Qualifier("applicationTaskExecutor") Executor executor,
+                         PostRestProperties properties) {
+        this(delegate, executor, properties, System::nanoTime);
+    }
+
+    PostRestCache(IPostRest delegate, Executor executor, PostRestProperties properties, LongSupplier reloj) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.reloj = reloj;
+        this.ttlFrescoNanos = properties.ttlFresco().toNanos();
+        this.cache = new LocalCache<>(properties.maxEntradas(), properties.ttlObsoleto(), reloj);
+        this.circuitBreaker = CircuitBreaker.of("posts", CircuitBreakerConfig.custom()
+                .failureRateThreshold(properties.umbralFallos())
+                .slidingWindowSize(20)
+                .minimumNumberOfCalls(10)
+                .waitDurationInOpenState(properties.esperaAbierto())
+                // Un 404 del servicio externo es una respuesta valida, no un fallo
+                .ignoreExceptions(FeignException.FeignClientException.class)
+                .build());
+        this.bulkhead = Bulkhead.of("posts", BulkheadConfig.custom()
+                .maxConcurrentCalls(properties.maxConcurrentes())
+                .maxWaitDuration(properties.esperaBulkhead())
+                .build());
+    }
+
+    @Override
+    public Post getPostById(Integer id) {
+        return obtener(id, () -> delegate.getPostById(id));
+    }
+
+    @Override
+    public List<Post> getPosts() {
+        return obtener(TODOS, delegate::getPosts);
+    }
+
+    /**
+     * Retorna el post si esta en cache (fresco o vencido) sin consultar al servicio externo.
+     */
+    public Post getPostIfPresent(Integer id) {
+        Entrada<?> entrada = cache.get(id);
+        return entrada == null ? null : (Post) entrada.valor();
+    }
+
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    public CircuitBreaker.State getEstadoCircuito() {
+        return circuitBreaker.getState();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T obtener(Object key, Supplier<T> upstream) {
+        Entrada<T> entrada = (Entrada<T>) cache.get(key);
+        if (entrada == null) {
+            return cargar(key, upstream);
+        }
+        if (entrada.frescoHasta() - reloj.getAsLong() <= 0 && !enCurso.containsKey(key)) {
+            executor.execute(() -> refrescar(key, upstream));
+        }
+        return entrada.valor();
+    }
+
+    private <T> void refrescar(Object key, Supplier<T> upstream) {
+        try {
+            cargar(key, upstream);
+        } catch (RuntimeException e) {
+            log.warn("No se pudo refrescar el post {}: {}", key, e.getMessage());
+        }
+    }
+
+    /**
+     * Solo el primer hilo que pide una llave llama al servicio externo, los demás esperan su resultado.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T cargar(Object key, Supplier<T> upstream) {
+        CompletableFuture<Object> nuevo = new CompletableFuture<>();
+        CompletableFuture<Object> existente = enCurso.putIfAbsent(key, nuevo);
+        if (existente != null) {
+            try {
+                return (T) existente.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException causa ? causa : e;
+            }
+        }
+
+        long inicio = System.nanoTime();
+        try {
+            T valor = Bulkhead.decorateSupplier(bulkhead, CircuitBreaker.decorateSupplier(circuitBreaker, upstream)).get();
+            RequestStats.registrarLlamadaExterna("posts/" + key, System.nanoTime() - inicio, true);
+            cache.put(key, new Entrada<>(valor, reloj.getAsLong() + ttlFrescoNanos));
+            nuevo.complete(valor);
+            return valor;
+        } catch (RuntimeException e) {
+            RequestStats.registrarLlamadaExterna("posts/" + key, System.nanoTime() - inicio, false);
+            // Si el servicio externo falla se entrega la respuesta vencida en caso de tenerla, sin renovar su vigencia
+            Entrada<T> vencida = (Entrada<T>) cache.get(key);
+            if (vencida != null && !(e instanceof FeignException.FeignClientException)) {
+                log.warn("Fallo la consulta del post {}, se entrega la respuesta vencida: {}", key, e.getMessage());
+                nuevo.complete(vencida.valor());
+                return vencida.valor();
+            }
+            nuevo.completeExceptionally(e);
+            throw e;
+        } finally {
+            enCurso.remove(key, nuevo);
+        }
+    }
+
+    private record Entrada<T>(T valor, long frescoHasta) {
+    }
+}
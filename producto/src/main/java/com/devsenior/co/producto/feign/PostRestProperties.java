@@ -0,0 +1,28 @@
+package com.devsenior.co.producto.feign;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuración de la cache y la resiliencia del cliente de posts (prefijo post.cache)
+ *
+ * @param ttlFresco       tiempo en que una respuesta se entrega sin consultar al servicio externo
+ * @param ttlObsoleto     tiempo máximo en que una respuesta vencida se sigue entregando mientras se refresca
+ *                        o mientras el servicio externo no responde
+ * @param umbralFallos    porcentaje de fallos que abre el circuit breaker
+ * @param esperaAbierto   tiempo que el circuito permanece abierto antes de volver a probar
+ * @param maxConcurrentes llamadas simultaneas permitidas al servicio externo (bulkhead)
+ * @param esperaBulkhead  tiempo máximo de espera por un cupo del bulkhead
+ */
+@ConfigurationProperties(prefix = "post.cache")
+public record PostRestProperties(
+        @DefaultValue("30s") Duration ttlFresco,
+        @DefaultValue("10m") Duration ttlObsoleto,
+        @DefaultValue("1000") int maxEntradas,
+        @DefaultValue("50") float umbralFallos,
+        @DefaultValue("30s") Duration esperaAbierto,
+        @DefaultValue("20") int maxConcurrentes,
+        @DefaultValue("500ms") Duration esperaBulkhead) {
+}
@@ -0,0 +1,30 @@
+package com.devsenior.co.producto.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Filtros de la busqueda de productos. Todos son opcionales.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BusquedaProductoDto {
+
+    // Texto a buscar en el nombre, cada palabra se busca por prefijo
+    private String q;
+    // Acepta palabras con una letra de diferencia (dos si la palabra tiene más de 5 letras)
+    @Builder.Default
+    private boolean fuzzy = false;
+    private Double precioMin;
+    private Double precioMax;
+    private Integer cantidadMin;
+    private Integer cantidadMax;
+    private Boolean estaDisponible;
+    private Integer categoriaId;
+    @Builder.Default
+    private int limit = 20;
+}
@@ -0,0 +1,27 @@
+package com.devsenior.co.producto.model;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CambioCatalogoDto {
+
+    private Long secuencia;
+    private EntidadCatalogo entidad;
+    private Integer entidadId;
+    private OperacionCambio operacion;
+
+    // Ya esta serializado en la tabla outbox, se escribe tal cual en la respuesta
+    @JsonRawValue
+    private String datos;
+
+    private Instant fechaPublicacion;
+}
@@ -0,0 +1,16 @@
+package com.devsenior.co.producto.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CategoriaResumenDto {
+
+    private Integer id;
+    private String nombre;
+}
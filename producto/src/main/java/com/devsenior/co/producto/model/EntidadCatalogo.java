@@ -0,0 +1,6 @@
+package com.devsenior.co.producto.model;
+
+public enum EntidadCatalogo {
+    PRODUCTO,
+    CATEGORIA
+}
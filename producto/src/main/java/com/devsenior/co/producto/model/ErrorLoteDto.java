@@ -0,0 +1,21 @@
+package com.devsenior.co.producto.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ErrorLoteDto {
+
+    // Posición del registro dentro del arreglo o linea del ndjson, iniciando en 0
+    private Integer indice;
+    private Integer id;
+    private MotivoErrorLote motivo;
+    private List<String> errores;
+}
@@ -0,0 +1,31 @@
+package com.devsenior.co.producto.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Estadisticas de un grupo de productos. En el total del catalogo categoriaId y categoria son null,
+ * en una categoria categoriaId es null solo para los productos sin categoria.
+ * Los percentiles del precio se interpolan entre los dos valores vecinos (percentile_cont).
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class EstadisticasCategoriaDto {
+
+    private Integer categoriaId;
+    private String categoria;
+    private Long productos;
+    private Long disponibles;
+    // Suma de precio * cantidad
+    private Double valorInventario;
+    private Double precioMinimo;
+    private Double precioMaximo;
+    private Double precioPromedio;
+    private Double precioP50;
+    private Double precioP90;
+    private Double precioP99;
+}
@@ -0,0 +1,22 @@
+package com.devsenior.co.producto.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class EstadisticasDto {
+
+    private EstadisticasCategoriaDto total;
+    private List<EstadisticasCategoriaDto> categorias;
+    // Momento en que se leyeron los datos: la consulta en modo SQL, la copia en memoria en modo memoria
+    private Instant generado;
+    private boolean enMemoria;
+}
@@ -0,0 +1,8 @@
+package com.devsenior.co.producto.model;
+
+public enum EstadoEscritura {
+    PENDIENTE,
+    APLICADA,
+    NO_ENCONTRADO,
+    ERROR
+}
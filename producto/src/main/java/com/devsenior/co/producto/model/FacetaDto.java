@@ -0,0 +1,17 @@
+package com.devsenior.co.producto.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class FacetaDto {
+
+    private Integer categoriaId;
+    private String nombre;
+    private long cantidad;
+}
@@ -0,0 +1,21 @@
+package com.devsenior.co.producto.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class FeedCambiosDto {
+
+    private List<CambioCatalogoDto> cambios;
+
+    // Valor para el parametro since de la siguiente consulta
+    private long ultimaSecuencia;
+    private boolean hayMas;
+}
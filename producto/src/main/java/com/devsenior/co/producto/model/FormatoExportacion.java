@@ -0,0 +1,24 @@
+package com.devsenior.co.producto.model;
+
+import com.devsenior.co.producto.shared.exceptions.SolicitudInvalidaException;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum FormatoExportacion {
+
+    NDJSON("application/x-ndjson"),
+    CSV("text/csv");
+
+    private final String contentType;
+
+    public static FormatoExportacion desde(String formato) {
+        for (FormatoExportacion valor : values()) {
+            if (valor.name().equalsIgnoreCase(formato)) {
+                return valor;
+            }
+        }
+        throw new SolicitudInvalidaException("El formato: " + formato + " no es soportado. Use ndjson o csv.");
+    }
+}
@@ -0,0 +1,9 @@
+package com.devsenior.co.producto.model;
+
+public enum MotivoErrorLote {
+    // JSON invalido o no pasa la validación
+    INVALIDO,
+    NO_ENCONTRADO,
+    // La base de datos rechazó el bloque completo
+    ERROR_ESCRITURA
+}
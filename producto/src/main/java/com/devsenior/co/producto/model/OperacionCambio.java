@@ -0,0 +1,9 @@
+package com.devsenior.co.producto.model;
+
+public enum OperacionCambio {
+    CREADO,
+    ACTUALIZADO,
+    // Reserva o liberación de stock: datos solo lleva el id y la diferencia aplicada a la cantidad
+    STOCK_AJUSTADO,
+    ELIMINADO
+}
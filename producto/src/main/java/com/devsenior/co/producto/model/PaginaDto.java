@@ -0,0 +1,23 @@
+package com.devsenior.co.producto.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Página de resultados para paginación por cursor (keyset).
+ * siguienteCursor es opaco para el cliente y es null cuando no hay más resultados.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PaginaDto<T> {
+
+    private List<T> contenido;
+    private String siguienteCursor;
+    private Integer limite;
+}
@@ -0,0 +1,22 @@
+package com.devsenior.co.producto.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resultado de la consulta de varios posts. Los ids que fallaron se reportan en errores con el motivo.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PostsLoteDto {
+
+    private List<Post> posts;
+    private Map<Integer, String> errores;
+}
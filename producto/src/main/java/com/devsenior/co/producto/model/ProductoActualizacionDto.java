@@ -0,0 +1,22 @@
+package com.devsenior.co.producto.model;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ProductoActualizacionDto {
+
+    @NotNull(message = "El id no puede ser nulo")
+    private Integer id;
+
+    @Valid
+    @NotNull(message = "El producto no puede ser nulo")
+    private ProductoDto producto;
+}
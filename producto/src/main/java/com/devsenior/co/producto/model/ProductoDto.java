@@ -1,6 +1,8 @@
 package com.devsenior.co.producto.model;
 
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -28,4 +30,16 @@ public class ProductoDto {
 
     @NotNull(message = "Esta disponible no puede ser nulo")
     private Boolean estaDisponible;
+
+    // Solo de lectura, se llena en los listados que cargan la categoria en la misma consulta
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private CategoriaResumenDto categoria;
+
+    public ProductoDto(String nombre, Integer cantidad, Double precio, Boolean estaDisponible) {
+        this.nombre = nombre;
+        this.cantidad = cantidad;
+        this.precio = precio;
+        this.estaDisponible = estaDisponible;
+    }
 }
\ No newline at end of file
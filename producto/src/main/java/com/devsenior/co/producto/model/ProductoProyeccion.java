@@ -0,0 +1,17 @@
+package com.devsenior.co.producto.model;
+
+/**
+ * Vista de solo lectura de un producto con su categoria. Las consultas la construyen directamente
+ * (select new ...), por lo que no se crean entidades administradas, snapshots ni proxies.
+ */
+public record ProductoProyeccion(Integer id, String nombre, Integer cantidad, Double precio, Boolean estaDisponible,
+                                 Integer categoriaId, String categoriaNombre) {
+
+    public ProductoDto toDto() {
+        ProductoDto dto = new ProductoDto(nombre, cantidad, precio, estaDisponible);
+        if (categoriaId != null) {
+            dto.setCategoria(new CategoriaResumenDto(categoriaId, categoriaNombre));
+        }
+        return dto;
+    }
+}
@@ -0,0 +1,21 @@
+package com.devsenior.co.producto.model;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ReservaDto {
+
+    @NotNull(message = "La cantidad no puede ser nula")
+    @Min(value = 1, message = "La cantidad debe ser mayor a 0")
+    @Max(value = 1000, message = "La cantidad no puede ser mayor a 1000")
+    private Integer cantidad;
+}
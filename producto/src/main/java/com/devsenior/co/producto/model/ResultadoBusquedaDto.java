@@ -0,0 +1,21 @@
+package com.devsenior.co.producto.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ResultadoBusquedaDto {
+
+    // Total de productos que cumplen los filtros, sin aplicar el limite
+    private long total;
+    private List<ProductoDto> productos;
+    // Cantidad de resultados por categoria, calculada sin el filtro de categoria
+    private List<FacetaDto> categorias;
+}
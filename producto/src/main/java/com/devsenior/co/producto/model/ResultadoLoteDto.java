@@ -0,0 +1,21 @@
+package com.devsenior.co.producto.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ResultadoLoteDto {
+
+    private int procesados;
+    private int exitosos;
+    @Builder.Default
+    private List<ErrorLoteDto> errores = new ArrayList<>();
+}
@@ -0,0 +1,18 @@
+package com.devsenior.co.producto.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ResultadoReservaDto {
+
+    private Integer productoId;
+    private Integer cantidad;
+    // true cuando la operación se resolvió con el contador en memoria del producto
+    private boolean enMemoria;
+}
@@ -0,0 +1,27 @@
+package com.devsenior.co.producto.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class TicketEscrituraDto {
+
+    private String id;
+    private Integer productoId;
+    private EstadoEscritura estado;
+    // true si otra actualización posterior del mismo producto la reemplazó antes de escribirse
+    private boolean combinada;
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private List<String> errores;
+    private Instant fechaRecibida;
+    private Instant fechaFin;
+}
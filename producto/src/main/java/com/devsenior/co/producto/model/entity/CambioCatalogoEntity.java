@@ -0,0 +1,52 @@
+package com.devsenior.co.producto.model.entity;
+
+import com.devsenior.co.producto.model.EntidadCatalogo;
+import com.devsenior.co.producto.model.OperacionCambio;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+
+/**
+ * Tabla outbox: cada escritura del catalogo guarda aqui su evento en la misma transacción.
+ * La secuencia se asigna al publicar el evento y es el cursor del feed de cambios.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity(name = "cambio_catalogo")
+@Builder
+public class CambioCatalogoEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cambio_catalogo_seq")
+    @SequenceGenerator(name = "cambio_catalogo_seq", sequenceName = "cambio_catalogo_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    private EntidadCatalogo entidad;
+    private Integer entidadId;
+
+    @Enumerated(EnumType.STRING)
+    private OperacionCambio operacion;
+
+    // Estado de la entidad en JSON despues del cambio, null cuando se elimina
+    @Column(length = 4000)
+    private String datos;
+
+    // Instancia de la aplicación que hizo el cambio, para que cada una ignore los propios al sincronizar
+    @Column(length = 36)
+    private String origen;
+
+    @CreationTimestamp
+    private Instant fechaCreacion;
+
+    // null mientras el evento esta pendiente de publicar
+    @Column(unique = true)
+    private Long secuencia;
+    private Instant fechaPublicacion;
+}
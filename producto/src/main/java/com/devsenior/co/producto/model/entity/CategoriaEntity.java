@@ -9,6 +9,9 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
 
 @Data
 @AllArgsConstructor
@@ -22,4 +25,7 @@ public class CategoriaEntity {
     private Integer id;
     private String nombre;
     private String descripcion;
+
+    @UpdateTimestamp
+    private Instant fechaModificacion;
 }
\ No newline at end of file
@@ -6,16 +6,22 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity(name = "producto")
+@Table(indexes = @Index(name = "producto_fecha_modificacion_idx", columnList = "fecha_modificacion"))
 @Builder
 public class ProductoEntity {
 
+    // Secuencia con asignacion por bloques (pooled) para que Hibernate pueda agrupar los INSERT en lotes JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "producto_seq")
+    @SequenceGenerator(name = "producto_seq", sequenceName = "producto_seq", allocationSize = 50)
     private Integer id;
     private String nombre;
     private Integer cantidad;
@@ -25,6 +31,10 @@ public class ProductoEntity {
     @ManyToOne(fetch = FetchType.LAZY)
     private CategoriaEntity categoria;
 
+    // Las actualizaciones masivas (reservas de stock) la asignan en la misma sentencia
+    @UpdateTimestamp
+    private Instant fechaModificacion;
+
     public ProductoEntity(String nombre, Integer cantidad, Double precio, Boolean estaDisponible) {
         this.nombre = nombre;
         this.cantidad = cantidad;
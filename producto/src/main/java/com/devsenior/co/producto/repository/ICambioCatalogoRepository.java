@@ -0,0 +1,49 @@
+package com.devsenior.co.producto.repository;
+
+import com.devsenior.co.producto.model.CambioCatalogoDto;
+import com.devsenior.co.producto.model.entity.CambioCatalogoEntity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface ICambioCatalogoRepository extends JpaRepository<CambioCatalogoEntity, Long> {
+
+    /**
+     * Eventos pendientes en orden de escritura. El bloqueo hace que dos relays de distintas instancias
+     * no publiquen los mismos eventos: el segundo espera y al continuar ya no los encuentra pendientes.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from cambio_catalogo c where c.secuencia is null order by c.id")
+    List<CambioCatalogoEntity> findPendientes(Limit limit);
+
+    @Query("select coalesce(max(c.secuencia), 0) from cambio_catalogo c")
+    long findUltimaSecuencia();
+
+    /**
+     * Si hay eventos publicados en el rango (desde, hasta] escritos por otra instancia. Los eventos sin origen
+     * (anteriores a la columna) se cuentan como de otra instancia.
+     */
+    @Query("select count(c) > 0 from cambio_catalogo c where c.secuencia > :desde and c.secuencia <= :hasta " +
+            "and (c.origen is null or c.origen <> :origen)")
+    boolean existenDeOtroOrigen(long desde, long hasta, String origen);
+
+    @Query("select new com.devsenior.co.producto.model.CambioCatalogoDto(" +
+            "c.secuencia, c.entidad, c.entidadId, c.operacion, c.datos, c.fechaPublicacion) " +
+            "from cambio_catalogo c where c.secuencia > :secuencia order by c.secuencia")
+    List<CambioCatalogoDto> findPublicadosDesde(Long secuencia, Limit limit);
+
+    /**
+     * Los pendientes (secuencia null) no se borran, y tampoco los publicados desde la secuencia indicada.
+     */
+    @Modifying
+    @Query("delete from cambio_catalogo c where c.fechaPublicacion < :limite and c.secuencia < :secuencia")
+    int eliminarPublicadosAntes(Instant limite, long secuencia);
+}
@@ -2,8 +2,14 @@ package com.devsenior.co.producto.repository;
 
 import com.devsenior.co.producto.model.entity.CategoriaEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+
 @Repository
 public interface ICategoriaRepository extends JpaRepository<CategoriaEntity, Integer> {
+
+    @Query("select max(c.fechaModificacion) from categoria c")
+    Instant findUltimaModificacion();
 }
\ No newline at end of file
@@ -1,9 +1,117 @@
 package com.devsenior.co.producto.repository;
 
+import com.devsenior.co.producto.model.EstadisticasCategoriaDto;
+import com.devsenior.co.producto.model.ProductoProyeccion;
 import com.devsenior.co.producto.model.entity.ProductoEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface IProductoRepository extends JpaRepository<ProductoEntity, Integer> {
-}
\ No newline at end of file
+
+    // Las lecturas seleccionan solo las columnas del DTO, la categoria viene en el mismo left join.
+    // Las que usa ProductoService declaran aqui la transacción de solo lectura: el servicio no la abre
+    // para no tomar una conexión cuando responde desde CatalogoColumnar
+    String PROYECCION = "select new com.devsenior.co.producto.model.ProductoProyeccion(" +
+            "p.id, p.nombre, p.cantidad, p.precio, p.estaDisponible, c.id, c.nombre) " +
+            "from producto p left join p.categoria c ";
+
+    // Agregados de las estadisticas, el orden de las columnas es el del constructor de EstadisticasCategoriaDto
+    String AGREGADOS = "count(p), coalesce(sum(case when p.estaDisponible = true then 1 else 0 end), 0), " +
+            "coalesce(sum(p.precio * p.cantidad), 0), min(p.precio), max(p.precio), avg(p.precio), " +
+            "percentile_cont(0.5) within group (order by p.precio), " +
+            "percentile_cont(0.9) within group (order by p.precio), " +
+            "percentile_cont(0.99) within group (order by p.precio)) ";
+
+    @Transactional(readOnly = true)
+    @Query(PROYECCION + "order by p.id")
+    List<ProductoProyeccion> findAllProyectados();
+
+    /**
+     * Consulta keyset: usa el indice de la llave primaria (id > :id ORDER BY id LIMIT n),
+     * por lo que el costo es el mismo sin importar que tan profunda sea la página.
+     */
+    @Transactional(readOnly = true)
+    @Query(PROYECCION + "where p.id > :id order by p.id")
+    List<ProductoProyeccion> findPaginaDesde(Integer id, Limit limit);
+
+    /**
+     * Página keyset de los productos de una categoria.
+     */
+    @Transactional(readOnly = true)
+    @Query(PROYECCION + "where c.id = :categoriaId and p.id > :id order by p.id")
+    List<ProductoProyeccion> findPaginaDeCategoria(Integer categoriaId, Integer id, Limit limit);
+
+    @Transactional(readOnly = true)
+    @Query(PROYECCION + "where p.id = :id")
+    Optional<ProductoProyeccion> findProyectadoById(Integer id);
+
+    @Query(PROYECCION + "where p.id in :ids order by p.id")
+    List<ProductoProyeccion> findProyectadosById(Collection<Integer> ids);
+
+    /**
+     * Descuenta stock solo si alcanza. La condicion y el descuento se evaluan en la misma sentencia,
+     * por lo que dos reservas concurrentes no pueden dejar la cantidad en negativo.
+     * Retorna 0 si el producto no existe o no tiene stock suficiente.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update producto p set p.cantidad = p.cantidad - :cantidad, p.fechaModificacion = instant where p.id = :id and p.cantidad >= :cantidad")
+    int reservar(Integer id, int cantidad);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update producto p set p.cantidad = p.cantidad + :cantidad, p.fechaModificacion = instant where p.id = :id")
+    int liberar(Integer id, int cantidad);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from producto p where p.id = :id")
+    int eliminar(Integer id);
+
+    /**
+     * Lleva producto_seq (PostgreSQL) por encima del id mayor cuando la tabla tiene ids que no salieron de ella,
+     * por ejemplo los creados antes de usar la secuencia. Con asignacion pooled el siguiente nextval entrega el
+     * limite superior del bloque, por lo que el bloque siguiente empieza en max(id) + 1. Retorna el valor actual.
+     */
+    @Transactional
+    @Query(value = "select case when m.maximo > s.last_value then setval('producto_seq', m.maximo) " +
+            "else s.last_value end from (select coalesce(max(id), 0) as maximo from producto) m, producto_seq s",
+            nativeQuery = true)
+    long ajustarSecuencia();
+
+    /**
+     * Estadisticas por categoria calculadas en la base de datos: solo viaja una fila por categoria.
+     */
+    @Query("select new com.devsenior.co.producto.model.EstadisticasCategoriaDto(c.id, c.nombre, " + AGREGADOS +
+            "from producto p left join p.categoria c group by c.id, c.nombre order by c.id nulls last")
+    List<EstadisticasCategoriaDto> findEstadisticasPorCategoria();
+
+    @Query("select new com.devsenior.co.producto.model.EstadisticasCategoriaDto(" +
+            "cast(null as Integer), cast(null as String), " + AGREGADOS + "from producto p")
+    EstadisticasCategoriaDto findEstadisticasTotales();
+
+    @Query("select max(p.fechaModificacion) from producto p")
+    Instant findUltimaModificacion();
+
+    /**
+     * Recorre todos los productos con un cursor de base de datos. El driver trae las filas
+     * en bloques de fetchSize, por lo que debe consumirse dentro de una transacción y cerrarse al terminar.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(PROYECCION + "order by p.id")
+    Stream<ProductoProyeccion> streamAll();
+}
@@ -0,0 +1,136 @@
+package com.devsenior.co.producto.service;
+
+import com.devsenior.co.producto.model.CambioCatalogoDto;
+import com.devsenior.co.producto.model.EntidadCatalogo;
+import com.devsenior.co.producto.model.FeedCambiosDto;
+import com.devsenior.co.producto.model.OperacionCambio;
+import com.devsenior.co.producto.model.entity.CambioCatalogoEntity;
+import com.devsenior.co.producto.model.entity.CategoriaEntity;
+import com.devsenior.co.producto.model.entity.ProductoEntity;
+import com.devsenior.co.producto.repository.ICambioCatalogoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Escribe los eventos de cambio del catalogo en la tabla outbox y los lee para el feed incremental.
+ * El registro exige una transacción activa: el evento se confirma o se revierte junto con la escritura que lo generó.
+ * Cada evento guarda el origen (un id de esta instancia) para distinguir los cambios hechos por otras instancias.
+ */
+@Service
+public class CambioCatalogoService {
+
+    public static final int LIMITE_MAXIMO = 1000;
+
+    @Autowired
+    private ICambioCatalogoRepository iCambioCatalogoRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final String origen = UUID.randomUUID().toString();
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(ProductoEntity producto, OperacionCambio operacion) {
+        iCambioCatalogoRepository.save(cambioDe(producto, operacion));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(List<ProductoEntity> productos, OperacionCambio operacion) {
+        iCambioCatalogoRepository.saveAll(productos.stream().map(producto -> cambioDe(producto, operacion)).toList());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(CategoriaEntity categoria, OperacionCambio operacion) {
+        Map<String, Object> datos = new LinkedHashMap<>();
+        datos.put("id", categoria.getId());
+        datos.put("nombre", categoria.getNombre());
+        datos.put("descripcion", categoria.getDescripcion());
+        iCambioCatalogoRepository.save(CambioCatalogoEntity.builder()
+                .entidad(EntidadCatalogo.CATEGORIA)
+                .entidadId(categoria.getId())
+                .operacion(operacion)
+                .datos(objectMapper.writeValueAsString(datos))
+                .origen(origen)
+                .build());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarAjusteStock(Integer id, int diferencia) {
+        Map<String, Object> datos = new LinkedHashMap<>();
+        datos.put("id", id);
+        datos.put("diferencia", diferencia);
+        iCambioCatalogoRepository.save(CambioCatalogoEntity.builder()
+                .entidad(EntidadCatalogo.PRODUCTO)
+                .entidadId(id)
+                .operacion(OperacionCambio.STOCK_AJUSTADO)
+                .datos(objectMapper.writeValueAsString(datos))
+                .origen(origen)
+                .build());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarEliminacion(EntidadCatalogo entidad, Integer id) {
+        iCambioCatalogoRepository.save(CambioCatalogoEntity.builder()
+                .entidad(entidad)
+                .entidadId(id)
+                .operacion(OperacionCambio.ELIMINADO)
+                .origen(origen)
+                .build());
+    }
+
+    /**
+     * Eventos publicados despues de la secuencia recibida. Las secuencias se confirman en orden,
+     * por lo que un cliente que guarda ultimaSecuencia y la envía en la siguiente consulta no pierde eventos.
+     */
+    @Transactional(readOnly = true)
+    public FeedCambiosDto findDesde(long since, int limit) {
+        int limite = Math.clamp(limit, 1, LIMITE_MAXIMO);
+        List<CambioCatalogoDto> cambios = iCambioCatalogoRepository.findPublicadosDesde(since, Limit.of(limite + 1));
+        boolean hayMas = cambios.size() > limite;
+        if (hayMas) {
+            cambios = cambios.subList(0, limite);
+        }
+        long ultimaSecuencia = cambios.isEmpty() ? since : cambios.getLast().getSecuencia();
+        return new FeedCambiosDto(cambios, ultimaSecuencia, hayMas);
+    }
+
+    @Transactional(readOnly = true)
+    public long getUltimaSecuencia() {
+        return iCambioCatalogoRepository.findUltimaSecuencia();
+    }
+
+    /**
+     * Si otra instancia publicó eventos con secuencia en (desde, hasta].
+     */
+    @Transactional(readOnly = true)
+    public boolean hayCambiosDeOtraInstancia(long desde, long hasta) {
+        return hasta > desde && iCambioCatalogoRepository.existenDeOtroOrigen(desde, hasta, origen);
+    }
+
+    private CambioCatalogoEntity cambioDe(ProductoEntity producto, OperacionCambio operacion) {
+        Map<String, Object> datos = new LinkedHashMap<>();
+        datos.put("id", producto.getId());
+        datos.put("nombre", producto.getNombre());
+        datos.put("cantidad", producto.getCantidad());
+        datos.put("precio", producto.getPrecio());
+        datos.put("estaDisponible", producto.getEstaDisponible());
+        // El id de la categoria esta en el proxy, no se carga la entidad
+        datos.put("categoriaId", producto.getCategoria() == null ? null : producto.getCategoria().getId());
+        return CambioCatalogoEntity.builder()
+                .entidad(EntidadCatalogo.PRODUCTO)
+                .entidadId(producto.getId())
+                .operacion(operacion)
+                .datos(objectMapper.writeValueAsString(datos))
+                .origen(origen)
+                .build();
+    }
+}
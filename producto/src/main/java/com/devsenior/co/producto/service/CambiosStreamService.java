@@ -0,0 +1,168 @@
+package com.devsenior.co.producto.service;
+
+import com.devsenior.co.producto.model.CambioCatalogoDto;
+import com.devsenior.co.producto.model.FeedCambiosDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Envia el feed de cambios por Server-Sent Events. Los eventos se leen de la tabla outbox en orden de secuencia,
+ * no del lote que entrega el relay, para incluir tambien los que publicó otra instancia; el lote del relay
+ * local solo adelanta la lectura. Cada evento lleva su secuencia como id, por lo que un cliente que se
+ * reconecta con Last-Event-ID continua donde quedó.
+ * Cada suscriptor tiene su cola y su hilo virtual que escribe en la conexión: ni el relay ni la difusión esperan
+ * a un cliente lento. Si la cola de un suscriptor se llena se cierra su conexión y al reconectarse se pone al dia
+ * desde la tabla.
+ */
+@Slf4j
+@Service
+public class CambiosStreamService implements PublicadorCambios {
+
+    @Autowired
+    private CambioCatalogoService cambioCatalogoService;
+
+    @Value("${producto.outbox.sse-lotes-pendientes:64}")
+    private int lotesPendientes;
+
+    private final Set<Suscriptor> suscriptores = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean difusionPendiente = new AtomicBoolean();
+
+    // Ultima secuencia enviada a los suscriptores, -1 hasta que se conecta el primero
+    private long ultimaDifundida = -1;
+
+    /**
+     * Registra al suscriptor antes de leer los eventos atrasados: lo que se publique mientras se pone al dia
+     * queda en su cola y se envía despues, sin duplicados porque cada suscriptor descarta las secuencias ya enviadas.
+     */
+    public SseEmitter suscribir(long since) {
+        SseEmitter emitter = new SseEmitter();
+        Suscriptor suscriptor = new Suscriptor(emitter, since);
+        emitter.onCompletion(suscriptor::detener);
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> suscriptor.detener());
+        synchronized (this) {
+            // Lo publicado hasta aqui lo lee el suscriptor al ponerse al dia, lo siguiente llega por difundir
+            if (ultimaDifundida < 0) {
+                ultimaDifundida = cambioCatalogoService.getUltimaSecuencia();
+            }
+            suscriptores.add(suscriptor);
+        }
+        suscriptor.iniciar();
+        return emitter;
+    }
+
+    /**
+     * Llamado por el relay: la lectura de la tabla y el reparto a las colas se hacen en otro hilo.
+     * Las publicaciones que llegan mientras hay una difusión pendiente se juntan en esa.
+     */
+    @Override
+    public void publicar(List<CambioCatalogoDto> cambios) {
+        if (!suscriptores.isEmpty() && difusionPendiente.compareAndSet(false, true)) {
+            Thread.startVirtualThread(() -> {
+                difusionPendiente.set(false);
+                difundir();
+            });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${producto.outbox.periodo:500ms}", initialDelayString = "${producto.outbox.periodo:500ms}")
+    public synchronized void difundir() {
+        if (suscriptores.isEmpty()) {
+            ultimaDifundida = -1;
+            return;
+        }
+        FeedCambiosDto pagina;
+        do {
+            pagina = cambioCatalogoService.findDesde(ultimaDifundida, CambioCatalogoService.LIMITE_MAXIMO);
+            if (!pagina.getCambios().isEmpty()) {
+                for (Suscriptor suscriptor : suscriptores) {
+                    suscriptor.recibir(pagina.getCambios());
+                }
+            }
+            ultimaDifundida = pagina.getUltimaSecuencia();
+        } while (pagina.isHayMas());
+    }
+
+    private final class Suscriptor {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<List<CambioCatalogoDto>> pendientes = new ArrayBlockingQueue<>(lotesPendientes);
+        // Solo la usa el hilo del suscriptor
+        private long ultimaEnviada;
+        private volatile Thread hilo;
+
+        private Suscriptor(SseEmitter emitter, long since) {
+            this.emitter = emitter;
+            this.ultimaEnviada = since;
+        }
+
+        private void iniciar() {
+            hilo = Thread.startVirtualThread(this::entregar);
+        }
+
+        /**
+         * Primero los eventos atrasados desde la tabla y despues los lotes que llegan a la cola.
+         */
+        private void entregar() {
+            try {
+                FeedCambiosDto pagina;
+                do {
+                    pagina = cambioCatalogoService.findDesde(ultimaEnviada, CambioCatalogoService.LIMITE_MAXIMO);
+                    enviar(pagina.getCambios());
+                } while (pagina.isHayMas());
+                while (!Thread.currentThread().isInterrupted()) {
+                    enviar(pendientes.take());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException | RuntimeException e) {
+                cerrar(e);
+            }
+        }
+
+        private void recibir(List<CambioCatalogoDto> cambios) {
+            if (!pendientes.offer(cambios)) {
+                cerrar(new IllegalStateException("El cliente no lee los cambios a tiempo"));
+            }
+        }
+
+        private void enviar(List<CambioCatalogoDto> cambios) throws IOException {
+            for (CambioCatalogoDto cambio : cambios) {
+                if (cambio.getSecuencia() > ultimaEnviada) {
+                    emitter.send(SseEmitter.event()
+                            .id(String.valueOf(cambio.getSecuencia()))
+                            .name("cambio")
+                            .data(cambio, MediaType.APPLICATION_JSON));
+                    ultimaEnviada = cambio.getSecuencia();
+                }
+            }
+        }
+
+        private void detener() {
+            suscriptores.remove(this);
+            Thread actual = hilo;
+            if (actual != null) {
+                actual.interrupt();
+            }
+        }
+
+        private void cerrar(Exception e) {
+            log.debug("Se cierra la suscripción al feed de cambios: {}", e.getMessage());
+            detener();
+            emitter.completeWithError(e);
+        }
+    }
+}
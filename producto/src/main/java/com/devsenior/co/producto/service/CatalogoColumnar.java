@@ -0,0 +1,188 @@
+package com.devsenior.co.producto.service;
+
+import com.devsenior.co.producto.model.ProductoProyeccion;
+import com.devsenior.co.producto.model.entity.CategoriaEntity;
+import com.devsenior.co.producto.model.entity.ProductoEntity;
+import com.devsenior.co.producto.repository.IProductoRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * Motor opcional de lecturas del catalogo en memoria (producto.catalogo-columnar.habilitado).
+ * Mantiene una copia en columnas (ColumnasCatalogo) que se reemplaza de forma atómica: los lectores
+ * no toman bloqueos ni conexiones, los cambios se aplican uno a la vez sobre una copia nueva.
+ * <ul>
+ *     <li>Se construye completa al iniciar y cuando CatalogoVersionService detecta cambios de otra instancia.</li>
+ *     <li>Las escrituras de esta instancia la actualizan por producto despues de confirmar, igual que el indice de busqueda.</li>
+ * </ul>
+ * Mientras se construye, los productos que cambian se vuelven a leer al terminar para no perder un cambio
+ * confirmado despues de que la lectura completa ya paso por su fila.
+ */
+@Slf4j
+@Component
+public class CatalogoColumnar {
+
+    @Autowired
+    private IProductoRepository iProductoRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${producto.catalogo-columnar.habilitado:false}")
+    private boolean habilitado;
+
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicReference<ColumnasCatalogo> columnas = new AtomicReference<>();
+    private final Object escritura = new Object();
+    // No es null mientras se construye la copia completa
+    private Set<Integer> cambiosDuranteConstruccion;
+
+    public CatalogoColumnar(PlatformTransactionManager transactionManager) {
+        // Escritura y no solo lectura para leer del primario: la replica puede no tener los ultimos cambios
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void registrarMetricas() {
+        if (!habilitado) {
+            return;
+        }
+        Gauge.builder("app.catalogo.columnar.productos", columnas, actual -> actual.get() == null ? 0 : actual.get().tamano())
+                .description("Productos en la copia en columnas del catalogo")
+                .register(meterRegistry);
+        Gauge.builder("app.catalogo.columnar.bytes", columnas, actual -> actual.get() == null ? 0 : actual.get().bytes())
+                .description("Memoria aproximada de la copia en columnas del catalogo")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Copia actual, o null si el motor esta deshabilitado o todavia no se construye (se consulta la base de datos).
+     */
+    ColumnasCatalogo actual() {
+        return columnas.get();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void construir() {
+        if (habilitado) {
+            reconstruir();
+        }
+    }
+
+    public void reconstruir() {
+        if (!habilitado) {
+            return;
+        }
+        synchronized (escritura) {
+            if (cambiosDuranteConstruccion != null) {
+                return;
+            }
+            cambiosDuranteConstruccion = new HashSet<>();
+        }
+        long inicio = System.nanoTime();
+        try {
+            ColumnasCatalogo nuevas = transactionTemplate.execute(status -> {
+                try (Stream<ProductoProyeccion> filas = iProductoRepository.streamAll()) {
+                    return ColumnasCatalogo.desde(filas.iterator());
+                }
+            });
+            synchronized (escritura) {
+                if (!cambiosDuranteConstruccion.isEmpty()) {
+                    nuevas = recargar(nuevas, cambiosDuranteConstruccion);
+                }
+                columnas.set(nuevas);
+            }
+            log.info("Catalogo en columnas construido con {} productos ({} KB) en {} ms", nuevas.tamano(),
+                    nuevas.bytes() / 1024, (System.nanoTime() - inicio) / 1_000_000);
+        } finally {
+            synchronized (escritura) {
+                cambiosDuranteConstruccion = null;
+            }
+        }
+    }
+
+    public void guardar(ProductoEntity producto) {
+        guardar(List.of(producto));
+    }
+
+    public void guardar(Collection<ProductoEntity> productos) {
+        if (!habilitado || productos.isEmpty()) {
+            return;
+        }
+        List<ColumnasCatalogo.Fila> filas = productos.stream().map(CatalogoColumnar::fila).toList();
+        aplicar(productos.stream().map(ProductoEntity::getId).toList(),
+                actual -> actual.conCambios(filas, List.of()));
+    }
+
+    public void eliminar(Integer id) {
+        if (habilitado) {
+            aplicar(List.of(id), actual -> actual.conCambios(List.of(), List.of(id)));
+        }
+    }
+
+    /**
+     * Reservas y liberaciones de stock: la base de datos aplica la diferencia en la misma sentencia,
+     * aqui se aplica igual sin volver a leer el producto.
+     */
+    public void ajustarCantidad(Integer id, int diferencia) {
+        if (habilitado) {
+            aplicar(List.of(id), actual -> actual.conCantidad(id, diferencia));
+        }
+    }
+
+    public void registrarCategoria(Integer id, String nombre) {
+        if (habilitado) {
+            aplicar(List.of(), actual -> actual.conCategoria(id, nombre));
+        }
+    }
+
+    private void aplicar(Collection<Integer> ids, UnaryOperator<ColumnasCatalogo> cambio) {
+        synchronized (escritura) {
+            if (cambiosDuranteConstruccion != null) {
+                cambiosDuranteConstruccion.addAll(ids);
+            }
+            ColumnasCatalogo actual = columnas.get();
+            if (actual != null) {
+                columnas.set(cambio.apply(actual));
+            }
+        }
+    }
+
+    private ColumnasCatalogo recargar(ColumnasCatalogo base, Set<Integer> ids) {
+        List<ProductoProyeccion> productos = transactionTemplate.execute(status -> iProductoRepository.findProyectadosById(ids));
+        Set<Integer> eliminados = new HashSet<>(ids);
+        productos.forEach(producto -> eliminados.remove(producto.id()));
+        return base.conCambios(productos.stream().map(ColumnasCatalogo.Fila::desde).toList(), eliminados);
+    }
+
+    /**
+     * La categoria de la entidad puede ser un proxy sin inicializar: el id se lee sin consultar
+     * y el nombre solo si ya esta cargado (si no, la copia ya lo conoce por la construcción o por CategoriaService).
+     */
+    private static ColumnasCatalogo.Fila fila(ProductoEntity producto) {
+        CategoriaEntity categoria = producto.getCategoria();
+        String categoriaNombre = categoria != null && Hibernate.isInitialized(categoria) ? categoria.getNombre() : null;
+        return ColumnasCatalogo.Fila.desde(new ProductoProyeccion(producto.getId(), producto.getNombre(),
+                producto.getCantidad(), producto.getPrecio(), producto.getEstaDisponible(),
+                categoria == null ? null : categoria.getId(), categoriaNombre));
+    }
+}
@@ -0,0 +1,130 @@
+package com.devsenior.co.producto.service;
+
+import com.devsenior.co.producto.repository.ICategoriaRepository;
+import com.devsenior.co.producto.repository.IProductoRepository;
+import com.devsenior.co.producto.shared.config.CacheConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version del catalogo (productos y categorias) para las peticiones condicionales (ETag / Last-Modified).
+ * Cada escritura la incrementa, por lo que mientras no cambie un cliente puede recibir 304 sin consultar la base de datos.
+ * Las escrituras hechas por otras instancias se detectan al sincronizar con los eventos publicados del outbox que
+ * tienen otro origen; en ese caso se reconstruyen las copias en memoria del catalogo (columnas e indice de busqueda).
+ * Las escrituras propias ya actualizaron esas copias por producto y no provocan una reconstrucción.
+ * Un cambio hecho directamente en la base de datos, sin evento, no se detecta.
+ */
+@Slf4j
+@Service
+public class CatalogoVersionService {
+
+    @Autowired
+    private IProductoRepository iProductoRepository;
+
+    @Autowired
+    private ICategoriaRepository iCategoriaRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private CatalogoColumnar catalogoColumnar;
+
+    @Autowired
+    private RespuestasProductoCache respuestasProductoCache;
+
+    @Autowired
+    private CambioCatalogoService cambioCatalogoService;
+
+    // Lazy: el indice depende de ICategoriaService, que a su vez depende de este servicio
+    @Lazy
+    @Autowired
+    private ProductoSearchIndex productoSearchIndex;
+
+    // Inicia con la hora de arranque para que una instancia reiniciada no repita un ETag anterior
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+    private volatile long ultimaModificacion = System.currentTimeMillis();
+    // Ultima secuencia del outbox ya revisada, -1 hasta iniciar
+    private volatile long secuenciaRevisada = -1;
+
+    public void incrementar() {
+        version.incrementAndGet();
+        ultimaModificacion = Math.max(ultimaModificacion, System.currentTimeMillis());
+    }
+
+    /**
+     * ETag debil: Tomcat no comprime respuestas con ETag fuerte, y la versión con gzip y sin gzip
+     * son equivalentes. If-None-Match usa comparación debil, por lo que el 304 funciona igual.
+     */
+    public String getEtag() {
+        return "W/\"" + Long.toString(version.get(), Character.MAX_RADIX) + "\"";
+    }
+
+    public long getUltimaModificacion() {
+        return ultimaModificacion;
+    }
+
+    /**
+     * Agrega los encabezados de validación a la respuesta y retorna true si el cliente ya tiene la versión actual,
+     * en ese caso la respuesta queda como 304 y el controlador no debe consultar nada.
+     */
+    public boolean noModificado(WebRequest request) {
+        // no-cache: el cliente puede guardar la respuesta pero debe revalidarla con If-None-Match en cada consulta
+        if (request instanceof ServletWebRequest servletRequest && servletRequest.getResponse() != null) {
+            servletRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        }
+        return request.checkNotModified(getEtag(), getUltimaModificacion());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        Instant productos = iProductoRepository.findUltimaModificacion();
+        Instant categorias = iCategoriaRepository.findUltimaModificacion();
+        Instant ultima = productos == null ? categorias
+                : categorias == null || productos.isAfter(categorias) ? productos : categorias;
+        if (ultima != null) {
+            ultimaModificacion = ultima.toEpochMilli();
+        }
+        secuenciaRevisada = cambioCatalogoService.getUltimaSecuencia();
+    }
+
+    @Scheduled(fixedDelayString = "${producto.catalogo.sincronizacion:30s}", initialDelayString = "${producto.catalogo.sincronizacion:30s}")
+    public void sincronizar() {
+        if (secuenciaRevisada < 0) {
+            return;
+        }
+        // Los eventos publicados despues de leer la ultima secuencia quedan para la siguiente sincronización
+        long hasta = cambioCatalogoService.getUltimaSecuencia();
+        if (cambioCatalogoService.hayCambiosDeOtraInstancia(secuenciaRevisada, hasta)) {
+            log.debug("Otra instancia cambio el catalogo desde la ultima sincronización, se invalida la cache");
+            limpiarCache(CacheConfig.PRODUCTOS);
+            limpiarCache(CacheConfig.CATEGORIAS);
+            catalogoColumnar.reconstruir();
+            productoSearchIndex.reconstruir();
+            respuestasProductoCache.invalidarTodo();
+            incrementar();
+        }
+        secuenciaRevisada = hasta;
+    }
+
+    private void limpiarCache(String nombre) {
+        Cache cache = cacheManager.getCache(nombre);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+}
@@ -1,24 +1,68 @@
 package com.devsenior.co.producto.service;
 
 import com.devsenior.co.producto.model.CategoriaDto;
+import com.devsenior.co.producto.model.OperacionCambio;
 import com.devsenior.co.producto.model.entity.CategoriaEntity;
 import com.devsenior.co.producto.repository.ICategoriaRepository;
-import com.devsenior.co.producto.shared.exceptions.CustomException;
+import com.devsenior.co.producto.shared.config.CacheConfig;
+import com.devsenior.co.producto.shared.exceptions.RecursoNoEncontradoException;
+import com.devsenior.co.producto.shared.transaction.AlConfirmar;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Date;
+import java.util.List;
 
 @Service
+@Timed(value = "app.service", histogram = true)
 public class CategoriaService implements ICategoriaService {
 
     @Autowired
     private ICategoriaRepository categoriaRepository;
 
+    @Autowired
+    private CatalogoVersionService catalogoVersionService;
+
+    @Autowired
+    private CambioCatalogoService cambioCatalogoService;
+
+    @Autowired
+    private CatalogoColumnar catalogoColumnar;
+
+    @Autowired
+    private RespuestasProductoCache respuestasProductoCache;
+
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.CATEGORIAS, key = "'todas'")
+    public List<CategoriaEntity> findAll() {
+        return categoriaRepository.findAll();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.CATEGORIAS, key = "#id")
+    public CategoriaEntity findById(Integer id) {
+        return categoriaRepository.findById(id).orElseThrow(() ->
+                new RecursoNoEncontradoException("La categoria con id: "+ id + " no existe"));
+    }
+
     @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.CATEGORIAS, allEntries = true)
     public CategoriaEntity create(CategoriaDto categoria) {
         CategoriaEntity cat = createEntity(categoria);
-        return categoriaRepository.save(cat);
+        CategoriaEntity guardada = categoriaRepository.save(cat);
+        cambioCatalogoService.registrar(guardada, OperacionCambio.CREADO);
+        AlConfirmar.ejecutar(() -> {
+            catalogoColumnar.registrarCategoria(guardada.getId(), guardada.getNombre());
+            catalogoVersionService.incrementar();
+        });
+        return guardada;
     }
 
 //    @Override
@@ -31,12 +75,26 @@ public class CategoriaService implements ICategoriaService {
 //    }
 
     @Override
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.CATEGORIAS, allEntries = true),
+            // Las páginas de productos incluyen el nombre de la categoria
+            @CacheEvict(cacheNames = CacheConfig.PRODUCTOS, allEntries = true)
+    })
     public CategoriaEntity update(Integer id, CategoriaDto categoria) {
         CategoriaEntity entity = categoriaRepository.findById(id).orElseThrow(() ->
-                new CustomException("La categoria con id: "+ id + " no existe", new Date()));
+                new RecursoNoEncontradoException("La categoria con id: "+ id + " no existe"));
         entity.setNombre(categoria.getNombre());
         entity.setDescripcion(categoria.getDescripcion());
-        return categoriaRepository.save(entity);
+        CategoriaEntity guardada = categoriaRepository.save(entity);
+        cambioCatalogoService.registrar(guardada, OperacionCambio.ACTUALIZADO);
+        AlConfirmar.ejecutar(() -> {
+            catalogoColumnar.registrarCategoria(guardada.getId(), guardada.getNombre());
+            // Las respuestas incluyen el nombre de la categoria
+            respuestasProductoCache.invalidarTodo();
+            catalogoVersionService.incrementar();
+        });
+        return guardada;
     }
 
     public CategoriaEntity createEntity(CategoriaDto categoria) {
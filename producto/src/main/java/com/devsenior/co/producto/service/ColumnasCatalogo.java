@@ -0,0 +1,559 @@
+package com.devsenior.co.producto.service;
+
+import com.devsenior.co.producto.model.BusquedaProductoDto;
+import com.devsenior.co.producto.model.CategoriaResumenDto;
+import com.devsenior.co.producto.model.FacetaDto;
+import com.devsenior.co.producto.model.ProductoDto;
+import com.devsenior.co.producto.model.ProductoProyeccion;
+import com.devsenior.co.producto.model.ResultadoBusquedaDto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Copia del catalogo en columnas de tipos primitivos para responder las lecturas sin la base de datos.
+ * Las filas estan ordenadas por id, el nombre se guarda como un código de un diccionario y la disponibilidad
+ * como un bit. Cada columna se divide en bloques de BLOQUE filas: los lectores la usan sin sincronización y cada
+ * cambio crea una copia nueva que comparte los bloques que no toca, asi actualizar o agregar un producto copia
+ * solo su bloque y no las columnas completas. CatalogoColumnar publica la copia de forma atómica.
+ * Precio o cantidad null se toman como 0, la validación de ProductoDto no permite guardarlos.
+ */
+final class ColumnasCatalogo {
+
+    // Los ids de las secuencias inician en 1
+    static final int SIN_CATEGORIA = 0;
+    private static final int SIN_NOMBRE = -1;
+    // 4096 filas por bloque: un cambio copia unos 80 KB sin importar el tamaño del catalogo
+    private static final int BITS_BLOQUE = 12;
+    static final int BLOQUE = 1 << BITS_BLOQUE;
+    private static final int MASCARA = BLOQUE - 1;
+
+    private final int tamano;
+    // Todos los bloques tienen BLOQUE posiciones, en el ultimo solo se usan las que caben en tamano
+    private final int[][] ids;
+    private final int[][] cantidades;
+    private final double[][] precios;
+    private final long[][] disponibles;
+    private final int[][] nombres;
+    private final int[][] categorias;
+    // Compartido entre las copias: solo se agregan valores al final y cada copia lee hasta su tamaño
+    private final String[] diccionario;
+    private final int tamanoDiccionario;
+    private final Map<Integer, String> nombresCategorias;
+
+    private ColumnasCatalogo(int tamano, int[][] ids, int[][] cantidades, double[][] precios, long[][] disponibles,
+                             int[][] nombres, int[][] categorias, String[] diccionario, int tamanoDiccionario,
+                             Map<Integer, String> nombresCategorias) {
+        this.tamano = tamano;
+        this.ids = ids;
+        this.cantidades = cantidades;
+        this.precios = precios;
+        this.disponibles = disponibles;
+        this.nombres = nombres;
+        this.categorias = categorias;
+        this.diccionario = diccionario;
+        this.tamanoDiccionario = tamanoDiccionario;
+        this.nombresCategorias = nombresCategorias;
+    }
+
+    /**
+     * Construye la copia con las filas ordenadas por id (como las entrega streamAll). Los nombres repetidos
+     * comparten el mismo código.
+     */
+    static ColumnasCatalogo desde(Iterator<ProductoProyeccion> filas) {
+        List<Fila> lista = new ArrayList<>();
+        Map<Integer, String> categorias = new HashMap<>();
+        while (filas.hasNext()) {
+            ProductoProyeccion fila = filas.next();
+            lista.add(Fila.desde(fila));
+            if (fila.categoriaId() != null) {
+                categorias.put(fila.categoriaId(), fila.categoriaNombre());
+            }
+        }
+        return vacia(categorias).conCambios(lista, List.of());
+    }
+
+    static ColumnasCatalogo vacia(Map<Integer, String> nombresCategorias) {
+        return new ColumnasCatalogo(0, new int[0][], new int[0][], new double[0][], new long[0][], new int[0][],
+                new int[0][], new String[16], 0, Map.copyOf(nombresCategorias));
+    }
+
+    int tamano() {
+        return tamano;
+    }
+
+    ProductoDto buscar(int id) {
+        int posicion = posicion(id);
+        return posicion < 0 ? null : dto(posicion);
+    }
+
+    List<ProductoDto> todos() {
+        ProductoDto[] productos = new ProductoDto[tamano];
+        for (int i = 0; i < productos.length; i++) {
+            productos[i] = dto(i);
+        }
+        return Arrays.asList(productos);
+    }
+
+    /**
+     * Todas las filas en orden de id, para las estadisticas en memoria.
+     */
+    Stream<ProductoProyeccion> proyecciones() {
+        return IntStream.range(0, tamano).mapToObj(this::proyeccion);
+    }
+
+    /**
+     * Hasta cantidad productos con id mayor a despuesDe, solo de la categoria si no es null.
+     */
+    List<ProductoProyeccion> pagina(int despuesDe, Integer categoriaId, int cantidad) {
+        int posicion = posicion(despuesDe);
+        posicion = posicion < 0 ? -posicion - 1 : posicion + 1;
+        List<ProductoProyeccion> pagina = new ArrayList<>(Math.max(0, Math.min(cantidad, tamano - posicion)));
+        for (int i = posicion; i < tamano && pagina.size() < cantidad; i++) {
+            if (categoriaId == null || categoria(i) == categoriaId) {
+                pagina.add(proyeccion(i));
+            }
+        }
+        return pagina;
+    }
+
+    /**
+     * Aplica los filtros por rango y disponibilidad recorriendo las columnas (sin el texto, que usa el indice de
+     * busqueda). El resultado es el mismo que el de ProductoSearchIndex: ordenado por id y con las facetas
+     * calculadas sin el filtro de categoria.
+     */
+    ResultadoBusquedaDto filtrar(BusquedaProductoDto filtros, int limite) {
+        double precioMin = filtros.getPrecioMin() == null ? Double.NEGATIVE_INFINITY : filtros.getPrecioMin();
+        double precioMax = filtros.getPrecioMax() == null ? Double.POSITIVE_INFINITY : filtros.getPrecioMax();
+        int cantidadMin = filtros.getCantidadMin() == null ? Integer.MIN_VALUE : filtros.getCantidadMin();
+        int cantidadMax = filtros.getCantidadMax() == null ? Integer.MAX_VALUE : filtros.getCantidadMax();
+        Boolean disponible = filtros.getEstaDisponible();
+        Integer categoriaId = filtros.getCategoriaId();
+
+        List<ProductoDto> productos = new ArrayList<>(limite);
+        Map<Integer, Long> facetas = new HashMap<>();
+        long total = 0;
+        // Bloque por bloque para recorrer cada columna en memoria continua
+        for (int bloque = 0; bloque < bloques(); bloque++) {
+            int[] cantidad = cantidades[bloque];
+            double[] precio = precios[bloque];
+            long[] disponibleBloque = disponibles[bloque];
+            int[] categoria = categorias[bloque];
+            int inicio = bloque << BITS_BLOQUE;
+            int filas = Math.min(BLOQUE, tamano - inicio);
+            for (int j = 0; j < filas; j++) {
+                if (precio[j] < precioMin || precio[j] > precioMax
+                        || cantidad[j] < cantidadMin || cantidad[j] > cantidadMax
+                        || (disponible != null && disponible != ((disponibleBloque[j >>> 6] & (1L << j)) != 0))) {
+                    continue;
+                }
+                if (categoria[j] != SIN_CATEGORIA) {
+                    facetas.merge(categoria[j], 1L, Long::sum);
+                }
+                if (categoriaId == null || categoria[j] == categoriaId) {
+                    if (productos.size() < limite) {
+                        productos.add(dto(inicio + j));
+                    }
+                    total++;
+                }
+            }
+        }
+        List<FacetaDto> resumen = facetas.entrySet().stream()
+                .map(conteo -> new FacetaDto(conteo.getKey(), nombresCategorias.get(conteo.getKey()), conteo.getValue()))
+                .sorted(Comparator.comparingLong(FacetaDto::getCantidad).reversed())
+                .toList();
+        return new ResultadoBusquedaDto(total, productos, resumen);
+    }
+
+    String nombreCategoria(int categoriaId) {
+        return nombresCategorias.get(categoriaId);
+    }
+
+    /**
+     * Bytes aproximados que ocupa la copia: los bloques de las columnas (incluidos los compartidos con otras copias),
+     * los nombres del diccionario en uso (String con su byte[] en LATIN1) y los nombres de las categorias.
+     */
+    long bytes() {
+        int bloques = ids.length;
+        long bytes = arreglo(bloques, 4) * 6 + bloques * (arreglo(BLOQUE, 4) * 4 + arreglo(BLOQUE, 8)
+                + arreglo(BLOQUE / 64, 8)) + arreglo(diccionario.length, 4);
+        for (int i = 0; i < tamanoDiccionario; i++) {
+            bytes += texto(diccionario[i]);
+        }
+        for (String nombre : nombresCategorias.values()) {
+            bytes += texto(nombre) + 32;
+        }
+        return bytes;
+    }
+
+    /**
+     * Copia con las filas guardadas (creadas o actualizadas, gana la ultima por id) y sin las eliminadas.
+     * Las actualizaciones y los productos nuevos con id mayor al ultimo (el caso normal con ids de una secuencia)
+     * copian solo los bloques que tocan. Eliminar o insertar en medio desplaza las filas siguientes y arma
+     * todos los bloques de nuevo.
+     */
+    ColumnasCatalogo conCambios(Collection<Fila> guardadas, Collection<Integer> eliminadas) {
+        TreeMap<Integer, Fila> cambios = new TreeMap<>();
+        guardadas.forEach(fila -> cambios.put(fila.id(), fila));
+        eliminadas.forEach(id -> cambios.put(id, null));
+        if (cambios.isEmpty()) {
+            return this;
+        }
+
+        Map<Integer, String> categoriasNuevas = nombresCategorias;
+        for (Fila fila : guardadas) {
+            if (fila.categoriaId() != SIN_CATEGORIA && fila.categoriaNombre() != null
+                    && !fila.categoriaNombre().equals(categoriasNuevas.get(fila.categoriaId()))) {
+                categoriasNuevas = new HashMap<>(categoriasNuevas);
+                categoriasNuevas.put(fila.categoriaId(), fila.categoriaNombre());
+            }
+        }
+        if (categoriasNuevas != nombresCategorias) {
+            categoriasNuevas = Map.copyOf(categoriasNuevas);
+        }
+
+        Diccionario nuevoDiccionario = new Diccionario(diccionario, tamanoDiccionario);
+        int ultimo = tamano == 0 ? Integer.MIN_VALUE : id(tamano - 1);
+        boolean sinDesplazar = cambios.entrySet().stream().allMatch(cambio -> cambio.getKey() > ultimo
+                || (cambio.getValue() != null) == (posicion(cambio.getKey()) >= 0));
+        if (sinDesplazar) {
+            Edicion edicion = new Edicion(this);
+            for (Fila fila : cambios.values()) {
+                if (fila == null) {
+                    // Eliminación de un id que no esta en la copia
+                    continue;
+                }
+                int i = fila.id() > ultimo ? edicion.agregar(fila.id()) : posicion(fila.id());
+                int anterior = fila.id() > ultimo ? SIN_NOMBRE : nombre(i);
+                edicion.asignar(i, fila, nuevoDiccionario.codigo(fila.nombre(), anterior));
+            }
+            return edicion.columnas(nuevoDiccionario, categoriasNuevas).compactada();
+        }
+
+        // Mezcla de los ids actuales con los cambios, los dos estan ordenados
+        Edicion edicion = new Edicion(vacia(Map.of()));
+        Iterator<Map.Entry<Integer, Fila>> iterator = cambios.entrySet().iterator();
+        Map.Entry<Integer, Fila> cambio = iterator.next();
+        int actual = 0;
+        while (actual < tamano || cambio != null) {
+            if (cambio == null || (actual < tamano && id(actual) < cambio.getKey())) {
+                edicion.copiar(edicion.agregar(id(actual)), this, actual);
+                actual++;
+                continue;
+            }
+            int anterior = SIN_NOMBRE;
+            if (actual < tamano && id(actual) == cambio.getKey()) {
+                anterior = nombre(actual);
+                actual++;
+            }
+            Fila fila = cambio.getValue();
+            if (fila != null) {
+                edicion.asignar(edicion.agregar(fila.id()), fila, nuevoDiccionario.codigo(fila.nombre(), anterior));
+            }
+            cambio = iterator.hasNext() ? iterator.next() : null;
+        }
+        return edicion.columnas(nuevoDiccionario, categoriasNuevas).compactada();
+    }
+
+    /**
+     * Copia con la cantidad ajustada, solo se copia el bloque de la fila en la columna de cantidades.
+     */
+    ColumnasCatalogo conCantidad(int id, int diferencia) {
+        int posicion = posicion(id);
+        if (posicion < 0) {
+            return this;
+        }
+        int bloque = posicion >>> BITS_BLOQUE;
+        int[][] cantidad = cantidades.clone();
+        cantidad[bloque] = cantidad[bloque].clone();
+        cantidad[bloque][posicion & MASCARA] += diferencia;
+        return new ColumnasCatalogo(tamano, ids, cantidad, precios, disponibles, nombres, categorias, diccionario,
+                tamanoDiccionario, nombresCategorias);
+    }
+
+    ColumnasCatalogo conCategoria(int categoriaId, String nombre) {
+        if (nombre == null || nombre.equals(nombresCategorias.get(categoriaId))) {
+            return this;
+        }
+        Map<Integer, String> categoriasNuevas = new HashMap<>(nombresCategorias);
+        categoriasNuevas.put(categoriaId, nombre);
+        return new ColumnasCatalogo(tamano, ids, cantidades, precios, disponibles, nombres, categorias, diccionario,
+                tamanoDiccionario, Map.copyOf(categoriasNuevas));
+    }
+
+    /**
+     * Los nombres que se reemplazan quedan en el diccionario; cuando superan a las filas se arma uno nuevo
+     * solo con los nombres en uso (sin repetidos). Es la unica operación que copia una columna completa,
+     * ocurre una vez cada tantos cambios como filas hay.
+     */
+    private ColumnasCatalogo compactada() {
+        if (tamanoDiccionario <= 2 * tamano + 16) {
+            return this;
+        }
+        Diccionario nuevo = new Diccionario(new String[Math.max(16, tamano)], 0);
+        Map<String, Integer> codigos = new HashMap<>();
+        int[][] nombre = new int[nombres.length][];
+        for (int bloque = 0; bloque < nombre.length; bloque++) {
+            nombre[bloque] = new int[BLOQUE];
+            int filas = Math.min(BLOQUE, tamano - (bloque << BITS_BLOQUE));
+            for (int j = 0; j < filas; j++) {
+                int codigo = nombres[bloque][j];
+                String valor = codigo == SIN_NOMBRE ? null : diccionario[codigo];
+                nombre[bloque][j] = valor == null ? SIN_NOMBRE : codigos.computeIfAbsent(valor, nuevo::agregar);
+            }
+        }
+        return new ColumnasCatalogo(tamano, ids, cantidades, precios, disponibles, nombre, categorias, nuevo.valores,
+                nuevo.tamano, nombresCategorias);
+    }
+
+    /**
+     * Posición del id o, si no esta, -(posición donde iria) - 1 como Arrays.binarySearch. Primero se busca
+     * el bloque por su primer id y luego dentro del bloque.
+     */
+    private int posicion(int id) {
+        if (tamano == 0) {
+            return -1;
+        }
+        int bajo = 0;
+        int alto = bloques() - 1;
+        while (bajo < alto) {
+            int medio = (bajo + alto + 1) >>> 1;
+            if (ids[medio][0] <= id) {
+                bajo = medio;
+            } else {
+                alto = medio - 1;
+            }
+        }
+        int inicio = bajo << BITS_BLOQUE;
+        int posicion = Arrays.binarySearch(ids[bajo], 0, Math.min(BLOQUE, tamano - inicio), id);
+        return posicion < 0 ? posicion - inicio : posicion + inicio;
+    }
+
+    private int bloques() {
+        return (tamano + MASCARA) >>> BITS_BLOQUE;
+    }
+
+    private int id(int i) {
+        return ids[i >>> BITS_BLOQUE][i & MASCARA];
+    }
+
+    private int cantidad(int i) {
+        return cantidades[i >>> BITS_BLOQUE][i & MASCARA];
+    }
+
+    private double precio(int i) {
+        return precios[i >>> BITS_BLOQUE][i & MASCARA];
+    }
+
+    private boolean disponible(int i) {
+        return (disponibles[i >>> BITS_BLOQUE][(i & MASCARA) >>> 6] & (1L << i)) != 0;
+    }
+
+    private int categoria(int i) {
+        return categorias[i >>> BITS_BLOQUE][i & MASCARA];
+    }
+
+    private int nombre(int i) {
+        return nombres[i >>> BITS_BLOQUE][i & MASCARA];
+    }
+
+    private String textoNombre(int i) {
+        int codigo = nombre(i);
+        return codigo == SIN_NOMBRE ? null : diccionario[codigo];
+    }
+
+    private ProductoDto dto(int i) {
+        ProductoDto dto = new ProductoDto(textoNombre(i), cantidad(i), precio(i), disponible(i));
+        int categoria = categoria(i);
+        if (categoria != SIN_CATEGORIA) {
+            dto.setCategoria(new CategoriaResumenDto(categoria, nombresCategorias.get(categoria)));
+        }
+        return dto;
+    }
+
+    private ProductoProyeccion proyeccion(int i) {
+        Integer categoriaId = categoria(i) == SIN_CATEGORIA ? null : categoria(i);
+        return new ProductoProyeccion(id(i), textoNombre(i), cantidad(i), precio(i), disponible(i), categoriaId,
+                categoriaId == null ? null : nombresCategorias.get(categoriaId));
+    }
+
+    private static long arreglo(int elementos, int bytesPorElemento) {
+        return 16 + ((long) elementos * bytesPorElemento + 7) / 8 * 8;
+    }
+
+    private static long texto(String valor) {
+        return valor == null ? 0 : 24 + arreglo(valor.length(), 1);
+    }
+
+    /**
+     * Fila a guardar en la copia. categoriaNombre puede ser null si la categoria ya es conocida.
+     */
+    record Fila(int id, String nombre, int cantidad, double precio, boolean disponible, int categoriaId,
+                String categoriaNombre) {
+
+        static Fila desde(ProductoProyeccion producto) {
+            return new Fila(producto.id(), producto.nombre(),
+                    producto.cantidad() == null ? 0 : producto.cantidad(),
+                    producto.precio() == null ? 0 : producto.precio(),
+                    Boolean.TRUE.equals(producto.estaDisponible()),
+                    producto.categoriaId() == null ? SIN_CATEGORIA : producto.categoriaId(),
+                    producto.categoriaNombre());
+        }
+    }
+
+    /**
+     * Copia en construcción: empieza compartiendo los bloques de la base y copia cada bloque la primera vez
+     * que se escribe en él. Los bloques nuevos del final ya son propios.
+     */
+    private static final class Edicion {
+
+        private int tamano;
+        private int[][] ids;
+        private int[][] cantidades;
+        private double[][] precios;
+        private long[][] disponibles;
+        private int[][] nombres;
+        private int[][] categorias;
+        private final BitSet propios = new BitSet();
+
+        private Edicion(ColumnasCatalogo base) {
+            tamano = base.tamano;
+            ids = base.ids.clone();
+            cantidades = base.cantidades.clone();
+            precios = base.precios.clone();
+            disponibles = base.disponibles.clone();
+            nombres = base.nombres.clone();
+            categorias = base.categorias.clone();
+        }
+
+        /**
+         * Agrega una fila al final con el id (mayor a los existentes) y devuelve su posición.
+         */
+        private int agregar(int id) {
+            int i = tamano++;
+            int bloque = i >>> BITS_BLOQUE;
+            if (bloque == ids.length) {
+                int bloques = Math.max(4, bloque * 2);
+                ids = Arrays.copyOf(ids, bloques);
+                cantidades = Arrays.copyOf(cantidades, bloques);
+                precios = Arrays.copyOf(precios, bloques);
+                disponibles = Arrays.copyOf(disponibles, bloques);
+                nombres = Arrays.copyOf(nombres, bloques);
+                categorias = Arrays.copyOf(categorias, bloques);
+            }
+            if (ids[bloque] == null) {
+                ids[bloque] = new int[BLOQUE];
+                cantidades[bloque] = new int[BLOQUE];
+                precios[bloque] = new double[BLOQUE];
+                disponibles[bloque] = new long[BLOQUE / 64];
+                nombres[bloque] = new int[BLOQUE];
+                categorias[bloque] = new int[BLOQUE];
+                propios.set(bloque);
+            }
+            propio(bloque);
+            ids[bloque][i & MASCARA] = id;
+            return i;
+        }
+
+        private void asignar(int i, Fila fila, int nombre) {
+            int bloque = propio(i >>> BITS_BLOQUE);
+            int j = i & MASCARA;
+            cantidades[bloque][j] = fila.cantidad();
+            precios[bloque][j] = fila.precio();
+            disponible(bloque, j, fila.disponible());
+            nombres[bloque][j] = nombre;
+            categorias[bloque][j] = fila.categoriaId();
+        }
+
+        private void copiar(int i, ColumnasCatalogo origen, int posicion) {
+            int bloque = propio(i >>> BITS_BLOQUE);
+            int j = i & MASCARA;
+            cantidades[bloque][j] = origen.cantidad(posicion);
+            precios[bloque][j] = origen.precio(posicion);
+            disponible(bloque, j, origen.disponible(posicion));
+            nombres[bloque][j] = origen.nombre(posicion);
+            categorias[bloque][j] = origen.categoria(posicion);
+        }
+
+        private void disponible(int bloque, int j, boolean disponible) {
+            if (disponible) {
+                disponibles[bloque][j >>> 6] |= 1L << j;
+            } else {
+                disponibles[bloque][j >>> 6] &= ~(1L << j);
+            }
+        }
+
+        private int propio(int bloque) {
+            if (!propios.get(bloque)) {
+                ids[bloque] = ids[bloque].clone();
+                cantidades[bloque] = cantidades[bloque].clone();
+                precios[bloque] = precios[bloque].clone();
+                disponibles[bloque] = disponibles[bloque].clone();
+                nombres[bloque] = nombres[bloque].clone();
+                categorias[bloque] = categorias[bloque].clone();
+                propios.set(bloque);
+            }
+            return bloque;
+        }
+
+        private ColumnasCatalogo columnas(Diccionario diccionario, Map<Integer, String> nombresCategorias) {
+            int bloques = (tamano + MASCARA) >>> BITS_BLOQUE;
+            return new ColumnasCatalogo(tamano, Arrays.copyOf(ids, bloques), Arrays.copyOf(cantidades, bloques),
+                    Arrays.copyOf(precios, bloques), Arrays.copyOf(disponibles, bloques),
+                    Arrays.copyOf(nombres, bloques), Arrays.copyOf(categorias, bloques), diccionario.valores,
+                    diccionario.tamano, nombresCategorias);
+        }
+    }
+
+    /**
+     * Agrega nombres al final del arreglo compartido. Si no hay espacio se crea un arreglo nuevo,
+     * las copias anteriores siguen leyendo el suyo.
+     */
+    private static final class Diccionario {
+
+        private String[] valores;
+        private int tamano;
+        // Solo para la construcción completa: los nombres repetidos usan el mismo código
+        private Map<String, Integer> codigos;
+
+        private Diccionario(String[] valores, int tamano) {
+            this.valores = valores;
+            this.tamano = tamano;
+        }
+
+        private int codigo(String nombre, int anterior) {
+            if (nombre == null) {
+                return SIN_NOMBRE;
+            }
+            if (anterior != SIN_NOMBRE && nombre.equals(valores[anterior])) {
+                return anterior;
+            }
+            if (tamano == 0 || codigos != null) {
+                // Diccionario nuevo: se eliminan los repetidos mientras se llena
+                if (codigos == null) {
+                    codigos = new HashMap<>();
+                }
+                return codigos.computeIfAbsent(nombre, this::agregar);
+            }
+            return agregar(nombre);
+        }
+
+        private int agregar(String nombre) {
+            if (tamano == valores.length) {
+                valores = Arrays.copyOf(valores, Math.max(16, tamano * 2));
+            }
+            valores[tamano] = nombre;
+            return tamano++;
+        }
+    }
+}
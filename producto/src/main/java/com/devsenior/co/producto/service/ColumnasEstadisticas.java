@@ -0,0 +1,197 @@
+package com.devsenior.co.producto.service;
+
+import com.devsenior.co.producto.model.EstadisticasCategoriaDto;
+import com.devsenior.co.producto.model.EstadisticasDto;
+import com.devsenior.co.producto.model.ProductoProyeccion;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Copia del catalogo en columnas de tipos primitivos para calcular las estadisticas en memoria.
+ * Las filas quedan agrupadas por categoria (cada una ocupa un rango continuo de los arreglos) y los precios
+ * se guardan tambien ordenados por grupo y globalmente, asi los percentiles se leen por posición.
+ * Es inmutable una vez construida, se comparte entre peticiones sin sincronización.
+ */
+final class ColumnasEstadisticas {
+
+    // Por debajo de este tamaño el costo de repartir el trabajo en el ForkJoinPool supera el de recorrer las filas
+    private static final int UMBRAL_PARALELO = 50_000;
+
+    private final Integer[] categoriaIds;
+    private final String[] categoriaNombres;
+    // El grupo g ocupa las posiciones [inicioGrupo[g], inicioGrupo[g + 1])
+    private final int[] inicioGrupo;
+    private final double[] precios;
+    private final int[] cantidades;
+    private final boolean[] disponibles;
+    private final double[] preciosOrdenados;
+    private final double[] preciosGlobales;
+    private final String version;
+    private final Instant generado;
+
+    private ColumnasEstadisticas(Integer[] categoriaIds, String[] categoriaNombres, int[] inicioGrupo, double[] precios,
+                                 int[] cantidades, boolean[] disponibles, String version) {
+        this.categoriaIds = categoriaIds;
+        this.categoriaNombres = categoriaNombres;
+        this.inicioGrupo = inicioGrupo;
+        this.precios = precios;
+        this.cantidades = cantidades;
+        this.disponibles = disponibles;
+        this.version = version;
+        this.generado = Instant.now();
+
+        preciosOrdenados = precios.clone();
+        IntStream.range(0, categoriaIds.length).parallel()
+                .forEach(g -> Arrays.sort(preciosOrdenados, inicioGrupo[g], inicioGrupo[g + 1]));
+        preciosGlobales = precios.clone();
+        Arrays.parallelSort(preciosGlobales);
+    }
+
+    /**
+     * Lee las filas una sola vez en columnas en el orden recibido y luego las reubica por categoria
+     * con un conteo por grupo (orden lineal, sin comparar filas). Precio o cantidad null se toman como 0,
+     * la validación de ProductoDto no permite guardarlos.
+     */
+    static ColumnasEstadisticas desde(Stream<ProductoProyeccion> filas, int capacidad, String version) {
+        int tamano = 0;
+        double[] precio = new double[Math.max(capacidad, 16)];
+        int[] cantidad = new int[precio.length];
+        boolean[] disponible = new boolean[precio.length];
+        int[] grupo = new int[precio.length];
+        Map<Integer, Integer> grupos = new HashMap<>();
+        List<Integer> ids = new ArrayList<>();
+        List<String> nombres = new ArrayList<>();
+
+        Iterator<ProductoProyeccion> iterator = filas.iterator();
+        while (iterator.hasNext()) {
+            ProductoProyeccion fila = iterator.next();
+            if (tamano == precio.length) {
+                int nuevaCapacidad = tamano * 2;
+                precio = Arrays.copyOf(precio, nuevaCapacidad);
+                cantidad = Arrays.copyOf(cantidad, nuevaCapacidad);
+                disponible = Arrays.copyOf(disponible, nuevaCapacidad);
+                grupo = Arrays.copyOf(grupo, nuevaCapacidad);
+            }
+            precio[tamano] = fila.precio() == null ? 0 : fila.precio();
+            cantidad[tamano] = fila.cantidad() == null ? 0 : fila.cantidad();
+            disponible[tamano] = Boolean.TRUE.equals(fila.estaDisponible());
+            grupo[tamano] = grupos.computeIfAbsent(fila.categoriaId(), id -> {
+                ids.add(id);
+                nombres.add(fila.categoriaNombre());
+                return ids.size() - 1;
+            });
+            tamano++;
+        }
+
+        // Mismo orden que la consulta SQL: por id de categoria y los productos sin categoria al final
+        Integer[] orden = IntStream.range(0, ids.size()).boxed()
+                .sorted(Comparator.comparing(ids::get, Comparator.nullsLast(Comparator.naturalOrder())))
+                .toArray(Integer[]::new);
+        int[] posicionDeGrupo = new int[orden.length];
+        Integer[] categoriaIds = new Integer[orden.length];
+        String[] categoriaNombres = new String[orden.length];
+        for (int g = 0; g < orden.length; g++) {
+            posicionDeGrupo[orden[g]] = g;
+            categoriaIds[g] = ids.get(orden[g]);
+            categoriaNombres[g] = nombres.get(orden[g]);
+        }
+
+        int[] inicioGrupo = new int[orden.length + 1];
+        for (int i = 0; i < tamano; i++) {
+            inicioGrupo[posicionDeGrupo[grupo[i]] + 1]++;
+        }
+        for (int g = 0; g < orden.length; g++) {
+            inicioGrupo[g + 1] += inicioGrupo[g];
+        }
+        int[] siguiente = Arrays.copyOf(inicioGrupo, orden.length);
+        double[] precios = new double[tamano];
+        int[] cantidades = new int[tamano];
+        boolean[] disponibles = new boolean[tamano];
+        for (int i = 0; i < tamano; i++) {
+            int destino = siguiente[posicionDeGrupo[grupo[i]]]++;
+            precios[destino] = precio[i];
+            cantidades[destino] = cantidad[i];
+            disponibles[destino] = disponible[i];
+        }
+        return new ColumnasEstadisticas(categoriaIds, categoriaNombres, inicioGrupo, precios, cantidades, disponibles, version);
+    }
+
+    /**
+     * Cada categoria se recorre una sola vez acumulando todas sus sumas; con catalogos grandes las categorias
+     * se reparten en paralelo. El total se obtiene sumando los acumulados, sin volver a recorrer las filas.
+     */
+    EstadisticasDto calcular() {
+        IntStream grupos = IntStream.range(0, categoriaIds.length);
+        if (precios.length >= UMBRAL_PARALELO) {
+            grupos = grupos.parallel();
+        }
+        List<Acumulado> acumulados = grupos.mapToObj(g -> acumular(inicioGrupo[g], inicioGrupo[g + 1])).toList();
+
+        List<EstadisticasCategoriaDto> categorias = new ArrayList<>(categoriaIds.length);
+        Acumulado total = new Acumulado(0, 0, 0);
+        for (int g = 0; g < categoriaIds.length; g++) {
+            Acumulado acumulado = acumulados.get(g);
+            categorias.add(resumir(categoriaIds[g], categoriaNombres[g], inicioGrupo[g], inicioGrupo[g + 1], acumulado, preciosOrdenados));
+            total = new Acumulado(total.disponibles() + acumulado.disponibles(),
+                    total.valorInventario() + acumulado.valorInventario(), total.suma() + acumulado.suma());
+        }
+        return new EstadisticasDto(resumir(null, null, 0, precios.length, total, preciosGlobales), categorias, generado, true);
+    }
+
+    String getVersion() {
+        return version;
+    }
+
+    Instant getGenerado() {
+        return generado;
+    }
+
+    private Acumulado acumular(int desde, int hasta) {
+        long disponiblesRango = 0;
+        double valorInventario = 0;
+        double suma = 0;
+        for (int i = desde; i < hasta; i++) {
+            if (disponibles[i]) {
+                disponiblesRango++;
+            }
+            valorInventario += precios[i] * cantidades[i];
+            suma += precios[i];
+        }
+        return new Acumulado(disponiblesRango, valorInventario, suma);
+    }
+
+    private static EstadisticasCategoriaDto resumir(Integer categoriaId, String categoria, int desde, int hasta,
+                                                    Acumulado acumulado, double[] ordenados) {
+        int productos = hasta - desde;
+        if (productos == 0) {
+            return new EstadisticasCategoriaDto(categoriaId, categoria, 0L, 0L, 0.0, null, null, null, null, null, null);
+        }
+        return new EstadisticasCategoriaDto(categoriaId, categoria, (long) productos, acumulado.disponibles(),
+                acumulado.valorInventario(), ordenados[desde], ordenados[hasta - 1], acumulado.suma() / productos,
+                percentil(ordenados, desde, hasta, 0.5), percentil(ordenados, desde, hasta, 0.9),
+                percentil(ordenados, desde, hasta, 0.99));
+    }
+
+    /**
+     * Igual a percentile_cont: interpola entre los valores de las posiciones vecinas a p * (n - 1).
+     */
+    private static double percentil(double[] ordenados, int desde, int hasta, double p) {
+        double posicion = p * (hasta - desde - 1);
+        int inferior = (int) Math.floor(posicion);
+        int superior = (int) Math.ceil(posicion);
+        double fraccion = posicion - inferior;
+        return ordenados[desde + inferior] + fraccion * (ordenados[desde + superior] - ordenados[desde + inferior]);
+    }
+
+    private record Acumulado(long disponibles, double valorInventario, double suma) {
+    }
+}
@@ -0,0 +1,96 @@
+package com.devsenior.co.producto.service;
+
+import com.devsenior.co.producto.model.EstadisticasCategoriaDto;
+import com.devsenior.co.producto.model.EstadisticasDto;
+import com.devsenior.co.producto.model.ProductoProyeccion;
+import com.devsenior.co.producto.repository.IProductoRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Estadisticas del inventario por categoria. Por defecto se calculan con una consulta de agregación;
+ * en modo memoria se usan columnas primitivas copiadas del catalogo, que se reconstruyen cuando cambia
+ * la versión del catalogo y la copia anterior ya superó la vigencia configurada. Con el motor columnar
+ * habilitado la copia se arma desde CatalogoColumnar y no desde la base de datos.
+ */
+@Service
+@Timed(value = "app.service", histogram = true)
+public class EstadisticasService {
+
+    @Autowired
+    private IProductoRepository iProductoRepository;
+
+    @Autowired
+    private CatalogoVersionService catalogoVersionService;
+
+    @Autowired
+    private CatalogoColumnar catalogoColumnar;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${producto.estadisticas.vigencia-memoria:10s}")
+    private Duration vigencia;
+
+    private volatile ColumnasEstadisticas columnas;
+
+    public EstadisticasService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @Transactional(readOnly = true)
+    public EstadisticasDto calcular() {
+        List<EstadisticasCategoriaDto> categorias = iProductoRepository.findEstadisticasPorCategoria();
+        EstadisticasCategoriaDto total = iProductoRepository.findEstadisticasTotales();
+        return new EstadisticasDto(total, categorias, Instant.now(), false);
+    }
+
+    public EstadisticasDto calcularEnMemoria() {
+        return obtenerColumnas().calcular();
+    }
+
+    /**
+     * Una sola petición reconstruye la copia, las demás esperan y usan el resultado. Con la copia vigente,
+     * o con el catalogo en columnas disponible, no se toma conexión de la base de datos.
+     */
+    private ColumnasEstadisticas obtenerColumnas() {
+        ColumnasEstadisticas actual = columnas;
+        if (vigente(actual)) {
+            return actual;
+        }
+        synchronized (this) {
+            actual = columnas;
+            if (!vigente(actual)) {
+                // La versión se lee antes que las filas: un cambio durante la lectura obliga a reconstruir de nuevo
+                String version = catalogoVersionService.getEtag();
+                ColumnasCatalogo catalogo = catalogoColumnar.actual();
+                if (catalogo != null) {
+                    actual = ColumnasEstadisticas.desde(catalogo.proyecciones(), catalogo.tamano(), version);
+                } else {
+                    actual = transactionTemplate.execute(status -> {
+                        try (Stream<ProductoProyeccion> filas = iProductoRepository.streamAll()) {
+                            return ColumnasEstadisticas.desde(filas, Math.toIntExact(iProductoRepository.count()), version);
+                        }
+                    });
+                }
+                columnas = actual;
+            }
+        }
+        return actual;
+    }
+
+    private boolean vigente(ColumnasEstadisticas actual) {
+        return actual != null && (actual.getVersion().equals(catalogoVersionService.getEtag())
+                || actual.getGenerado().plus(vigencia).isAfter(Instant.now()));
+    }
+}
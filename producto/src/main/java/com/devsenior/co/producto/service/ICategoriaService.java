@@ -3,8 +3,14 @@ package com.devsenior.co.producto.service;
 import com.devsenior.co.producto.model.CategoriaDto;
 import com.devsenior.co.producto.model.entity.CategoriaEntity;
 
+import java.util.List;
+
 public interface ICategoriaService {
 
+    List<CategoriaEntity> findAll();
+
+    CategoriaEntity findById(Integer id);
+
     CategoriaEntity create(CategoriaDto categoria);
 
     CategoriaEntity update(Integer id, CategoriaDto categoria);
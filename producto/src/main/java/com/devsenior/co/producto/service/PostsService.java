@@ -1,10 +1,99 @@
 package com.devsenior.co.producto.service;
 
+import com.devsenior.co.producto.feign.PostRestCache;
+import com.devsenior.co.producto.model.Post;
+import com.devsenior.co.producto.model.PostsLoteDto;
+import com.devsenior.co.producto.shared.exceptions.SolicitudInvalidaException;
+import com.devsenior.co.producto.shared.metrics.RequestStats;
+import io.micrometer.core.annotation.Timed;
+import feign.FeignException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+
 @Service
+@Timed(value = "app.service", histogram = true)
 public class PostsService {
 
+    @Autowired
+    private PostRestCache postRestCache;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private Executor executor;
+
+    @Value("${post.multiget.max-concurrencia:10}")
+    private int maxConcurrencia;
+
+    @Value("${post.multiget.max-ids:100}")
+    private int maxIds;
+
+    /**
+     * Consulta varios posts en paralelo con un máximo de maxConcurrencia llamadas simultaneas.
+     * Los ids repetidos se consultan una sola vez y los que estan en cache no generan tareas.
+     * El tiempo total queda limitado por la llamada más lenta y no por la suma de todas.
+     */
+    public PostsLoteDto getPostsByIds(List<Integer> ids) {
+        LinkedHashSet<Integer> unicos = new LinkedHashSet<>(ids);
+        unicos.remove(null);
+        if (unicos.size() > maxIds) {
+            throw new SolicitudInvalidaException("Se pueden consultar máximo " + maxIds + " posts por petición.");
+        }
+
+        Semaphore permisos = new Semaphore(maxConcurrencia);
+        Map<Integer, CompletableFuture<Post>> consultas = new LinkedHashMap<>();
+        for (Integer id : unicos) {
+            if (postRestCache.getPostIfPresent(id) != null) {
+                consultas.put(id, consultar(id));
+            } else {
+                permisos.acquireUninterruptibly();
+                consultas.put(id, CompletableFuture.supplyAsync(RequestStats.propagar(() -> {
+                    try {
+                        return postRestCache.getPostById(id);
+                    } finally {
+                        permisos.release();
+                    }
+                }), executor));
+            }
+        }
+
+        List<Post> posts = new ArrayList<>(consultas.size());
+        Map<Integer, String> errores = new LinkedHashMap<>();
+        consultas.forEach((id, consulta) -> {
+            try {
+                posts.add(consulta.join());
+            } catch (CompletionException e) {
+                errores.put(id, mensajeError(id, e.getCause()));
+            }
+        });
+        posts.removeIf(Objects::isNull);
+        return new PostsLoteDto(posts, errores);
+    }
 
+    private CompletableFuture<Post> consultar(Integer id) {
+        try {
+            return CompletableFuture.completedFuture(postRestCache.getPostById(id));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 
+    private String mensajeError(Integer id, Throwable error) {
+        if (error instanceof FeignException.NotFound) {
+            return "El post con id: " + id + " no existe.";
+        }
+        return "No se pudo consultar el post con id: " + id + ". " + error.getMessage();
+    }
 }
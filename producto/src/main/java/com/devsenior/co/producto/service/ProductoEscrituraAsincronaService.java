@@ -0,0 +1,250 @@
+package com.devsenior.co.producto.service;
+
+import com.devsenior.co.producto.model.ErrorLoteDto;
+import com.devsenior.co.producto.model.EstadoEscritura;
+import com.devsenior.co.producto.model.MotivoErrorLote;
+import com.devsenior.co.producto.model.ProductoActualizacionDto;
+import com.devsenior.co.producto.model.ProductoDto;
+import com.devsenior.co.producto.model.ResultadoLoteDto;
+import com.devsenior.co.producto.model.TicketEscrituraDto;
+import com.devsenior.co.producto.shared.exceptions.RecursoNoEncontradoException;
+import com.devsenior.co.producto.shared.exceptions.ServicioNoDisponibleException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Actualizaciones de productos en modo asincrono. Cada actualización queda pendiente por id: si llega otra
+ * para el mismo producto antes de escribirse la reemplaza (gana la ultima). Los pendientes se escriben en lotes
+ * con ProductoLoteService cuando se juntan tamano-lote productos o cada intervalo, con una consulta para
+ * todo el lote y los UPDATE agrupados por hibernate.jdbc.batch_size.
+ * Solo se escribe un lote a la vez, asi dos actualizaciones del mismo producto se aplican en orden.
+ * Cada actualización recibe un ticket para consultar su resultado; los tickets viven en memoria de la instancia.
+ * Un PUT sincrono del mismo producto espera a que se escriba su pendiente (esperarPendiente).
+ */
+@Slf4j
+@Service
+public class ProductoEscrituraAsincronaService {
+
+    @Autowired
+    private ProductoLoteService productoLoteService;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private TaskExecutor taskExecutor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${producto.escritura-asincrona.habilitado:true}")
+    private boolean habilitado;
+
+    @Value("${producto.escritura-asincrona.capacidad:10000}")
+    private int capacidad;
+
+    @Value("${producto.escritura-asincrona.tamano-lote:200}")
+    private int tamanoLote;
+
+    @Value("${producto.escritura-asincrona.retencion-tickets:5m}")
+    private Duration retencionTickets;
+
+    @Value("${producto.escritura-asincrona.espera-sincrona:5s}")
+    private Duration esperaSincrona;
+
+    private final Map<Integer, Pendiente> pendientes = new ConcurrentHashMap<>();
+    private final Set<Integer> enEscritura = ConcurrentHashMap.newKeySet();
+    private final Map<String, TicketEscrituraDto> tickets = new ConcurrentHashMap<>();
+    private final AtomicBoolean escribiendo = new AtomicBoolean();
+    // Se notifica al terminar cada lote, lo espera esperarPendiente
+    private final Object loteTerminado = new Object();
+    // Inicia con la hora de arranque para que una instancia reiniciada no repita tickets
+    private final AtomicLong secuenciaTickets = new AtomicLong(System.currentTimeMillis());
+
+    @PostConstruct
+    public void registrarMetricas() {
+        Gauge.builder("app.escrituras.pendientes", pendientes, Map::size)
+                .description("Productos con una actualización asincrona pendiente de escribir")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Retorna null si la actualización debe hacerse de forma sincrona: el modo esta deshabilitado o la cola
+     * esta llena. Un producto que ya esta pendiente o escribiendose siempre se encola, para que una escritura
+     * sincrona no se adelante a una asincrona anterior del mismo producto.
+     */
+    public TicketEscrituraDto encolar(Integer id, ProductoDto producto) {
+        if (!habilitado || (pendientes.size() >= capacidad && !pendientes.containsKey(id) && !enEscritura.contains(id))) {
+            return null;
+        }
+        TicketEscrituraDto ticket = new TicketEscrituraDto(Long.toString(secuenciaTickets.incrementAndGet(), Character.MAX_RADIX),
+                id, EstadoEscritura.PENDIENTE, false, null, Instant.now(), null);
+        tickets.put(ticket.getId(), ticket);
+        pendientes.compute(id, (clave, anterior) -> anterior == null
+                ? new Pendiente(producto, ticket.getId())
+                : anterior.reemplazar(producto, ticket.getId()));
+        if (pendientes.size() >= tamanoLote) {
+            disparar();
+        }
+        return ticket;
+    }
+
+    /**
+     * Antes de una actualización sincrona: si el producto tiene una asincrona pendiente o escribiendose, la escribe
+     * y espera a que termine, para que la asincrona anterior no sobrescriba despues a la sincrona.
+     */
+    public void esperarPendiente(Integer id) {
+        if (!pendientes.containsKey(id) && !enEscritura.contains(id)) {
+            return;
+        }
+        disparar();
+        long limite = System.nanoTime() + esperaSincrona.toNanos();
+        synchronized (loteTerminado) {
+            while (pendientes.containsKey(id) || enEscritura.contains(id)) {
+                long restante = limite - System.nanoTime();
+                if (restante <= 0) {
+                    throw new ServicioNoDisponibleException("El producto con id: " + id
+                            + " tiene una actualización asincrona pendiente, intente de nuevo");
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(loteTerminado, restante);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ServicioNoDisponibleException("Se interrumpió la espera de la actualización asincrona del producto con id: " + id);
+                }
+            }
+        }
+    }
+
+    public TicketEscrituraDto consultar(String ticket) {
+        TicketEscrituraDto encontrado = tickets.get(ticket);
+        if (encontrado == null) {
+            throw new RecursoNoEncontradoException("La escritura con ticket: " + ticket + " no existe o ya expiró.");
+        }
+        return encontrado;
+    }
+
+    @Scheduled(fixedDelayString = "${producto.escritura-asincrona.intervalo:50ms}")
+    public void disparar() {
+        if (!pendientes.isEmpty() && !escribiendo.get()) {
+            taskExecutor.execute(this::vaciar);
+        }
+    }
+
+    /**
+     * Escribe lotes hasta vaciar los pendientes. Si otro hilo ya esta escribiendo no hace nada.
+     */
+    public void vaciar() {
+        if (!escribiendo.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            while (!pendientes.isEmpty()) {
+                escribirLote(tomarLote());
+            }
+        } finally {
+            escribiendo.set(false);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${producto.escritura-asincrona.limpieza-tickets:1m}")
+    public void limpiarTickets() {
+        Instant limite = Instant.now().minus(retencionTickets);
+        tickets.values().removeIf(ticket -> ticket.getFechaFin() != null && ticket.getFechaFin().isBefore(limite));
+    }
+
+    @PreDestroy
+    public void finalizar() {
+        vaciar();
+    }
+
+    private List<Map.Entry<Integer, Pendiente>> tomarLote() {
+        List<Map.Entry<Integer, Pendiente>> lote = new ArrayList<>(tamanoLote);
+        Iterator<Integer> ids = pendientes.keySet().iterator();
+        while (ids.hasNext() && lote.size() < tamanoLote) {
+            Integer id = ids.next();
+            // remove es atomico con compute: lo que llegue despues queda para el siguiente lote
+            Pendiente pendiente = pendientes.remove(id);
+            if (pendiente != null) {
+                enEscritura.add(id);
+                lote.add(Map.entry(id, pendiente));
+            }
+        }
+        return lote;
+    }
+
+    private void escribirLote(List<Map.Entry<Integer, Pendiente>> lote) {
+        List<ProductoActualizacionDto> actualizaciones = lote.stream()
+                .map(entrada -> new ProductoActualizacionDto(entrada.getKey(), entrada.getValue().producto()))
+                .toList();
+        long inicio = System.nanoTime();
+        try {
+            ResultadoLoteDto resultado = productoLoteService.actualizar(actualizaciones.iterator());
+            Map<Integer, ErrorLoteDto> errores = new HashMap<>();
+            resultado.getErrores().forEach(error -> errores.put(error.getIndice(), error));
+            for (int i = 0; i < lote.size(); i++) {
+                ErrorLoteDto error = errores.get(i);
+                if (error == null) {
+                    completar(lote.get(i).getValue(), EstadoEscritura.APLICADA, null);
+                } else {
+                    completar(lote.get(i).getValue(), error.getMotivo() == MotivoErrorLote.NO_ENCONTRADO
+                            ? EstadoEscritura.NO_ENCONTRADO : EstadoEscritura.ERROR, error.getErrores());
+                }
+            }
+            log.debug("Lote de {} actualizaciones escrito en {} ms", lote.size(), (System.nanoTime() - inicio) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.error("No se pudo escribir el lote de {} actualizaciones", lote.size(), e);
+            lote.forEach(entrada -> completar(entrada.getValue(), EstadoEscritura.ERROR, List.of(e.getMessage())));
+        } finally {
+            lote.forEach(entrada -> enEscritura.remove(entrada.getKey()));
+            synchronized (loteTerminado) {
+                loteTerminado.notifyAll();
+            }
+        }
+    }
+
+    private void completar(Pendiente pendiente, EstadoEscritura estado, List<String> errores) {
+        Instant ahora = Instant.now();
+        for (int i = 0; i < pendiente.tickets().size(); i++) {
+            String id = pendiente.tickets().get(i);
+            boolean combinada = i < pendiente.tickets().size() - 1;
+            tickets.computeIfPresent(id, (clave, ticket) -> new TicketEscrituraDto(ticket.getId(), ticket.getProductoId(),
+                    estado, combinada, errores, ticket.getFechaRecibida(), ahora));
+        }
+    }
+
+    /**
+     * Ultimo valor recibido para el producto y los tickets de todas las actualizaciones que reemplazó, en orden.
+     */
+    private record Pendiente(ProductoDto producto, List<String> tickets) {
+
+        private Pendiente(ProductoDto producto, String ticket) {
+            this(producto, new ArrayList<>(List.of(ticket)));
+        }
+
+        private Pendiente reemplazar(ProductoDto nuevo, String ticket) {
+            tickets.add(ticket);
+            return new Pendiente(nuevo, tickets);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.devsenior.co.producto.service;
+
+import com.devsenior.co.producto.model.FormatoExportacion;
+import com.devsenior.co.producto.model.ProductoDto;
+import com.devsenior.co.producto.model.ProductoProyeccion;
+import com.devsenior.co.producto.repository.IProductoRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exporta el catalogo completo escribiendo cada fila a la respuesta a medida que se lee de la base de datos.
+ * La memoria usada es constante: las filas se leen como proyecciones, nada queda en el contexto de persistencia.
+ */
+@Service
+@Timed(value = "app.service", histogram = true)
+public class ProductoExportService {
+
+    private static final String ENCABEZADO_CSV = "nombre,cantidad,precio,estaDisponible";
+
+    @Autowired
+    private IProductoRepository iProductoRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Si el cliente se desconecta la escritura lanza IOException, lo que cierra el cursor y la transacción.
+     * Las escrituras son bloqueantes, por lo que un cliente lento frena la lectura del cursor (backpressure).
+     */
+    @Transactional(readOnly = true)
+    public void exportar(FormatoExportacion formato, OutputStream salida) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+        if (formato == FormatoExportacion.CSV) {
+            writer.write(ENCABEZADO_CSV);
+            writer.write('\n');
+        }
+
+        try (Stream<ProductoProyeccion> productos = iProductoRepository.streamAll()) {
+            Iterator<ProductoProyeccion> iterator = productos.iterator();
+            while (iterator.hasNext()) {
+                ProductoProyeccion producto = iterator.next();
+                ProductoDto dto = new ProductoDto(producto.nombre(), producto.cantidad(),
+                        producto.precio(), producto.estaDisponible());
+
+                writer.write(formato == FormatoExportacion.CSV ? toCsv(dto) : objectMapper.writeValueAsString(dto));
+                writer.write('\n');
+            }
+        }
+        writer.flush();
+    }
+
+    private String toCsv(ProductoDto dto) {
+        return escaparCsv(dto.getNombre()) + ',' + dto.getCantidad() + ',' + dto.getPrecio() + ',' + dto.getEstaDisponible();
+    }
+
+    private String escaparCsv(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+            return valor;
+        }
+        return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+}
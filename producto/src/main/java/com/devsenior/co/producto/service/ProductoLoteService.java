@@ -0,0 +1,200 @@
+package com.devsenior.co.producto.service;
+
+import com.devsenior.co.producto.model.ErrorLoteDto;
+import com.devsenior.co.producto.model.MotivoErrorLote;
+import com.devsenior.co.producto.model.OperacionCambio;
+import com.devsenior.co.producto.model.ProductoActualizacionDto;
+import com.devsenior.co.producto.model.ProductoDto;
+import com.devsenior.co.producto.model.ResultadoLoteDto;
+import com.devsenior.co.producto.model.entity.ProductoEntity;
+import com.devsenior.co.producto.repository.IProductoRepository;
+import com.devsenior.co.producto.shared.config.CacheConfig;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Carga masiva de productos. Los registros se validan uno a uno y los validos se escriben en bloques
+ * (chunks) con una transacción por bloque, aprovechando hibernate.jdbc.batch_size para agrupar las sentencias.
+ * Un error en un registro no detiene el lote, se reporta en el resultado con su indice.
+ */
+@Service
+@Timed(value = "app.service", histogram = true)
+public class ProductoLoteService {
+
+    @Autowired
+    private IProductoRepository iProductoRepository;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ProductoSearchIndex productoSearchIndex;
+
+    @Autowired
+    private CatalogoVersionService catalogoVersionService;
+
+    @Autowired
+    private CatalogoColumnar catalogoColumnar;
+
+    @Autowired
+    private RespuestasProductoCache respuestasProductoCache;
+
+    @Autowired
+    private CambioCatalogoService cambioCatalogoService;
+
+    @Autowired
+    private StockReservaService stockReservaService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${producto.lote.tamano-chunk:500}")
+    private int tamanoChunk;
+
+    public ProductoLoteService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTOS, allEntries = true)
+    public ResultadoLoteDto crear(Iterator<ProductoDto> productos) {
+        return procesar(productos, producto -> null, this::insertarChunk);
+    }
+
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTOS, allEntries = true)
+    public ResultadoLoteDto actualizar(Iterator<ProductoActualizacionDto> productos) {
+        return procesar(productos, ProductoActualizacionDto::getId, this::actualizarChunk);
+    }
+
+    private <T> ResultadoLoteDto procesar(Iterator<T> registros, Function<T, Integer> id, ChunkWriter<T> writer) {
+        ResultadoLoteDto resultado = new ResultadoLoteDto();
+        List<T> chunk = new ArrayList<>(tamanoChunk);
+        List<Integer> indices = new ArrayList<>(tamanoChunk);
+        int indice = 0;
+
+        while (registros.hasNext()) {
+            T registro = registros.next();
+            List<String> errores = validar(registro);
+            if (errores.isEmpty()) {
+                chunk.add(registro);
+                indices.add(indice);
+            } else {
+                resultado.getErrores().add(new ErrorLoteDto(indice, registro == null ? null : id.apply(registro),
+                        MotivoErrorLote.INVALIDO, errores));
+            }
+            indice++;
+
+            if (chunk.size() == tamanoChunk) {
+                escribirChunk(chunk, indices, id, writer, resultado);
+            }
+        }
+        escribirChunk(chunk, indices, id, writer, resultado);
+
+        resultado.setProcesados(indice);
+        return resultado;
+    }
+
+    private <T> void escribirChunk(List<T> chunk, List<Integer> indices, Function<T, Integer> id,
+                                   ChunkWriter<T> writer, ResultadoLoteDto resultado) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<ProductoEntity> escritos = new ArrayList<>(chunk.size());
+        try {
+            // Las actualizaciones fijan la cantidad: el stock arrendado en memoria vuelve antes a la base de datos
+            chunk.stream().map(id).filter(Objects::nonNull).forEach(stockReservaService::devolverArriendo);
+            List<ErrorLoteDto> errores = transactionTemplate.execute(status -> {
+                List<ErrorLoteDto> erroresChunk = writer.escribir(chunk, indices, escritos);
+                entityManager.flush();
+                entityManager.clear();
+                return erroresChunk;
+            });
+            // El indice de busqueda solo se actualiza cuando el bloque ya fue confirmado
+            escritos.forEach(productoSearchIndex::indexar);
+            catalogoColumnar.guardar(escritos);
+            respuestasProductoCache.invalidar(escritos.stream().map(ProductoEntity::getId).toList());
+            if (!escritos.isEmpty()) {
+                catalogoVersionService.incrementar();
+            }
+            resultado.getErrores().addAll(errores);
+            resultado.setExitosos(resultado.getExitosos() + chunk.size() - errores.size());
+        } catch (RuntimeException e) {
+            // La transacción del bloque se revierte completa, se reportan todos sus registros
+            for (int i = 0; i < chunk.size(); i++) {
+                resultado.getErrores().add(new ErrorLoteDto(indices.get(i), id.apply(chunk.get(i)), MotivoErrorLote.ERROR_ESCRITURA,
+                        List.of("Error al guardar el bloque: " + e.getMessage())));
+            }
+        }
+        chunk.clear();
+        indices.clear();
+    }
+
+    private List<ErrorLoteDto> insertarChunk(List<ProductoDto> chunk, List<Integer> indices, List<ProductoEntity> escritos) {
+        List<ProductoEntity> entities = chunk.stream()
+                .map(producto -> new ProductoEntity(producto.getNombre(), producto.getCantidad(), producto.getPrecio(), producto.getEstaDisponible()))
+                .toList();
+        escritos.addAll(iProductoRepository.saveAll(entities));
+        cambioCatalogoService.registrar(escritos, OperacionCambio.CREADO);
+        return List.of();
+    }
+
+    private List<ErrorLoteDto> actualizarChunk(List<ProductoActualizacionDto> chunk, List<Integer> indices,
+                                               List<ProductoEntity> escritos) {
+        // Una sola consulta para todo el bloque en lugar de un findById por registro
+        Map<Integer, ProductoEntity> existentes = iProductoRepository.findAllById(
+                        chunk.stream().map(ProductoActualizacionDto::getId).toList()).stream()
+                .collect(Collectors.toMap(ProductoEntity::getId, Function.identity()));
+
+        List<ErrorLoteDto> errores = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            ProductoActualizacionDto actualizacion = chunk.get(i);
+            ProductoEntity entity = existentes.get(actualizacion.getId());
+            if (entity == null) {
+                errores.add(new ErrorLoteDto(indices.get(i), actualizacion.getId(), MotivoErrorLote.NO_ENCONTRADO,
+                        List.of("El producto con id: " + actualizacion.getId() + " no existe.")));
+                continue;
+            }
+            ProductoDto producto = actualizacion.getProducto();
+            entity.setNombre(producto.getNombre());
+            entity.setCantidad(producto.getCantidad());
+            entity.setPrecio(producto.getPrecio());
+            entity.setEstaDisponible(producto.getEstaDisponible());
+            escritos.add(entity);
+        }
+        cambioCatalogoService.registrar(escritos, OperacionCambio.ACTUALIZADO);
+        return errores;
+    }
+
+    private <T> List<String> validar(T registro) {
+        if (registro == null) {
+            return List.of("El registro no es un JSON valido");
+        }
+        return validator.validate(registro).stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .toList();
+    }
+
+    @FunctionalInterface
+    private interface ChunkWriter<T> {
+        List<ErrorLoteDto> escribir(List<T> chunk, List<Integer> indices, List<ProductoEntity> escritos);
+    }
+}
@@ -0,0 +1,495 @@
+package com.devsenior.co.producto.service;
+
+import com.devsenior.co.producto.model.BusquedaProductoDto;
+import com.devsenior.co.producto.model.CategoriaResumenDto;
+import com.devsenior.co.producto.model.FacetaDto;
+import com.devsenior.co.producto.model.ProductoDto;
+import com.devsenior.co.producto.model.ProductoProyeccion;
+import com.devsenior.co.producto.model.ResultadoBusquedaDto;
+import com.devsenior.co.producto.model.entity.CategoriaEntity;
+import com.devsenior.co.producto.model.entity.ProductoEntity;
+import com.devsenior.co.producto.repository.IProductoRepository;
+import com.devsenior.co.producto.shared.exceptions.ServicioNoDisponibleException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Indice en memoria del catalogo para la busqueda de productos sin consultar la base de datos.
+ * <ul>
+ *     <li>Indice invertido de las palabras del nombre (ordenado, para buscar por prefijo).</li>
+ *     <li>Indices ordenados de precio y cantidad para los filtros por rango.</li>
+ *     <li>Bitmaps por disponibilidad y por categoria: las busquedas solo con esos filtros cuentan el total y las facetas
+ *     sin recorrer los productos.</li>
+ * </ul>
+ * Se construye al iniciar la aplicación y ProductoService lo actualiza en cada create/update/delete; los cambios
+ * hechos por otras instancias llegan al reconstruirlo cuando CatalogoVersionService detecta que el catalogo cambio.
+ * Hasta que termina la construcción las busquedas responden 503 en lugar de resultados incompletos.
+ */
+@Slf4j
+@Component
+public class ProductoSearchIndex {
+
+    private static final Pattern SEPARADOR = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+
+    @Autowired
+    private IProductoRepository iProductoRepository;
+
+    @Autowired
+    private ICategoriaService iCategoriaService;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<Integer, Documento> documentos = new TreeMap<>();
+    private final TreeMap<String, Set<Integer>> terminos = new TreeMap<>();
+    private final TreeMap<Double, Set<Integer>> porPrecio = new TreeMap<>();
+    private final TreeMap<Integer, Set<Integer>> porCantidad = new TreeMap<>();
+    private final BitSet todos = new BitSet();
+    private final BitSet disponibles = new BitSet();
+    private final BitSet noDisponibles = new BitSet();
+    private final Map<Integer, BitSet> porCategoria = new HashMap<>();
+    private volatile boolean construido;
+    // Productos indexados o eliminados mientras se reconstruye, protegido por el lock
+    private Set<Integer> cambiosDuranteReconstruccion;
+
+    @Transactional(readOnly = true)
+    @EventListener(ApplicationReadyEvent.class)
+    public void construir() {
+        long inicio = System.nanoTime();
+        try (Stream<ProductoProyeccion> productos = iProductoRepository.streamAll()) {
+            productos.forEach(producto -> guardar(documento(producto)));
+        }
+        construido = true;
+        log.info("Indice de busqueda construido con {} productos en {} ms",
+                documentos.size(), (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    /**
+     * Vuelve a leer el catalogo sin bloquear las busquedas mientras se lee, y reemplaza el contenido del indice.
+     * Los productos que cambian en esta instancia durante la lectura conservan su versión actual, la leida puede
+     * ser anterior al cambio. Si ya hay una reconstrucción en curso no hace nada.
+     */
+    @Transactional(readOnly = true)
+    public void reconstruir() {
+        lock.writeLock().lock();
+        try {
+            if (cambiosDuranteReconstruccion != null) {
+                return;
+            }
+            cambiosDuranteReconstruccion = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        long inicio = System.nanoTime();
+        try {
+            List<Documento> leidos;
+            try (Stream<ProductoProyeccion> productos = iProductoRepository.streamAll()) {
+                leidos = productos.map(ProductoSearchIndex::documento).toList();
+            }
+            lock.writeLock().lock();
+            try {
+                List<Documento> vigentes = cambiosDuranteReconstruccion.stream()
+                        .map(documentos::get).filter(Objects::nonNull).toList();
+                limpiar();
+                leidos.stream().filter(documento -> !cambiosDuranteReconstruccion.contains(documento.id()))
+                        .forEach(this::guardar);
+                vigentes.forEach(this::guardar);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Indice de busqueda reconstruido con {} productos en {} ms",
+                    leidos.size(), (System.nanoTime() - inicio) / 1_000_000);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                cambiosDuranteReconstruccion = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    public void indexar(ProductoEntity producto) {
+        CategoriaEntity categoria = producto.getCategoria();
+        Documento documento = new Documento(producto.getId(), producto.getNombre(), producto.getCantidad(),
+                producto.getPrecio(), producto.getEstaDisponible(), categoria == null ? null : categoria.getId(),
+                tokenizar(producto.getNombre()));
+        lock.writeLock().lock();
+        try {
+            registrarCambio(documento.id());
+            guardar(documento);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static Documento documento(ProductoProyeccion producto) {
+        return new Documento(producto.id(), producto.nombre(), producto.cantidad(), producto.precio(),
+                producto.estaDisponible(), producto.categoriaId(), tokenizar(producto.nombre()));
+    }
+
+    private void registrarCambio(Integer id) {
+        if (cambiosDuranteReconstruccion != null) {
+            cambiosDuranteReconstruccion.add(id);
+        }
+    }
+
+    private void limpiar() {
+        documentos.clear();
+        terminos.clear();
+        porPrecio.clear();
+        porCantidad.clear();
+        todos.clear();
+        disponibles.clear();
+        noDisponibles.clear();
+        porCategoria.clear();
+    }
+
+    private void guardar(Documento documento) {
+        lock.writeLock().lock();
+        try {
+            quitar(documento.id());
+            documentos.put(documento.id(), documento);
+            documento.terminos().forEach(termino -> agregar(terminos, termino, documento.id()));
+            if (documento.precio() != null) {
+                agregar(porPrecio, documento.precio(), documento.id());
+            }
+            if (documento.cantidad() != null) {
+                agregar(porCantidad, documento.cantidad(), documento.id());
+            }
+            marcar(documento, true);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reservas y liberaciones: solo cambia la cantidad, el resto del documento se conserva.
+     */
+    public void ajustarCantidad(Integer id, int diferencia) {
+        lock.writeLock().lock();
+        try {
+            Documento anterior = documentos.get(id);
+            registrarCambio(id);
+            if (anterior != null && anterior.cantidad() != null) {
+                guardar(new Documento(id, anterior.nombre(), anterior.cantidad() + diferencia, anterior.precio(),
+                        anterior.estaDisponible(), anterior.categoriaId(), anterior.terminos()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Cantidad indexada del producto, o null si no esta en el indice.
+     */
+    public Integer cantidad(Integer id) {
+        lock.readLock().lock();
+        try {
+            Documento documento = documentos.get(id);
+            return documento == null ? null : documento.cantidad();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void eliminar(Integer id) {
+        lock.writeLock().lock();
+        try {
+            registrarCambio(id);
+            quitar(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public ResultadoBusquedaDto buscar(BusquedaProductoDto filtros) {
+        if (!construido) {
+            throw new ServicioNoDisponibleException("El indice de busqueda se esta construyendo, intente de nuevo");
+        }
+        int limite = Math.clamp(filtros.getLimit(), 1, ProductoService.LIMITE_MAXIMO);
+        if (soloFiltrosIndexados(filtros)) {
+            return buscarEnBitmaps(filtros, limite);
+        }
+        List<Documento> resultados = new ArrayList<>();
+        Map<Integer, Long> facetas = new HashMap<>();
+
+        lock.readLock().lock();
+        try {
+            for (Integer id : candidatos(filtros)) {
+                Documento documento = documentos.get(id);
+                if (documento == null || !cumpleFiltros(documento, filtros)) {
+                    continue;
+                }
+                if (documento.categoriaId() != null) {
+                    facetas.merge(documento.categoriaId(), 1L, Long::sum);
+                }
+                if (filtros.getCategoriaId() == null || filtros.getCategoriaId().equals(documento.categoriaId())) {
+                    resultados.add(documento);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Todos los resultados con categoria aportan a las facetas, si no hay facetas no se necesitan los nombres
+        Map<Integer, String> nombres = facetas.isEmpty() ? Map.of() : nombresCategorias();
+        List<ProductoDto> productos = resultados.stream()
+                .limit(limite)
+                .map(documento -> toDto(documento, nombres))
+                .toList();
+        return new ResultadoBusquedaDto(resultados.size(), productos, facetas(facetas, nombres));
+    }
+
+    private static boolean soloFiltrosIndexados(BusquedaProductoDto filtros) {
+        return (filtros.getQ() == null || tokenizar(filtros.getQ()).isEmpty())
+                && filtros.getPrecioMin() == null && filtros.getPrecioMax() == null
+                && filtros.getCantidadMin() == null && filtros.getCantidadMax() == null;
+    }
+
+    /**
+     * Disponibilidad y categoria se resuelven con los bitmaps: el total y cada faceta son la cardinalidad de una
+     * intersección y solo se convierten a DTO los productos de la página.
+     */
+    private ResultadoBusquedaDto buscarEnBitmaps(BusquedaProductoDto filtros, int limite) {
+        List<Documento> pagina = new ArrayList<>(limite);
+        Map<Integer, Long> facetas = new HashMap<>();
+        int total;
+
+        lock.readLock().lock();
+        try {
+            BitSet base = filtros.getEstaDisponible() == null ? todos
+                    : filtros.getEstaDisponible() ? disponibles : noDisponibles;
+            porCategoria.forEach((categoriaId, ids) -> {
+                long cantidad = base == todos ? ids.cardinality() : interseccion(base, ids).cardinality();
+                if (cantidad > 0) {
+                    facetas.put(categoriaId, cantidad);
+                }
+            });
+            BitSet resultados = base;
+            if (filtros.getCategoriaId() != null) {
+                BitSet categoria = porCategoria.get(filtros.getCategoriaId());
+                resultados = categoria == null ? new BitSet() : interseccion(base, categoria);
+            }
+            total = resultados.cardinality();
+            for (int id = resultados.nextSetBit(0); id >= 0 && pagina.size() < limite; id = resultados.nextSetBit(id + 1)) {
+                pagina.add(documentos.get(id));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Map<Integer, String> nombres = facetas.isEmpty() ? Map.of() : nombresCategorias();
+        List<ProductoDto> productos = pagina.stream().map(documento -> toDto(documento, nombres)).toList();
+        return new ResultadoBusquedaDto(total, productos, facetas(facetas, nombres));
+    }
+
+    private static BitSet interseccion(BitSet a, BitSet b) {
+        BitSet resultado = (BitSet) (a.length() < b.length() ? a : b).clone();
+        resultado.and(a.length() < b.length() ? b : a);
+        return resultado;
+    }
+
+    /**
+     * Retorna los ids candidatos ordenados usando el indice más selectivo disponible:
+     * texto, luego rango de precio, luego rango de cantidad y por ultimo todo el catalogo.
+     */
+    private Collection<Integer> candidatos(BusquedaProductoDto filtros) {
+        if (filtros.getQ() != null && !filtros.getQ().isBlank()) {
+            Set<Integer> ids = null;
+            for (String palabra : tokenizar(filtros.getQ())) {
+                Set<Integer> coincidencias = buscarPalabra(palabra, filtros.isFuzzy());
+                if (ids == null) {
+                    ids = coincidencias;
+                } else {
+                    ids.retainAll(coincidencias);
+                }
+            }
+            return ids == null ? documentos.keySet() : new TreeSet<>(ids);
+        }
+        if (filtros.getPrecioMin() != null || filtros.getPrecioMax() != null) {
+            return idsOrdenados(rango(porPrecio, filtros.getPrecioMin(), filtros.getPrecioMax()));
+        }
+        if (filtros.getCantidadMin() != null || filtros.getCantidadMax() != null) {
+            return idsOrdenados(rango(porCantidad, filtros.getCantidadMin(), filtros.getCantidadMax()));
+        }
+        return documentos.keySet();
+    }
+
+    private Set<Integer> buscarPalabra(String palabra, boolean fuzzy) {
+        Set<Integer> ids = new HashSet<>();
+        terminos.subMap(palabra, true, palabra + Character.MAX_VALUE, false).values().forEach(ids::addAll);
+        if (fuzzy) {
+            int maxDistancia = palabra.length() > 5 ? 2 : 1;
+            // Solo se comparan los terminos que inician con la misma letra para no recorrer todo el diccionario
+            String inicial = palabra.substring(0, 1);
+            terminos.subMap(inicial, true, inicial + Character.MAX_VALUE, false).forEach((termino, idsTermino) -> {
+                if (Math.abs(termino.length() - palabra.length()) <= maxDistancia
+                        && distancia(palabra, termino, maxDistancia) <= maxDistancia) {
+                    ids.addAll(idsTermino);
+                }
+            });
+        }
+        return ids;
+    }
+
+    private boolean cumpleFiltros(Documento documento, BusquedaProductoDto filtros) {
+        return enRango(documento.precio(), filtros.getPrecioMin(), filtros.getPrecioMax())
+                && enRango(documento.cantidad(), filtros.getCantidadMin(), filtros.getCantidadMax())
+                && (filtros.getEstaDisponible() == null || filtros.getEstaDisponible().equals(documento.estaDisponible()));
+    }
+
+    private List<FacetaDto> facetas(Map<Integer, Long> conteos, Map<Integer, String> nombres) {
+        return conteos.entrySet().stream()
+                .map(conteo -> new FacetaDto(conteo.getKey(), nombres.get(conteo.getKey()), conteo.getValue()))
+                .sorted(Comparator.comparingLong(FacetaDto::getCantidad).reversed())
+                .toList();
+    }
+
+    private Map<Integer, String> nombresCategorias() {
+        return iCategoriaService.findAll().stream()
+                .collect(Collectors.toMap(CategoriaEntity::getId, CategoriaEntity::getNombre));
+    }
+
+    private static ProductoDto toDto(Documento documento, Map<Integer, String> nombres) {
+        ProductoDto dto = new ProductoDto(documento.nombre(), documento.cantidad(), documento.precio(), documento.estaDisponible());
+        if (documento.categoriaId() != null) {
+            dto.setCategoria(new CategoriaResumenDto(documento.categoriaId(), nombres.get(documento.categoriaId())));
+        }
+        return dto;
+    }
+
+    private void quitar(Integer id) {
+        Documento anterior = documentos.remove(id);
+        if (anterior == null) {
+            return;
+        }
+        anterior.terminos().forEach(termino -> remover(terminos, termino, id));
+        if (anterior.precio() != null) {
+            remover(porPrecio, anterior.precio(), id);
+        }
+        if (anterior.cantidad() != null) {
+            remover(porCantidad, anterior.cantidad(), id);
+        }
+        marcar(anterior, false);
+    }
+
+    private void marcar(Documento documento, boolean valor) {
+        int id = documento.id();
+        todos.set(id, valor);
+        if (documento.estaDisponible() != null) {
+            (documento.estaDisponible() ? disponibles : noDisponibles).set(id, valor);
+        }
+        if (documento.categoriaId() != null) {
+            if (valor) {
+                porCategoria.computeIfAbsent(documento.categoriaId(), k -> new BitSet()).set(id);
+            } else {
+                BitSet categoria = porCategoria.get(documento.categoriaId());
+                categoria.clear(id);
+                if (categoria.isEmpty()) {
+                    porCategoria.remove(documento.categoriaId());
+                }
+            }
+        }
+    }
+
+    private static <K> void agregar(Map<K, Set<Integer>> indice, K llave, Integer id) {
+        indice.computeIfAbsent(llave, k -> new HashSet<>(4)).add(id);
+    }
+
+    private static <K> void remover(Map<K, Set<Integer>> indice, K llave, Integer id) {
+        Set<Integer> ids = indice.get(llave);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            indice.remove(llave);
+        }
+    }
+
+    private static <K extends Comparable<K>> Collection<Set<Integer>> rango(NavigableMap<K, Set<Integer>> indice, K min, K max) {
+        if (min != null && max != null) {
+            return min.compareTo(max) > 0 ? List.of() : indice.subMap(min, true, max, true).values();
+        }
+        if (min != null) {
+            return indice.tailMap(min, true).values();
+        }
+        return indice.headMap(max, true).values();
+    }
+
+    private static Collection<Integer> idsOrdenados(Collection<Set<Integer>> grupos) {
+        int total = 0;
+        for (Set<Integer> grupo : grupos) {
+            total += grupo.size();
+        }
+        int[] ids = new int[total];
+        int i = 0;
+        for (Set<Integer> grupo : grupos) {
+            for (Integer id : grupo) {
+                ids[i++] = id;
+            }
+        }
+        Arrays.sort(ids);
+        return Arrays.stream(ids).boxed().toList();
+    }
+
+    private static <T extends Comparable<T>> boolean enRango(T valor, T min, T max) {
+        if (min == null && max == null) {
+            return true;
+        }
+        return valor != null && (min == null || valor.compareTo(min) >= 0) && (max == null || valor.compareTo(max) <= 0);
+    }
+
+    static Set<String> tokenizar(String texto) {
+        if (texto == null) {
+            return Set.of();
+        }
+        String normalizado = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String token : SEPARADOR.split(normalizado)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Distancia de Levenshtein que se detiene en cuanto supera maxDistancia
+     */
+    static int distancia(String a, String b, int maxDistancia) {
+        int[] anterior = new int[b.length() + 1];
+        int[] actual = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            anterior[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            actual[0] = i;
+            int minimoFila = actual[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int costo = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                actual[j] = Math.min(Math.min(actual[j - 1] + 1, anterior[j] + 1), anterior[j - 1] + costo);
+                minimoFila = Math.min(minimoFila, actual[j]);
+            }
+            if (minimoFila > maxDistancia) {
+                return maxDistancia + 1;
+            }
+            int[] temporal = anterior;
+            anterior = actual;
+            actual = temporal;
+        }
+        return anterior[b.length()];
+    }
+
+    private record Documento(Integer id, String nombre, Integer cantidad, Double precio, Boolean estaDisponible,
+                             Integer categoriaId, Set<String> terminos) {
+    }
+}
@@ -1,50 +1,218 @@
 package com.devsenior.co.producto.service;
 
+import com.devsenior.co.producto.model.BusquedaProductoDto;
+import com.devsenior.co.producto.model.EntidadCatalogo;
+import com.devsenior.co.producto.model.OperacionCambio;
+import com.devsenior.co.producto.model.PaginaDto;
 import com.devsenior.co.producto.model.ProductoDto;
+import com.devsenior.co.producto.model.ProductoProyeccion;
+import com.devsenior.co.producto.model.ResultadoBusquedaDto;
 import com.devsenior.co.producto.model.entity.ProductoEntity;
+import com.devsenior.co.producto.repository.ICategoriaRepository;
 import com.devsenior.co.producto.repository.IProductoRepository;
-import com.devsenior.co.producto.shared.exceptions.CustomException;
+import com.devsenior.co.producto.shared.config.CacheConfig;
+import com.devsenior.co.producto.shared.exceptions.RecursoNoEncontradoException;
+import com.devsenior.co.producto.shared.exceptions.SolicitudInvalidaException;
+import com.devsenior.co.producto.shared.transaction.AlConfirmar;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Date;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.List;
 
 @Service
+@Timed(value = "app.service", histogram = true)
 public class ProductoService{
 
+    public static final int LIMITE_MAXIMO = 100;
+
     @Autowired
     private IProductoRepository iProductoRepository;
 
+    @Autowired
+    private ICategoriaRepository iCategoriaRepository;
+
+    @Autowired
+    private ProductoSearchIndex productoSearchIndex;
+
+    @Autowired
+    private CatalogoVersionService catalogoVersionService;
+
+    @Autowired
+    private CambioCatalogoService cambioCatalogoService;
+
+    @Autowired
+    private CatalogoColumnar catalogoColumnar;
+
+    @Autowired
+    private RespuestasProductoCache respuestasProductoCache;
+
+    @Autowired
+    private StockReservaService stockReservaService;
+
+    /**
+     * Las lecturas usan la copia en columnas cuando esta habilitada. No se declaran @Transactional para no tomar
+     * una conexión al responder desde la copia: cada consulta a la base de datos usa la transacción de solo lectura
+     * del repositorio.
+     */
     public List<ProductoDto> findAll() {
-        return iProductoRepository.findAll().stream().map( producto ->
-                new ProductoDto(producto.getNombre(),
-                        producto.getCantidad(),
-                        producto.getPrecio(),
-                        producto.getEstaDisponible())
-        ).toList();
+        ColumnasCatalogo columnas = catalogoColumnar.actual();
+        if (columnas != null) {
+            return columnas.todos();
+        }
+        return iProductoRepository.findAllProyectados().stream().map(ProductoProyeccion::toDto).toList();
     }
 
+    public ProductoDto findById(Integer id) {
+        ColumnasCatalogo columnas = catalogoColumnar.actual();
+        ProductoDto producto = columnas != null ? columnas.buscar(id)
+                : iProductoRepository.findProyectadoById(id).map(ProductoProyeccion::toDto).orElse(null);
+        if (producto == null) {
+            throw new RecursoNoEncontradoException("El producto con id: " + id + " no existe.");
+        }
+        return producto;
+    }
+
+    /**
+     * Retorna una página de productos ordenada por id a partir del cursor recibido, ya serializada.
+     * Se consulta un registro extra para saber si existe una página siguiente. Se lee sin la cache de objetos
+     * porque esta se limpia despues de invalidar las respuestas y podría devolver la página anterior al cambio.
+     */
+    public RespuestasProductoCache.RespuestaSerializada findPageSerializada(String after, int limit) {
+        int limite = Math.clamp(limit, 1, LIMITE_MAXIMO);
+        int desde = decodificarCursor(after);
+        return respuestasProductoCache.pagina(desde, limite, () -> {
+            List<ProductoProyeccion> productos = leerPagina(desde, limite + 1);
+            int hasta = productos.size() > limite ? productos.get(limite - 1).id() : Integer.MAX_VALUE;
+            return new RespuestasProductoCache.LecturaPagina(toPagina(productos, limite), hasta);
+        });
+    }
+
+    public RespuestasProductoCache.RespuestaSerializada findByIdSerializado(Integer id) {
+        return respuestasProductoCache.producto(id, () -> findById(id));
+    }
+
+    /**
+     * Igual que findPageSerializada pero solo con los productos de la categoria, sin serializar. La existencia de la categoria
+     * solo se consulta cuando la página llega vacia, en el caso normal el costo es una sola consulta.
+     */
+    @Cacheable(cacheNames = CacheConfig.PRODUCTOS, key = "'categoria:' + #categoriaId + ':' + #after + ':' + #limit")
+    public PaginaDto<ProductoDto> findPageByCategoria(Integer categoriaId, String after, int limit) {
+        int limite = Math.clamp(limit, 1, LIMITE_MAXIMO);
+        ColumnasCatalogo columnas = catalogoColumnar.actual();
+        List<ProductoProyeccion> productos = columnas != null
+                ? columnas.pagina(decodificarCursor(after), categoriaId, limite + 1)
+                : iProductoRepository.findPaginaDeCategoria(categoriaId, decodificarCursor(after), Limit.of(limite + 1));
+        if (productos.isEmpty() && !iCategoriaRepository.existsById(categoriaId)) {
+            throw new RecursoNoEncontradoException("La categoria con id: " + categoriaId + " no existe");
+        }
+        return toPagina(productos, limite);
+    }
+
+    /**
+     * El producto y su evento de cambio se guardan en la misma transacción; el indice y la version
+     * del catalogo se actualizan solo cuando se confirma.
+     */
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTOS, allEntries = true)
     public ProductoEntity create(ProductoDto producto) {
         ProductoEntity entity = new ProductoEntity(producto.getNombre(), producto.getCantidad(), producto.getPrecio(), producto.getEstaDisponible());
-        return iProductoRepository.save(entity);
+        ProductoEntity guardado = iProductoRepository.save(entity);
+        cambioCatalogoService.registrar(guardado, OperacionCambio.CREADO);
+        AlConfirmar.ejecutar(() -> {
+            productoSearchIndex.indexar(guardado);
+            catalogoColumnar.guardar(guardado);
+            respuestasProductoCache.invalidar(guardado.getId());
+            catalogoVersionService.incrementar();
+        });
+        return guardado;
     }
 
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTOS, allEntries = true)
     public ProductoEntity update(Integer idEntity, ProductoDto producto) {
+        // La cantidad se fija: el stock arrendado en memoria vuelve antes a la base de datos
+        stockReservaService.devolverArriendo(idEntity);
         ProductoEntity entity = iProductoRepository.findById(idEntity).orElseThrow(() ->
-                new CustomException("El producto con id: " + idEntity + " no existe.", new Date()));
+                new RecursoNoEncontradoException("El producto con id: " + idEntity + " no existe."));
         entity.setNombre(producto.getNombre());
         entity.setCantidad(producto.getCantidad());
         entity.setPrecio(producto.getPrecio());
         entity.setEstaDisponible(producto.getEstaDisponible());
-        return iProductoRepository.save(entity);
+        ProductoEntity guardado = iProductoRepository.save(entity);
+        cambioCatalogoService.registrar(guardado, OperacionCambio.ACTUALIZADO);
+        AlConfirmar.ejecutar(() -> {
+            productoSearchIndex.indexar(guardado);
+            catalogoColumnar.guardar(guardado);
+            respuestasProductoCache.invalidar(guardado.getId());
+            catalogoVersionService.incrementar();
+        });
+        return guardado;
     }
 
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTOS, allEntries = true)
     public void delete(Integer idEntity) {
-        iProductoRepository.findById(idEntity).orElseThrow(() ->
-                new CustomException("El producto con id: " + idEntity + " no existe.", new Date()));
-        iProductoRepository.deleteById(idEntity);
+        // Un solo DELETE: las filas afectadas indican si el producto existia
+        if (iProductoRepository.eliminar(idEntity) == 0) {
+            throw new RecursoNoEncontradoException("El producto con id: " + idEntity + " no existe.");
+        }
+        cambioCatalogoService.registrarEliminacion(EntidadCatalogo.PRODUCTO, idEntity);
+        AlConfirmar.ejecutar(() -> {
+            productoSearchIndex.eliminar(idEntity);
+            catalogoColumnar.eliminar(idEntity);
+            respuestasProductoCache.invalidar(idEntity);
+            catalogoVersionService.incrementar();
+        });
     }
 
+    /**
+     * La busqueda por texto usa el indice de busqueda; los filtros sin texto se resuelven recorriendo la copia en columnas.
+     */
+    public ResultadoBusquedaDto search(BusquedaProductoDto filtros) {
+        ColumnasCatalogo columnas = catalogoColumnar.actual();
+        if (columnas != null && (filtros.getQ() == null || filtros.getQ().isBlank())) {
+            return columnas.filtrar(filtros, Math.clamp(filtros.getLimit(), 1, LIMITE_MAXIMO));
+        }
+        return productoSearchIndex.buscar(filtros);
+    }
 
+    private List<ProductoProyeccion> leerPagina(int desde, int cantidad) {
+        ColumnasCatalogo columnas = catalogoColumnar.actual();
+        if (columnas != null) {
+            return columnas.pagina(desde, null, cantidad);
+        }
+        return iProductoRepository.findPaginaDesde(desde, Limit.of(cantidad));
+    }
+
+    private PaginaDto<ProductoDto> toPagina(List<ProductoProyeccion> productos, int limite) {
+        String siguienteCursor = null;
+        if (productos.size() > limite) {
+            productos = productos.subList(0, limite);
+            siguienteCursor = codificarCursor(productos.getLast().id());
+        }
+        return new PaginaDto<>(productos.stream().map(ProductoProyeccion::toDto).toList(), siguienteCursor, limite);
+    }
+
+    private String codificarCursor(Integer id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(id.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Integer decodificarCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        try {
+            return Integer.valueOf(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new SolicitudInvalidaException("El cursor: " + cursor + " no es valido.");
+        }
+    }
 }
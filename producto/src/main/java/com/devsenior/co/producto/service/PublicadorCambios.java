@@ -0,0 +1,14 @@
+package com.devsenior.co.producto.service;
+
+import com.devsenior.co.producto.model.CambioCatalogoDto;
+
+import java.util.List;
+
+/**
+ * Destino de los eventos que publica el relay del outbox. Recibe cada lote despues de que sus secuencias
+ * fueron confirmadas; un lote que falla no se reintenta, los consumidores se recuperan leyendo el feed.
+ */
+public interface PublicadorCambios {
+
+    void publicar(List<CambioCatalogoDto> cambios);
+}
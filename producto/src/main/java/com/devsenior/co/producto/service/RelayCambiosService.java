@@ -0,0 +1,111 @@
+package com.devsenior.co.producto.service;
+
+import com.devsenior.co.producto.model.CambioCatalogoDto;
+import com.devsenior.co.producto.model.entity.CambioCatalogoEntity;
+import com.devsenior.co.producto.repository.ICambioCatalogoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Relay del outbox: toma los eventos pendientes por lotes, les asigna la secuencia del feed y entrega
+ * el lote a los PublicadorCambios una vez confirmado.
+ * La secuencia se calcula con el maximo ya publicado mientras se tienen bloqueados los pendientes, asi dos
+ * instancias no confirman secuencias fuera de orden; si aun asi calculan la misma, la restricción unique
+ * revierte una de las dos y sus eventos se publican en el siguiente ciclo.
+ * Los eventos publicados se conservan durante la retención configurada y despues se borran.
+ */
+@Slf4j
+@Service
+public class RelayCambiosService {
+
+    @Autowired
+    private ICambioCatalogoRepository iCambioCatalogoRepository;
+
+    @Autowired(required = false)
+    private List<PublicadorCambios> publicadores = List.of();
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${producto.outbox.tamano-lote:200}")
+    private int tamanoLote;
+
+    @Value("${producto.outbox.retencion:7d}")
+    private Duration retencion;
+
+    public RelayCambiosService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Publica todos los pendientes y retorna cuantos eventos publicó.
+     */
+    @Scheduled(fixedDelayString = "${producto.outbox.periodo:500ms}", initialDelayString = "${producto.outbox.periodo:500ms}")
+    public int publicarPendientes() {
+        int total = 0;
+        List<CambioCatalogoDto> lote;
+        do {
+            lote = transactionTemplate.execute(status -> asignarSecuencias());
+            entregar(lote);
+            total += lote.size();
+        } while (lote.size() == tamanoLote);
+        return total;
+    }
+
+    /**
+     * Borra los eventos publicados antes de la retención y retorna cuantos borró. El ultimo publicado se conserva
+     * para que la secuencia continue desde su valor; un cliente con un cursor anterior a lo retenido ya no recibe
+     * los eventos borrados y debe volver a leer el catalogo.
+     */
+    @Scheduled(fixedDelayString = "${producto.outbox.periodo-purga:1h}", initialDelayString = "${producto.outbox.periodo-purga:1h}")
+    public int purgarPublicados() {
+        Instant limite = Instant.now().minus(retencion);
+        int borrados = transactionTemplate.execute(status -> iCambioCatalogoRepository.eliminarPublicadosAntes(limite,
+                iCambioCatalogoRepository.findUltimaSecuencia()));
+        if (borrados > 0) {
+            log.info("Se borraron {} eventos del outbox publicados antes de {}", borrados, limite);
+        }
+        return borrados;
+    }
+
+    private List<CambioCatalogoDto> asignarSecuencias() {
+        List<CambioCatalogoEntity> pendientes = iCambioCatalogoRepository.findPendientes(Limit.of(tamanoLote));
+        if (pendientes.isEmpty()) {
+            return List.of();
+        }
+        long secuencia = iCambioCatalogoRepository.findUltimaSecuencia();
+        Instant ahora = Instant.now();
+        List<CambioCatalogoDto> publicados = new ArrayList<>(pendientes.size());
+        for (CambioCatalogoEntity cambio : pendientes) {
+            cambio.setSecuencia(++secuencia);
+            cambio.setFechaPublicacion(ahora);
+            publicados.add(new CambioCatalogoDto(cambio.getSecuencia(), cambio.getEntidad(), cambio.getEntidadId(),
+                    cambio.getOperacion(), cambio.getDatos(), ahora));
+        }
+        return publicados;
+    }
+
+    private void entregar(List<CambioCatalogoDto> lote) {
+        if (lote.isEmpty()) {
+            return;
+        }
+        for (PublicadorCambios publicador : publicadores) {
+            try {
+                publicador.publicar(lote);
+            } catch (RuntimeException e) {
+                log.warn("No se pudo entregar el lote de cambios {}-{} a {}: {}", lote.getFirst().getSecuencia(),
+                        lote.getLast().getSecuencia(), publicador.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.devsenior.co.producto.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Respuestas de GET /productos y GET /productos/{id} ya serializadas a JSON, con su variante gzip cuando el cuerpo
+ * supera el tamaño minimo de compresión del servidor. El controlador escribe los bytes tal cual, sin pasar por Jackson.
+ * <ul>
+ *     <li>Se construyen al pedirse por primera vez y se conservan hasta que una escritura las invalida.</li>
+ *     <li>Cada escritura invalida solo el producto y las páginas cuyo rango de ids lo contiene; los cambios de
+ *     categoria y de otra instancia invalidan todo.</li>
+ * </ul>
+ * Una respuesta construida mientras se invalida no se conserva: la generación cambia y se descarta.
+ */
+@Component
+public class RespuestasProductoCache {
+
+    public record RespuestaSerializada(byte[] json, byte[] gzip) {
+    }
+
+    private record ClavePagina(int desde, int limite) {
+    }
+
+    // Contiene los productos con id en (desde, hasta]
+    private record Pagina(RespuestaSerializada respuesta, int desde, int hasta) {
+    }
+
+    /**
+     * Lo que lee ProductoService para una página: el cuerpo y el ultimo id que cubre (Integer.MAX_VALUE en la ultima página).
+     */
+    public record LecturaPagina(Object cuerpo, int hasta) {
+    }
+
+    @Value("${producto.respuestas-serializadas.habilitado:true}")
+    private boolean habilitado;
+
+    @Value("${producto.respuestas-serializadas.max-productos:100000}")
+    private int maxProductos;
+
+    @Value("${producto.respuestas-serializadas.max-paginas:1000}")
+    private int maxPaginas;
+
+    @Value("${server.compression.min-response-size:2KB}")
+    private DataSize minimoGzip;
+
+    private final ObjectWriter writer;
+    private final Counter aciertos;
+    private final Counter fallos;
+    private final Map<Integer, RespuestaSerializada> productos = new ConcurrentHashMap<>();
+    private final Map<ClavePagina, Pagina> paginas = new ConcurrentHashMap<>();
+    private final AtomicLong generacion = new AtomicLong();
+
+    public RespuestasProductoCache(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.writer = objectMapper.writer();
+        this.aciertos = contador(meterRegistry, "acierto");
+        this.fallos = contador(meterRegistry, "fallo");
+        Gauge.builder("app.productos.respuestas.entradas", this, cache -> cache.productos.size() + cache.paginas.size())
+                .description("Respuestas de productos serializadas en memoria")
+                .register(meterRegistry);
+    }
+
+    public RespuestaSerializada producto(Integer id, Supplier<?> lectura) {
+        RespuestaSerializada respuesta = productos.get(id);
+        if (respuesta != null) {
+            aciertos.increment();
+            return respuesta;
+        }
+        fallos.increment();
+        long inicio = generacion.get();
+        respuesta = serializar(lectura.get());
+        if (habilitado && productos.size() < maxProductos) {
+            productos.put(id, respuesta);
+            if (generacion.get() != inicio) {
+                productos.remove(id, respuesta);
+            }
+        }
+        return respuesta;
+    }
+
+    public RespuestaSerializada pagina(int desde, int limite, Supplier<LecturaPagina> lectura) {
+        ClavePagina clave = new ClavePagina(desde, limite);
+        Pagina pagina = paginas.get(clave);
+        if (pagina != null) {
+            aciertos.increment();
+            return pagina.respuesta();
+        }
+        fallos.increment();
+        long inicio = generacion.get();
+        LecturaPagina leida = lectura.get();
+        pagina = new Pagina(serializar(leida.cuerpo()), desde, leida.hasta());
+        if (habilitado && paginas.size() < maxPaginas) {
+            paginas.put(clave, pagina);
+            if (generacion.get() != inicio) {
+                paginas.remove(clave, pagina);
+            }
+        }
+        return pagina.respuesta();
+    }
+
+    public void invalidar(Integer id) {
+        generacion.incrementAndGet();
+        productos.remove(id);
+        paginas.values().removeIf(pagina -> id > pagina.desde() && id <= pagina.hasta());
+    }
+
+    public void invalidar(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        generacion.incrementAndGet();
+        int[] ordenados = ids.stream().mapToInt(Integer::intValue).sorted().toArray();
+        for (int id : ordenados) {
+            productos.remove(id);
+        }
+        paginas.values().removeIf(pagina -> contiene(ordenados, pagina));
+    }
+
+    public void invalidarTodo() {
+        generacion.incrementAndGet();
+        productos.clear();
+        paginas.clear();
+    }
+
+    private static boolean contiene(int[] ordenados, Pagina pagina) {
+        int posicion = Arrays.binarySearch(ordenados, pagina.desde() + 1);
+        if (posicion < 0) {
+            posicion = -posicion - 1;
+        }
+        return posicion < ordenados.length && ordenados[posicion] <= pagina.hasta();
+    }
+
+    private RespuestaSerializada serializar(Object cuerpo) {
+        byte[] json = writer.writeValueAsBytes(cuerpo);
+        return new RespuestaSerializada(json, json.length >= minimoGzip.toBytes() ? gzip(json) : null);
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(json.length / 4);
+        // Se comprime una sola vez por respuesta, vale la pena el nivel maximo
+        try (GZIPOutputStream gzip = new GZIPOutputStream(salida) {{ def.setLevel(Deflater.BEST_COMPRESSION); }}) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return salida.toByteArray();
+    }
+
+    private static Counter contador(MeterRegistry meterRegistry, String resultado) {
+        return Counter.builder("app.productos.respuestas")
+                .description("Lecturas de respuestas de productos serializadas")
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+}
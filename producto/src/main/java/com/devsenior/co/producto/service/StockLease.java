@@ -0,0 +1,131 @@
+package com.devsenior.co.producto.service;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Stock de un producto caliente que ya fue descontado en la base de datos (arrendado) y se reparte
+ * en memoria. El stock se divide en franjas para que los hilos no compitan por el mismo contador;
+ * solo cuando ninguna franja alcanza se toma el lock, se juntan las franjas y se arrienda más stock.
+ * Como todo lo que hay en memoria ya salio de la base de datos, nunca se puede reservar de más.
+ * Al cerrarlo (el producto dejó de ser caliente) ya no arrienda: lo que se devuelve despues lo retira
+ * quien lo devolvió, para llevarlo a la base de datos.
+ */
+final class StockLease {
+
+    // Cada franja ocupa su propia linea de cache (64 bytes) para evitar false sharing entre hilos
+    private static final int SEPARACION = 16;
+
+    private final AtomicIntegerArray franjas;
+    private final int numFranjas;
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile boolean cerrado;
+
+    StockLease(int numFranjas) {
+        this.numFranjas = numFranjas;
+        this.franjas = new AtomicIntegerArray(numFranjas * SEPARACION);
+    }
+
+    /**
+     * Intenta reservar la cantidad. arrendar recibe lo que falta y retorna cuanto stock se pudo
+     * descontar de la base de datos (0 si no alcanza). Si el contador ya esta cerrado y no alcanza
+     * retorna CERRADO sin arrendar, la reserva debe hacerse en la base de datos.
+     */
+    Resultado tomar(int cantidad, IntUnaryOperator arrendar) {
+        int inicio = franjaActual();
+        for (int i = 0; i < numFranjas; i++) {
+            int indice = ((inicio + i) % numFranjas) * SEPARACION;
+            int actual;
+            while ((actual = franjas.get(indice)) >= cantidad) {
+                if (franjas.compareAndSet(indice, actual, actual - cantidad)) {
+                    return Resultado.RESERVADO;
+                }
+            }
+        }
+
+        lock.lock();
+        try {
+            if (cerrado) {
+                return Resultado.CERRADO;
+            }
+            int total = drenarFranjas();
+            if (total < cantidad) {
+                try {
+                    total += arrendar.applyAsInt(cantidad - total);
+                } catch (RuntimeException e) {
+                    // Lo que ya estaba en memoria no se puede perder si la base de datos falla
+                    franjas.addAndGet(inicio * SEPARACION, total);
+                    throw e;
+                }
+            }
+            if (total < cantidad) {
+                franjas.addAndGet(inicio * SEPARACION, total);
+                return Resultado.SIN_STOCK;
+            }
+            franjas.addAndGet(inicio * SEPARACION, total - cantidad);
+            return Resultado.RESERVADO;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Suma la cantidad al contador. Si ya esta cerrado retorna lo que quedó en memoria (incluida esta cantidad)
+     * para devolverlo a la base de datos; si no, retorna 0.
+     */
+    int devolver(int cantidad) {
+        franjas.addAndGet(franjaActual() * SEPARACION, cantidad);
+        // cerrar() marca el contador antes de drenarlo: si esta suma llegó despues del drenado, aqui se ve cerrado
+        return cerrado ? drenarFranjas() : 0;
+    }
+
+    /**
+     * Deja de arrendar y retira el stock en memoria para devolverlo a la base de datos.
+     */
+    int cerrar() {
+        lock.lock();
+        try {
+            cerrado = true;
+            return drenarFranjas();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retira todo el stock en memoria para devolverlo a la base de datos.
+     */
+    int drenar() {
+        lock.lock();
+        try {
+            return drenarFranjas();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int disponible() {
+        int total = 0;
+        for (int i = 0; i < numFranjas; i++) {
+            total += franjas.get(i * SEPARACION);
+        }
+        return total;
+    }
+
+    private int drenarFranjas() {
+        int total = 0;
+        for (int i = 0; i < numFranjas; i++) {
+            total += franjas.getAndSet(i * SEPARACION, 0);
+        }
+        return total;
+    }
+
+    private int franjaActual() {
+        return (int) Math.floorMod(Thread.currentThread().threadId(), (long) numFranjas);
+    }
+
+    enum Resultado {
+        RESERVADO, SIN_STOCK, CERRADO
+    }
+}
@@ -0,0 +1,266 @@
+package com.devsenior.co.producto.service;
+
+import com.devsenior.co.producto.model.ResultadoReservaDto;
+import com.devsenior.co.producto.repository.IProductoRepository;
+import com.devsenior.co.producto.shared.config.CacheConfig;
+import com.devsenior.co.producto.shared.exceptions.RecursoNoEncontradoException;
+import com.devsenior.co.producto.shared.exceptions.StockInsuficienteException;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Reservas y liberaciones de stock sin leer-modificar-escribir la entidad.
+ * <ul>
+ *     <li>Productos normales: un UPDATE condicional (cantidad >= n) por operación.</li>
+ *     <li>Productos calientes (muchas reservas por periodo): el stock se arrienda por bloques a un
+ *     contador en memoria y el sobrante se devuelve a la base de datos en cada consolidación.</li>
+ * </ul>
+ * Mientras un producto es caliente, la cantidad en la base de datos no incluye el stock arrendado
+ * por esta instancia (a lo sumo tamanoLease unidades por producto durante un periodo). Deja de serlo cuando
+ * sus operaciones del periodo bajan del umbral, o antes de una actualización que fija la cantidad.
+ * Cada cambio en la base de datos se registra en la outbox en la misma transacción (STOCK_AJUSTADO) y se aplica
+ * al indice de busqueda, a la copia en columnas, a las respuestas serializadas y a la cache de productos.
+ */
+@Slf4j
+@Service
+@Timed(value = "app.service", histogram = true)
+public class StockReservaService {
+
+    @Autowired
+    private IProductoRepository iProductoRepository;
+
+    @Autowired
+    private CatalogoVersionService catalogoVersionService;
+
+    @Autowired
+    private CatalogoColumnar catalogoColumnar;
+
+    @Autowired
+    private ProductoSearchIndex productoSearchIndex;
+
+    @Autowired
+    private CambioCatalogoService cambioCatalogoService;
+
+    @Autowired
+    private RespuestasProductoCache respuestasProductoCache;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Value("${producto.stock.umbral-caliente:50}")
+    private int umbralCaliente;
+
+    @Value("${producto.stock.tamano-lease:5}")
+    private int tamanoLease;
+
+    @Value("${producto.stock.franjas:8}")
+    private int franjas;
+
+    @Value("${producto.stock.max-calientes:1000}")
+    private int maxCalientes;
+
+    private final Map<Integer, StockLease> calientes = new ConcurrentHashMap<>();
+    private final Map<Integer, LongAdder> operaciones = new ConcurrentHashMap<>();
+    private final TransactionTemplate transactionTemplate;
+
+    public StockReservaService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Un ajuste se confirma aunque se llame desde otra transacción: el stock que se devuelve ya salió de memoria
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public ResultadoReservaDto reservar(Integer id, int cantidad) {
+        StockLease lease = registrarOperacion(id);
+        StockLease.Resultado resultado = lease == null ? StockLease.Resultado.CERRADO
+                : lease.tomar(cantidad, faltante -> arrendar(id, faltante));
+        boolean enMemoria = resultado != StockLease.Resultado.CERRADO;
+        boolean reservado = enMemoria ? resultado == StockLease.Resultado.RESERVADO : descontar(id, cantidad);
+        if (!reservado) {
+            validarExiste(id);
+            throw new StockInsuficienteException("El producto con id: " + id + " no tiene stock suficiente para reservar "
+                    + cantidad + " unidades.");
+        }
+        return new ResultadoReservaDto(id, cantidad, enMemoria);
+    }
+
+    public ResultadoReservaDto liberar(Integer id, int cantidad) {
+        StockLease lease = registrarOperacion(id);
+        // Con el contador cerrado, lo que quedó en memoria vuelve a la base de datos
+        int aDevolver = lease == null ? cantidad : lease.devolver(cantidad);
+        if (aDevolver > 0 && !devolver(id, aDevolver)) {
+            validarExiste(id);
+        }
+        return new ResultadoReservaDto(id, cantidad, lease != null);
+    }
+
+    /**
+     * Devuelve a la base de datos el stock en memoria de los productos calientes y recalcula cuales lo son
+     * con las operaciones del periodo. Los que bajan del umbral dejan de ser calientes: su contador se cierra
+     * y se quita, asi no arriendan ni devuelven stock en cada periodo y dejan lugar para otros productos.
+     * Una operación que todavia tenia el contador cerrado termina en la base de datos.
+     */
+    @Scheduled(fixedDelayString = "${producto.stock.periodo-consolidacion:1s}")
+    public void consolidar() {
+        calientes.forEach((id, lease) -> {
+            LongAdder contador = operaciones.get(id);
+            if (contador != null && contador.sum() >= umbralCaliente) {
+                devolverSobrante(id, lease);
+            } else if (calientes.remove(id, lease)) {
+                log.info("El producto {} vuelve a reservarse en la base de datos", id);
+                devolverCerrado(id, lease);
+            }
+        });
+
+        operaciones.forEach((id, contador) -> {
+            if (contador.sum() >= umbralCaliente && calientes.size() < maxCalientes
+                    && calientes.putIfAbsent(id, new StockLease(franjas)) == null) {
+                log.info("El producto {} pasa a reservarse en memoria ({} operaciones en el periodo)", id, contador.sum());
+            }
+        });
+        operaciones.clear();
+    }
+
+    /**
+     * Antes de una actualización que fija la cantidad: el stock arrendado vuelve a la base de datos y el producto
+     * deja de reservarse en memoria, si no la siguiente consolidación lo sumaría sobre la cantidad nueva.
+     */
+    public void devolverArriendo(Integer id) {
+        StockLease lease = calientes.remove(id);
+        if (lease != null) {
+            devolverCerrado(id, lease);
+        }
+    }
+
+    public Map<Integer, Integer> getStockEnMemoria() {
+        Map<Integer, Integer> stock = new ConcurrentHashMap<>();
+        calientes.forEach((id, lease) -> stock.put(id, lease.disponible()));
+        return stock;
+    }
+
+    @PreDestroy
+    public void detener() {
+        calientes.forEach(this::devolverSobrante);
+    }
+
+    /**
+     * Se cuentan tambien las operaciones de los productos calientes para saber si siguen siendolo.
+     */
+    private StockLease registrarOperacion(Integer id) {
+        LongAdder contador = operaciones.get(id);
+        if (contador == null) {
+            contador = operaciones.computeIfAbsent(id, k -> new LongAdder());
+        }
+        contador.increment();
+        return calientes.get(id);
+    }
+
+    /**
+     * Descuenta de la base de datos un bloque de hasta tamanoLease unidades, limitado por la cantidad que conoce
+     * el indice para que el primer UPDATE no falle por pedir más de lo que hay. Si aun asi no alcanza
+     * (otra instancia reservo) intenta solo con lo que falta.
+     */
+    private int arrendar(Integer id, int faltante) {
+        Integer conocida = productoSearchIndex.cantidad(id);
+        int bloque = Math.max(faltante, conocida == null ? tamanoLease : Math.min(tamanoLease, conocida));
+        if (descontar(id, bloque)) {
+            return bloque;
+        }
+        if (bloque > faltante && descontar(id, faltante)) {
+            return faltante;
+        }
+        return 0;
+    }
+
+    private void devolverSobrante(Integer id, StockLease lease) {
+        int sobrante = lease.drenar();
+        if (sobrante == 0) {
+            return;
+        }
+        try {
+            if (!devolver(id, sobrante)) {
+                log.warn("No se pudieron devolver {} unidades al producto {}, ya no existe", sobrante, id);
+            }
+        } catch (RuntimeException e) {
+            reintentarDevolucion(id, sobrante);
+            log.warn("No se pudo devolver el stock en memoria del producto {}: {}", id, e.getMessage());
+        }
+    }
+
+    private void devolverCerrado(Integer id, StockLease lease) {
+        int sobrante = lease.cerrar();
+        if (sobrante == 0) {
+            return;
+        }
+        try {
+            if (!devolver(id, sobrante)) {
+                log.warn("No se pudieron devolver {} unidades al producto {}, ya no existe", sobrante, id);
+            }
+        } catch (RuntimeException e) {
+            reintentarDevolucion(id, sobrante);
+            log.warn("No se pudo devolver el stock en memoria del producto {}: {}", id, e.getMessage());
+        }
+    }
+
+    /**
+     * El stock vuelve a un contador abierto del producto (uno nuevo si el anterior se cerró)
+     * y se devuelve en la siguiente consolidación.
+     */
+    private void reintentarDevolucion(Integer id, int cantidad) {
+        calientes.computeIfAbsent(id, k -> new StockLease(franjas)).devolver(cantidad);
+    }
+
+    private boolean descontar(Integer id, int cantidad) {
+        return ajustar(id, -cantidad, () -> iProductoRepository.reservar(id, cantidad));
+    }
+
+    private boolean devolver(Integer id, int cantidad) {
+        return ajustar(id, cantidad, () -> iProductoRepository.liberar(id, cantidad));
+    }
+
+    /**
+     * La cantidad es parte del catalogo: el UPDATE y su evento se confirman juntos, y despues el cambio
+     * invalida los ETag entregados y se aplica a las copias en memoria.
+     */
+    private boolean ajustar(Integer id, int diferencia, IntSupplier update) {
+        boolean actualizado = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            if (update.getAsInt() == 0) {
+                return false;
+            }
+            cambioCatalogoService.registrarAjusteStock(id, diferencia);
+            return true;
+        }));
+        if (!actualizado) {
+            return false;
+        }
+        productoSearchIndex.ajustarCantidad(id, diferencia);
+        catalogoColumnar.ajustarCantidad(id, diferencia);
+        respuestasProductoCache.invalidar(id);
+        Cache productos = cacheManager.getCache(CacheConfig.PRODUCTOS);
+        if (productos != null) {
+            productos.clear();
+        }
+        catalogoVersionService.incrementar();
+        return true;
+    }
+
+    private void validarExiste(Integer id) {
+        if (!iProductoRepository.existsById(id)) {
+            throw new RecursoNoEncontradoException("El producto con id: " + id + " no existe.");
+        }
+    }
+}
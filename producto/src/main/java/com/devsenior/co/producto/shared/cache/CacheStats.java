@@ -0,0 +1,12 @@
+package com.devsenior.co.producto.shared.cache;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record CacheStats(long aciertos, long fallos, long desalojos, int entradas, int maxEntradas) {
+
+    @JsonProperty
+    public double tasaAciertos() {
+        long total = aciertos + fallos;
+        return total == 0 ? 0.0 : (double) aciertos / total;
+    }
+}
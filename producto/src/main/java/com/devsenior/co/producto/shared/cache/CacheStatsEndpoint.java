@@ -0,0 +1,39 @@
+package com.devsenior.co.producto.shared.cache;
+
+import com.devsenior.co.producto.shared.config.JwtAuthConverter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Expone las estadisticas de las caches en /actuator/cachestats
+ */
+@Component
+@Endpoint(id = "cachestats")
+public class CacheStatsEndpoint {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private JwtAuthConverter jwtAuthConverter;
+
+    @ReadOperation
+    public Map<String, CacheStats> stats() {
+        Map<String, CacheStats> stats = new TreeMap<>();
+        for (String nombre : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(nombre);
+            if (cache instanceof TieredCache tieredCache) {
+                stats.put(nombre, tieredCache.getStats());
+            }
+        }
+        stats.put("jwt", jwtAuthConverter.getStats());
+        return stats;
+    }
+}
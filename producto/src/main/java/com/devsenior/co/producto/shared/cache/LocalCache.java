@@ -0,0 +1,127 @@
+package com.devsenior.co.producto.shared.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache en memoria acotada por cantidad de entradas (LRU) y por tiempo de vida (TTL).
+ * Lleva estadisticas de aciertos, fallos y desalojos.
+ */
+public class LocalCache<K, V> {
+
+    private final int maxEntradas;
+    private final long ttlNanos;
+    private final LongSupplier reloj;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<K, Entrada<V>> entradas;
+
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final LongAdder desalojos = new LongAdder();
+
+    public LocalCache(int maxEntradas, Duration ttl) {
+        this(maxEntradas, ttl, System::nanoTime);
+    }
+
+    public LocalCache(int maxEntradas, Duration ttl, LongSupplier reloj) {
+        if (maxEntradas <= 0) {
+            throw new IllegalArgumentException("maxEntradas debe ser mayor a 0");
+        }
+        this.maxEntradas = maxEntradas;
+        this.ttlNanos = ttl.toNanos();
+        this.reloj = reloj;
+        // accessOrder = true: el recorrido va del menos usado al más usado recientemente
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entrada<V>> eldest) {
+                if (size() > LocalCache.this.maxEntradas) {
+                    desalojos.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public V get(K key) {
+        lock.lock();
+        try {
+            Entrada<V> entrada = entradas.get(key);
+            if (entrada == null) {
+                fallos.increment();
+                return null;
+            }
+            if (entrada.expiraEn() - reloj.getAsLong() <= 0) {
+                entradas.remove(key);
+                desalojos.increment();
+                fallos.increment();
+                return null;
+            }
+            aciertos.increment();
+            return entrada.valor();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void put(K key, V valor) {
+        put(key, valor, ttlNanos);
+    }
+
+    /**
+     * Guarda el valor con un tiempo de vida propio, nunca mayor al TTL de la cache.
+     */
+    public void put(K key, V valor, Duration ttl) {
+        put(key, valor, Math.min(ttl.toNanos(), ttlNanos));
+    }
+
+    private void put(K key, V valor, long ttlEntradaNanos) {
+        if (ttlEntradaNanos <= 0) {
+            return;
+        }
+        lock.lock();
+        try {
+            entradas.put(key, new Entrada<>(valor, reloj.getAsLong() + ttlEntradaNanos));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void remove(K key) {
+        lock.lock();
+        try {
+            entradas.remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            entradas.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entradas.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(aciertos.sum(), fallos.sum(), desalojos.sum(), size(), maxEntradas);
+    }
+
+    private record Entrada<V>(V valor, long expiraEn) {
+    }
+}
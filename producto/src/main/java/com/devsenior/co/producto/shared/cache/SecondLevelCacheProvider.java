@@ -0,0 +1,18 @@
+package com.devsenior.co.producto.shared.cache;
+
+import java.util.Optional;
+
+/**
+ * Punto de extensión para una cache de segundo nivel compartida entre instancias (por ejemplo Redis).
+ * Si existe un bean que implemente esta interfaz, las caches lo consultan cuando no encuentran el valor en memoria.
+ */
+public interface SecondLevelCacheProvider {
+
+    Optional<Object> get(String cacheName, Object key);
+
+    void put(String cacheName, Object key, Object value);
+
+    void evict(String cacheName, Object key);
+
+    void clear(String cacheName);
+}
@@ -0,0 +1,91 @@
+package com.devsenior.co.producto.shared.cache;
+
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Implementación de Cache de Spring con un primer nivel en memoria (LocalCache)
+ * y un segundo nivel opcional (SecondLevelCacheProvider).
+ */
+public class TieredCache extends AbstractValueAdaptingCache {
+
+    private final String name;
+    private final LocalCache<Object, Object> local;
+    private final SecondLevelCacheProvider secondLevel;
+
+    public TieredCache(String name, LocalCache<Object, Object> local, SecondLevelCacheProvider secondLevel) {
+        super(true);
+        this.name = name;
+        this.local = local;
+        this.secondLevel = secondLevel;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    public CacheStats getStats() {
+        return local.stats();
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        Object valor = local.get(key);
+        if (valor != null || secondLevel == null) {
+            return valor;
+        }
+        valor = secondLevel.get(name, key).orElse(null);
+        if (valor != null) {
+            local.put(key, valor);
+        }
+        return valor;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object valor = lookup(key);
+        if (valor != null) {
+            return (T) fromStoreValue(valor);
+        }
+        try {
+            T cargado = valueLoader.call();
+            put(key, cargado);
+            return cargado;
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        Object valor = toStoreValue(value);
+        local.put(key, valor);
+        if (secondLevel != null) {
+            secondLevel.put(name, key, valor);
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        local.remove(key);
+        if (secondLevel != null) {
+            secondLevel.evict(name, key);
+        }
+    }
+
+    @Override
+    public void clear() {
+        local.clear();
+        if (secondLevel != null) {
+            secondLevel.clear(name);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.devsenior.co.producto.shared.config;
+
+import com.devsenior.co.producto.service.CambiosStreamService;
+import com.devsenior.co.producto.service.CatalogoVersionService;
+import com.devsenior.co.producto.service.ProductoSearchIndex;
+import com.devsenior.co.producto.service.RelayCambiosService;
+import com.devsenior.co.producto.service.StockReservaService;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.web.SecurityFilterChain;
+
+import javax.sql.DataSource;
+
+/**
+ * Con spring.main.lazy-initialization (perfil prod) los beans se crean en su primer uso.
+ * Estos se crean al arrancar para que la primera petición no pague Hibernate ni la cadena de seguridad,
+ * para que el indice de busqueda y las tareas programadas queden activos desde el inicio, y para que producto_seq
+ * se ajuste antes del primer INSERT.
+ */
+@Configuration
+public class ArranqueConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter beansCriticos() {
+        return LazyInitializationExcludeFilter.forBeanTypes(DataSource.class, SecurityFilterChain.class,
+                ProductoSearchIndex.class, StockReservaService.class, CatalogoVersionService.class,
+                RelayCambiosService.class, CambiosStreamService.class, SecuenciaProductoInicializador.class);
+    }
+}
@@ -0,0 +1,40 @@
+package com.devsenior.co.producto.shared.config;
+
+import com.devsenior.co.producto.shared.cache.LocalCache;
+import com.devsenior.co.producto.shared.cache.SecondLevelCacheProvider;
+import com.devsenior.co.producto.shared.cache.TieredCache;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+// Por fuera de @Transactional: la cache se invalida despues del commit y una lectura concurrente no la vuelve a llenar con datos viejos
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class CacheConfig {
+
+    public static final String PRODUCTOS = "productos";
+    public static final String CATEGORIAS = "categorias";
+
+    /**
+     * Caches de lectura para el catalogo. El segundo nivel solo se usa si existe un bean SecondLevelCacheProvider.
+     */
+    @Bean
+    public CacheManager cacheManager(ObjectProvider<SecondLevelCacheProvider> secondLevelProvider,
+                                     @Value("${app.cache.max-entradas:1000}") int maxEntradas,
+                                     @Value("${app.cache.ttl:5m}") Duration ttl) {
+        SecondLevelCacheProvider secondLevel = secondLevelProvider.getIfAvailable();
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(
+                new TieredCache(PRODUCTOS, new LocalCache<>(maxEntradas, ttl), secondLevel),
+                new TieredCache(CATEGORIAS, new LocalCache<>(maxEntradas, ttl), secondLevel)));
+        return cacheManager;
+    }
+}
@@ -0,0 +1,25 @@
+package com.devsenior.co.producto.shared.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.openfeign.support.FeignHttpMessageConverters;
+import org.springframework.cloud.openfeign.support.HttpMessageConverterCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+
+@Configuration
+public class FeignConfig {
+
+    /**
+     * Reemplaza al de FeignClientsConfiguration. En spring-cloud-openfeign 5.0.0 la lista de convertidores se arma
+     * en la primera respuesta sin sincronizar: las peticiones concurrentes del arranque la ven vacia, fallan con
+     * "'messageConverters' must not be empty" y abren el circuit breaker de posts. Aqui se arma una sola vez al crear el bean.
+     */
+    @Bean
+    public FeignHttpMessageConverters feignHttpMessageConverters(ObjectProvider<HttpMessageConverter<?>> messageConverters,
+                                                                 ObjectProvider<HttpMessageConverterCustomizer> customizers) {
+        FeignHttpMessageConverters converters = new FeignHttpMessageConverters(messageConverters, customizers);
+        converters.getConverters();
+        return converters;
+    }
+}
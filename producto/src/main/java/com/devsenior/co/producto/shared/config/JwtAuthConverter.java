@@ -1,32 +1,137 @@
 package com.devsenior.co.producto.shared.config;
 
+import com.devsenior.co.producto.shared.cache.CacheStats;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
  * Convierte el JWT de Keycloak extrayendo los roles de realm_access.roles
- * y los convierte en autoridades de Spring Security con el prefijo ROLE_
+ * y los convierte en autoridades de Spring Security con el prefijo ROLE_.
+ * Las autoridades de cada token se guardan en cache hasta que el token expira, ya que los clientes
+ * reutilizan el mismo token en muchas peticiones. La cache se consulta en cada petición autenticada: es un
+ * ConcurrentHashMap sin bloqueos, y al llegar a maxTokens se quitan los tokens vencidos (a lo sumo una vez por
+ * segundo); si aun asi no hay lugar, las autoridades de los tokens nuevos se calculan sin guardarse.
  */
 public class JwtAuthConverter implements Converter<Jwt, Collection<GrantedAuthority>> {
 
     private final JwtGrantedAuthoritiesConverter jwtGrantedAuthoritiesConverter = new JwtGrantedAuthoritiesConverter();
 
+    private static final long SIN_LIMPIEZA = Long.MIN_VALUE;
+    private static final long LIMPIEZA_MINIMA_NANOS = 1_000_000_000L;
+
+    private final ConcurrentHashMap<String, Entrada> cache = new ConcurrentHashMap<>();
+    private final int maxTokens;
+    private final long ttlMaximoNanos;
+    private final LongSupplier reloj;
+    private final AtomicLong ultimaLimpieza = new AtomicLong(SIN_LIMPIEZA);
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final LongAdder desalojos = new LongAdder();
+
+    // Los roles se repiten entre usuarios, se comparte una sola instancia por rol
+    private final Map<String, GrantedAuthority> roles = new ConcurrentHashMap<>();
+
+    public JwtAuthConverter() {
+        this(10_000, Duration.ofMinutes(10));
+    }
+
+    public JwtAuthConverter(int maxTokens, Duration ttlMaximo) {
+        this(maxTokens, ttlMaximo, System::nanoTime);
+    }
+
+    JwtAuthConverter(int maxTokens, Duration ttlMaximo, LongSupplier reloj) {
+        this.maxTokens = maxTokens;
+        this.ttlMaximoNanos = ttlMaximo.toNanos();
+        this.reloj = reloj;
+    }
+
     @Override
     public Collection<GrantedAuthority> convert(Jwt jwt) {
+        String llave = jwt.getId() != null ? jwt.getId() : hash(jwt.getTokenValue());
+        long ahora = reloj.getAsLong();
+        Entrada entrada = cache.get(llave);
+        if (entrada != null) {
+            if (entrada.expira() - ahora > 0) {
+                aciertos.increment();
+                return entrada.authorities();
+            }
+            cache.remove(llave, entrada);
+        }
+        fallos.increment();
+
         // Combinar las autoridades por defecto del JWT con los roles extraídos de realm_access
-        return Stream.concat(
+        Collection<GrantedAuthority> authorities = Set.copyOf(Stream.concat(
                 jwtGrantedAuthoritiesConverter.convert(jwt).stream(),
                 extractResourceRoles(jwt).stream()
-        ).collect(Collectors.toSet());
+        ).collect(Collectors.toSet()));
+
+        Instant expiresAt = jwt.getExpiresAt();
+        long ttl = expiresAt == null ? ttlMaximoNanos
+                : Math.min(Duration.between(Instant.now(), expiresAt).toNanos(), ttlMaximoNanos);
+        if (ttl > 0) {
+            guardar(llave, new Entrada(authorities, ahora + ttl), ahora);
+        }
+        return authorities;
+    }
+
+    private void guardar(String llave, Entrada entrada, long ahora) {
+        if (cache.size() >= maxTokens) {
+            limpiarSiLleno(ahora);
+            if (cache.size() >= maxTokens) {
+                return;
+            }
+        }
+        cache.put(llave, entrada);
+    }
+
+    private void limpiarSiLleno(long ahora) {
+        long ultima = ultimaLimpieza.get();
+        if ((ultima == SIN_LIMPIEZA || ahora - ultima >= LIMPIEZA_MINIMA_NANOS)
+                && ultimaLimpieza.compareAndSet(ultima, ahora)) {
+            cache.values().removeIf(entrada -> {
+                boolean vencida = entrada.expira() - ahora <= 0;
+                if (vencida) {
+                    desalojos.increment();
+                }
+                return vencida;
+            });
+        }
+    }
+
+    /**
+     * Sin jti la llave es el SHA-256 del token: la cache no conserva tokens completos en memoria.
+     */
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public CacheStats getStats() {
+        return new CacheStats(aciertos.sum(), fallos.sum(), desalojos.sum(), cache.size(), maxTokens);
     }
 
     /**
@@ -48,7 +153,9 @@ public class JwtAuthConverter implements Converter<Jwt, Collection<GrantedAuthor
 
         // Convertir los roles a autoridades con el prefijo ROLE_ para que funcionen con hasRole()
         return roles.stream()
-                .map(role -> new SimpleGrantedAuthority("ROLE_" + role)).toList();
+                .map(role -> this.roles.computeIfAbsent(role, r -> new SimpleGrantedAuthority("ROLE_" + r))).toList();
     }
-}
 
+    private record Entrada(Collection<GrantedAuthority> authorities, long expira) {
+    }
+}
@@ -0,0 +1,70 @@
+package com.devsenior.co.producto.shared.config;
+
+import com.devsenior.co.producto.shared.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Solo aplica cuando se configura app.datasource.replica.jdbc-url. Crea dos pools de Hikari con tamaños
+ * independientes: el de la primaria con spring.datasource.hikari y el de la replica con app.datasource.replica.
+ * Los métodos @Transactional(readOnly = true) leen de la replica, las escrituras van a la primaria.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.replica", name = "jdbc-url")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primariaDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primaria");
+        return dataSource;
+    }
+
+    /**
+     * Usuario, contraseña y driver se toman de spring.datasource salvo que la replica los defina.
+     */
+    @Bean
+    @ConfigurationProperties("app.datasource.replica")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setUsername(properties.determineUsername());
+        dataSource.setPassword(properties.determinePassword());
+        dataSource.setDriverClassName(properties.determineDriverClassName());
+        // Un error de escritura en la replica se detecta de inmediato en lugar de fallar en el servidor
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primariaDataSource") DataSource primaria,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 @Value("${app.datasource.replica.lectura-propia:0s}") Duration lecturaPropia) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primaria, replica, lecturaPropia,
+                ReplicaDataSourceConfig::clienteActual));
+    }
+
+    /**
+     * La ventana de lectura propia es por sujeto del JWT de la petición en curso.
+     */
+    private static String clienteActual() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication instanceof JwtAuthenticationToken jwt ? jwt.getName() : null;
+    }
+}
@@ -0,0 +1,27 @@
+package com.devsenior.co.producto.shared.config;
+
+import com.devsenior.co.producto.repository.IProductoRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Con ddl-auto: update, sobre una base de datos existente Hibernate crea producto_seq desde 1 y los INSERT
+ * chocarian con los ids que ya tiene la tabla. Al arrancar, antes de atender peticiones, la secuencia se
+ * adelanta hasta el id mayor; si ya esta por encima no se modifica.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "spring.jpa.database", havingValue = "postgresql")
+public class SecuenciaProductoInicializador {
+
+    @Autowired
+    private IProductoRepository iProductoRepository;
+
+    @PostConstruct
+    void ajustar() {
+        log.info("Secuencia producto_seq en {}", iProductoRepository.ajustarSecuencia());
+    }
+}
@@ -1,5 +1,11 @@
 package com.devsenior.co.producto.shared.config;
 
+import com.devsenior.co.producto.shared.limites.LimitadorSolicitudes;
+import com.devsenior.co.producto.shared.limites.LimiteSolicitudesFilter;
+import com.devsenior.co.producto.shared.limites.LimitesProperties;
+import com.devsenior.co.producto.shared.limites.MonitorCarga;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -9,15 +15,20 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.web.authentication.BearerTokenAuthenticationFilter;
 import org.springframework.security.web.SecurityFilterChain;
+import tools.jackson.databind.ObjectMapper;
 
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
+@EnableConfigurationProperties(LimitesProperties.class)
 public class SecurityConfig {
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, LimitadorSolicitudes limitador,
+                                                   MonitorCarga monitorCarga, MeterRegistry meterRegistry,
+                                                   ObjectMapper objectMapper) {
         http
                 // Deshabilitar CSRF para APIs REST stateless
                 .csrf(AbstractHttpConfigurer::disable)
@@ -47,6 +58,10 @@ public class SecurityConfig {
                                 .jwtAuthenticationConverter(jwtAuthenticationConverter())
                         ))
 
+                // Cuotas por cliente y rechazo por sobrecarga, despues de validar el token para conocer el sujeto
+                .addFilterAfter(new LimiteSolicitudesFilter(limitador, monitorCarga, meterRegistry, objectMapper),
+                        BearerTokenAuthenticationFilter.class)
+
                 // Sin estado (stateless) para APIs REST
                 .sessionManagement(session ->
                         session.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
@@ -60,7 +75,12 @@ public class SecurityConfig {
     @Bean
     public JwtAuthenticationConverter jwtAuthenticationConverter() {
         JwtAuthenticationConverter jwtAuthenticationConverter = new JwtAuthenticationConverter();
-        jwtAuthenticationConverter.setJwtGrantedAuthoritiesConverter(new JwtAuthConverter());
+        jwtAuthenticationConverter.setJwtGrantedAuthoritiesConverter(jwtAuthConverter());
         return jwtAuthenticationConverter;
     }
+
+    @Bean
+    public JwtAuthConverter jwtAuthConverter() {
+        return new JwtAuthConverter();
+    }
 }
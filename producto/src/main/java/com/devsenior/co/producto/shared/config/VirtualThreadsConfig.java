@@ -0,0 +1,35 @@
+package com.devsenior.co.producto.shared.config;
+
+import com.devsenior.co.producto.shared.datasource.ConnectionLimitingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuración que solo aplica con spring.threads.virtual.enabled=true.
+ * Spring Boot ya ejecuta las peticiones de Tomcat y el applicationTaskExecutor en hilos virtuales;
+ * aqui se protege el pool de Hikari para que los hilos virtuales no lo agoten.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadsConfig {
+
+    @Bean
+    public static BeanPostProcessor connectionLimitingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari) {
+                    return new ConnectionLimitingDataSource(hikari, hikari.getMaximumPoolSize(),
+                            Duration.ofMillis(hikari.getConnectionTimeout()));
+                }
+                return bean;
+            }
+        };
+    }
+}
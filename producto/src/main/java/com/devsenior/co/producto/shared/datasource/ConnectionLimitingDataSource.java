@@ -0,0 +1,89 @@
+package com.devsenior.co.producto.shared.datasource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Limita las conexiones pedidas al pool con un semaforo justo del mismo tamaño del pool.
+ * Con hilos virtuales pueden existir miles de peticiones simultaneas: en lugar de que todas compitan dentro
+ * del pool, esperan en orden en el semaforo y fallan rápido si no obtienen un cupo en el tiempo configurado.
+ */
+public class ConnectionLimitingDataSource extends DelegatingDataSource {
+
+    private final Semaphore permisos;
+    private final long esperaMaximaNanos;
+
+    public ConnectionLimitingDataSource(DataSource dataSource, int maxConexiones, Duration esperaMaxima) {
+        super(dataSource);
+        this.permisos = new Semaphore(maxConexiones, true);
+        this.esperaMaximaNanos = esperaMaxima.toNanos();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        adquirirPermiso();
+        try {
+            return liberarAlCerrar(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permisos.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        adquirirPermiso();
+        try {
+            return liberarAlCerrar(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permisos.release();
+            throw e;
+        }
+    }
+
+    public int getHilosEsperando() {
+        return permisos.getQueueLength();
+    }
+
+    private void adquirirPermiso() throws SQLException {
+        try {
+            if (!permisos.tryAcquire(esperaMaximaNanos, TimeUnit.NANOSECONDS)) {
+                throw new SQLTransientConnectionException("No hay conexiones disponibles, "
+                        + permisos.getQueueLength() + " hilos esperando");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrumpido esperando una conexión", e);
+        }
+    }
+
+    private Connection liberarAlCerrar(Connection connection) {
+        AtomicBoolean cerrada = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && cerrada.compareAndSet(false, true)) {
+                        try {
+                            connection.close();
+                        } finally {
+                            permisos.release();
+                        }
+                        return null;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
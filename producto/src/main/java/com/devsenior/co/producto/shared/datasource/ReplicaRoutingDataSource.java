@@ -0,0 +1,85 @@
+package com.devsenior.co.producto.shared.datasource;
+
+import com.devsenior.co.producto.shared.transaction.AlConfirmar;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Envía las transacciones de solo lectura a la replica y todo lo demás a la base de datos primaria.
+ * Debe usarse detrás de un LazyConnectionDataSourceProxy: la conexión se pide con la primera sentencia,
+ * cuando la transacción ya marcó si es de solo lectura.
+ * Despues de confirmar una escritura, durante la ventana de lectura propia las lecturas del mismo cliente
+ * también van a la primaria, para que no lea de una replica que todavia no recibió su cambio. Los demás clientes
+ * siguen leyendo de la replica y pueden ver el cambio con el retraso de la replicación. Las escrituras sin
+ * cliente (tareas programadas, escritura asincrona) no abren la ventana.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Destino {
+        PRIMARIA,
+        REPLICA
+    }
+
+    // Al llegar a este tamaño se quitan los clientes con la ventana vencida
+    private static final int MAX_CLIENTES = 10_000;
+
+    private final long ventanaNanos;
+    private final Supplier<String> cliente;
+    private final Map<String, Long> ultimaEscritura = new ConcurrentHashMap<>();
+
+    /**
+     * @param cliente identifica al cliente del hilo actual, o retorna null si no hay uno
+     */
+    public ReplicaRoutingDataSource(DataSource primaria, DataSource replica, Duration lecturaPropia,
+                                    Supplier<String> cliente) {
+        this.ventanaNanos = lecturaPropia.toNanos();
+        this.cliente = cliente;
+        setTargetDataSources(Map.of(Destino.PRIMARIA, primaria, Destino.REPLICA, replica));
+        setDefaultTargetDataSource(primaria);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return destinoActual();
+    }
+
+    public Destino destinoActual() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return Destino.PRIMARIA;
+        }
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return dentroDeLaVentana() ? Destino.PRIMARIA : Destino.REPLICA;
+        }
+        if (ventanaNanos > 0) {
+            String id = cliente.get();
+            if (id != null) {
+                AlConfirmar.ejecutar(() -> registrarEscritura(id));
+            }
+        }
+        return Destino.PRIMARIA;
+    }
+
+    private void registrarEscritura(String id) {
+        long ahora = System.nanoTime();
+        if (ultimaEscritura.size() >= MAX_CLIENTES) {
+            ultimaEscritura.values().removeIf(escritura -> ahora - escritura >= ventanaNanos);
+        }
+        ultimaEscritura.put(id, ahora);
+    }
+
+    private boolean dentroDeLaVentana() {
+        if (ultimaEscritura.isEmpty()) {
+            return false;
+        }
+        String id = cliente.get();
+        Long escritura = id == null ? null : ultimaEscritura.get(id);
+        return escritura != null && System.nanoTime() - escritura < ventanaNanos;
+    }
+}
@@ -2,17 +2,34 @@ package com.devsenior.co.producto.shared.exceptions;
 
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import org.springframework.http.HttpStatus;
 
 import java.util.Date;
 
+/**
+ * Base de los errores esperados del negocio (no existe, solicitud invalida, sin stock). Son parte del flujo normal
+ * y GlobalExceptionHandler los convierte en la respuesta con su estado, por eso no capturan el stack trace:
+ * llenarlo era la mayor parte del costo de un 404. Las subclases no guardan la fecha, el handler toma la hora
+ * al responder.
+ */
 @EqualsAndHashCode(callSuper = true)
 @Data
 public class CustomException extends RuntimeException {
 
     private final Date date;
+    private final HttpStatus status;
 
     public CustomException(String message, Date date) {
-        super(message);
+        this(message, date, HttpStatus.NOT_FOUND);
+    }
+
+    protected CustomException(String message, HttpStatus status) {
+        this(message, null, status);
+    }
+
+    private CustomException(String message, Date date, HttpStatus status) {
+        super(message, null, false, false);
         this.date = date;
+        this.status = status;
     }
-}
\ No newline at end of file
+}
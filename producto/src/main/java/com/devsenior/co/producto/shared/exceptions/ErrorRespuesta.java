@@ -0,0 +1,18 @@
+package com.devsenior.co.producto.shared.exceptions;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Cuerpo de las respuestas de error. errors solo se incluye en los errores de validación, con el mensaje por campo.
+ * El timestamp es un Instant en milisegundos: se escribe igual que el Date anterior y cuesta menos de serializar.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ErrorRespuesta(int status, String error, Instant timestamp, Map<String, String> errors) {
+
+    public ErrorRespuesta(int status, String error, Instant timestamp) {
+        this(status, error, timestamp, null);
+    }
+}
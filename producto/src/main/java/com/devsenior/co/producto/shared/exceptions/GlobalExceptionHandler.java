@@ -1,29 +1,52 @@
 package com.devsenior.co.producto.shared.exceptions;
 
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectWriter;
 
-import java.util.Date;
+import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Convierte las excepciones en la respuesta de error. El cuerpo se serializa aqui con un writer creado una vez
+ * para ErrorRespuesta, y cada tipo de excepción y estado tiene su contador en app.errores.
+ */
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private final ObjectWriter writer;
+    private final MeterRegistry meterRegistry;
+    private final Map<ClaveContador, Counter> contadores = new ConcurrentHashMap<>();
+
+    public GlobalExceptionHandler(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.writer = objectMapper.writerFor(ErrorRespuesta.class);
+        this.meterRegistry = meterRegistry;
+    }
+
     @ExceptionHandler(CustomException.class)
-    public ResponseEntity<Map<String, Object>> handleException(CustomException ex) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("error", ex.getMessage());
-        response.put("timestamp", ex.getDate());
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+    public ResponseEntity<byte[]> handleException(CustomException ex) {
+        return responder(ex, ex.getStatus(), ex.getMessage(), ex.getDate() == null ? ahora() : ex.getDate().toInstant());
+    }
+
+    @ExceptionHandler({CallNotPermittedException.class, BulkheadFullException.class})
+    public ResponseEntity<byte[]> handleServicioExternoNoDisponible(RuntimeException ex) {
+        return responder(ex, HttpStatus.SERVICE_UNAVAILABLE, "El servicio externo no esta disponible: " + ex.getMessage(), ahora());
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
-    public ResponseEntity<Map<String, Object>> handleValidationExceptions(MethodArgumentNotValidException ex) {
+    public ResponseEntity<byte[]> handleValidationExceptions(MethodArgumentNotValidException ex) {
         Map<String, String> errors = new HashMap<>();
 
         ex.getBindingResult().getAllErrors().forEach((error) -> {
@@ -32,13 +55,42 @@ public class GlobalExceptionHandler {
             errors.put(fieldName, errorMessage);
         });
 
-        Map<String, Object> response = new HashMap<>();
-        response.put("status", HttpStatus.BAD_REQUEST.value());
-        response.put("error", "Error de validación");
-        response.put("timestamp", new Date());
-        response.put("errors", errors);
+        contar(ex, HttpStatus.BAD_REQUEST);
+        return escribir(HttpStatus.BAD_REQUEST,
+                new ErrorRespuesta(HttpStatus.BAD_REQUEST.value(), "Error de validación", ahora(), errors));
+    }
+
+    private ResponseEntity<byte[]> responder(Exception ex, HttpStatus status, String mensaje, Instant fecha) {
+        contar(ex, status);
+        return escribir(status, new ErrorRespuesta(status.value(), mensaje, fecha));
+    }
+
+    private ResponseEntity<byte[]> escribir(HttpStatus status, ErrorRespuesta respuesta) {
+        // Con el Content-Type fijo el cuerpo se escribe tal cual, sin negociar el convertidor por petición
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(writer.writeValueAsBytes(respuesta));
+    }
+
+    private static Instant ahora() {
+        return Instant.ofEpochMilli(System.currentTimeMillis());
+    }
+
+    private void contar(Exception ex, HttpStatus status) {
+        ClaveContador clave = new ClaveContador(ex.getClass(), status);
+        Counter contador = contadores.get(clave);
+        if (contador == null) {
+            contador = contadores.computeIfAbsent(clave, c -> Counter.builder("app.errores")
+                    .description("Respuestas de error por tipo de excepción")
+                    .tag("tipo", c.tipo().getSimpleName())
+                    .tag("status", String.valueOf(c.status().value()))
+                    .register(meterRegistry));
+        }
+        contador.increment();
+    }
 
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+    // CustomException y sus subclases pueden responder con distintos estados
+    private record ClaveContador(Class<?> tipo, HttpStatus status) {
     }
 
 //    @ExceptionHandler(MethodArgumentNotValidException.class)
@@ -0,0 +1,10 @@
+package com.devsenior.co.producto.shared.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+public class RecursoNoEncontradoException extends CustomException {
+
+    public RecursoNoEncontradoException(String message) {
+        super(message, HttpStatus.NOT_FOUND);
+    }
+}
@@ -0,0 +1,10 @@
+package com.devsenior.co.producto.shared.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+public class ServicioNoDisponibleException extends CustomException {
+
+    public ServicioNoDisponibleException(String message) {
+        super(message, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+}
@@ -0,0 +1,10 @@
+package com.devsenior.co.producto.shared.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+public class SolicitudInvalidaException extends CustomException {
+
+    public SolicitudInvalidaException(String message) {
+        super(message, HttpStatus.BAD_REQUEST);
+    }
+}
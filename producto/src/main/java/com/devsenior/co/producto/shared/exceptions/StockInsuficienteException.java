@@ -0,0 +1,10 @@
+package com.devsenior.co.producto.shared.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+public class StockInsuficienteException extends CustomException {
+
+    public StockInsuficienteException(String message) {
+        super(message, HttpStatus.CONFLICT);
+    }
+}
@@ -0,0 +1,87 @@
+package com.devsenior.co.producto.shared.limites;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket implementado como GCRA (generic cell rate algorithm): por cliente solo se guarda el instante
+ * teorico de llegada (TAT) de la siguiente petición en un AtomicLong, que se actualiza con compareAndSet.
+ * No hay bloqueos ni un hilo que recargue los tokens; un cliente inactivo queda con el cupo completo.
+ * Con maxClientes registrados se quitan primero los que ya recuperaron el cupo (a lo sumo una vez por segundo);
+ * si aun asi no hay lugar, los clientes nuevos comparten un solo contador hasta que se libere espacio.
+ */
+public class CuotaGcra {
+
+    private static final String DESBORDAMIENTO = "";
+    private static final long SIN_LIMPIEZA = Long.MIN_VALUE;
+    private static final long LIMPIEZA_MINIMA_NANOS = 1_000_000_000L;
+
+    private final String ruta;
+    private final long intervaloNanos;
+    private final long toleranciaNanos;
+    private final int maxClientes;
+    private final ConcurrentHashMap<String, AtomicLong> clientes = new ConcurrentHashMap<>();
+    private final AtomicLong ultimaLimpieza = new AtomicLong(SIN_LIMPIEZA);
+
+    public CuotaGcra(String ruta, double porSegundo, int rafaga, int maxClientes) {
+        if (porSegundo <= 0 || rafaga < 1) {
+            throw new IllegalArgumentException("La cuota de " + ruta + " debe permitir al menos una petición");
+        }
+        this.ruta = ruta;
+        this.intervaloNanos = (long) (1_000_000_000L / porSegundo);
+        this.toleranciaNanos = intervaloNanos * (rafaga - 1);
+        this.maxClientes = maxClientes;
+    }
+
+    /**
+     * Retorna 0 si la petición se permite o los nanosegundos que el cliente debe esperar para la siguiente.
+     */
+    public long intentar(String cliente, long ahoraNanos) {
+        AtomicLong tat = clientes.get(cliente);
+        if (tat == null) {
+            if (clientes.size() >= maxClientes) {
+                limpiarSiLleno(ahoraNanos);
+            }
+            String clave = clientes.size() < maxClientes ? cliente : DESBORDAMIENTO;
+            tat = clientes.computeIfAbsent(clave, c -> new AtomicLong(ahoraNanos));
+        }
+        while (true) {
+            long actual = tat.get();
+            long inicio = actual - ahoraNanos > 0 ? actual : ahoraNanos;
+            long espera = inicio - ahoraNanos - toleranciaNanos;
+            if (espera > 0) {
+                return espera;
+            }
+            if (tat.compareAndSet(actual, inicio + intervaloNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    public boolean aplica(String path) {
+        return path.startsWith(ruta) && (path.length() == ruta.length() || path.charAt(ruta.length()) == '/');
+    }
+
+    /**
+     * Quita los clientes que ya recuperaron todo su cupo, para ellos es igual que no tener registro.
+     */
+    public void limpiar(long ahoraNanos) {
+        clientes.values().removeIf(tat -> tat.get() - ahoraNanos <= 0);
+    }
+
+    private void limpiarSiLleno(long ahoraNanos) {
+        long ultima = ultimaLimpieza.get();
+        if ((ultima == SIN_LIMPIEZA || ahoraNanos - ultima >= LIMPIEZA_MINIMA_NANOS)
+                && ultimaLimpieza.compareAndSet(ultima, ahoraNanos)) {
+            limpiar(ahoraNanos);
+        }
+    }
+
+    public String getRuta() {
+        return ruta;
+    }
+
+    int getClientes() {
+        return clientes.size();
+    }
+}
@@ -0,0 +1,60 @@
+package com.devsenior.co.producto.shared.limites;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Cuotas por ruta configuradas en app.limites.cuotas. Cada cliente (sujeto del JWT o IP) tiene su propio
+ * contador en cada cuota. Las rutas sin cuota no se limitan.
+ */
+@Component
+public class LimitadorSolicitudes {
+
+    private final List<CuotaGcra> cuotas;
+    private final Counter[] rechazos;
+    private final boolean habilitado;
+
+    public LimitadorSolicitudes(LimitesProperties properties, MeterRegistry meterRegistry) {
+        this.habilitado = properties.isHabilitado();
+        this.cuotas = properties.getCuotas().stream()
+                .map(cuota -> new CuotaGcra(cuota.getRuta(), cuota.getPorSegundo(), cuota.getRafaga(), properties.getMaxClientes()))
+                .toList();
+        // Los contadores se crean al iniciar para no buscarlos en el registro en cada rechazo
+        this.rechazos = cuotas.stream()
+                .map(cuota -> Counter.builder("app.limites.rechazos")
+                        .description("Peticiones rechazadas por superar la cuota del cliente")
+                        .tag("ruta", cuota.getRuta())
+                        .register(meterRegistry))
+                .toArray(Counter[]::new);
+    }
+
+    /**
+     * Retorna 0 si la petición se permite o los nanosegundos que el cliente debe esperar.
+     */
+    public long intentar(String path, String cliente) {
+        if (!habilitado) {
+            return 0;
+        }
+        for (int i = 0; i < cuotas.size(); i++) {
+            CuotaGcra cuota = cuotas.get(i);
+            if (cuota.aplica(path)) {
+                long espera = cuota.intentar(cliente, System.nanoTime());
+                if (espera > 0) {
+                    rechazos[i].increment();
+                }
+                return espera;
+            }
+        }
+        return 0;
+    }
+
+    @Scheduled(fixedDelayString = "${app.limites.limpieza:10s}")
+    public void limpiar() {
+        long ahora = System.nanoTime();
+        cuotas.forEach(cuota -> cuota.limpiar(ahora));
+    }
+}
@@ -0,0 +1,93 @@
+package com.devsenior.co.producto.shared.limites;
+
+import com.devsenior.co.producto.shared.exceptions.ErrorRespuesta;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.filter.OncePerRequestFilter;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectWriter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Se ejecuta en la cadena de seguridad despues de validar el token: el cliente se identifica por el sujeto
+ * del JWT y sin token por la IP. Primero se descarta por sobrecarga (503) y luego se aplica la cuota (429),
+ * ambos con Retry-After y el mismo cuerpo ErrorRespuesta que GlobalExceptionHandler. No se registra como filtro del contenedor, SecurityConfig lo agrega a la cadena.
+ */
+public class LimiteSolicitudesFilter extends OncePerRequestFilter {
+
+    private static final String ACTUATOR = "/actuator";
+
+    private final LimitadorSolicitudes limitador;
+    private final MonitorCarga monitorCarga;
+    private final Counter rechazosCarga;
+    private final ObjectWriter writer;
+
+    public LimiteSolicitudesFilter(LimitadorSolicitudes limitador, MonitorCarga monitorCarga, MeterRegistry meterRegistry,
+                                   ObjectMapper objectMapper) {
+        this.limitador = limitador;
+        this.monitorCarga = monitorCarga;
+        this.rechazosCarga = Counter.builder("app.limites.sobrecarga")
+                .description("Peticiones rechazadas por sobrecarga")
+                .register(meterRegistry);
+        this.writer = objectMapper.writerFor(ErrorRespuesta.class);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String path = request.getServletPath();
+        // Los health checks no se limitan, un rechazo haría que el balanceador retire la instancia
+        if (path.startsWith(ACTUATOR)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (monitorCarga.rechazar()) {
+            rechazosCarga.increment();
+            rechazar(response, HttpStatus.SERVICE_UNAVAILABLE, 1, "El servicio esta sobrecargado, intente de nuevo");
+            return;
+        }
+        long espera = limitador.intentar(path, cliente(request));
+        if (espera > 0) {
+            rechazar(response, HttpStatus.TOO_MANY_REQUESTS, Math.max(1, TimeUnit.NANOSECONDS.toSeconds(espera + 999_999_999)),
+                    "Se supero la cantidad de peticiones permitidas");
+            return;
+        }
+
+        long inicio = System.nanoTime();
+        filterChain.doFilter(request, response);
+        // Las respuestas en streaming (exportación, SSE) no cuentan para la latencia
+        if (!request.isAsyncStarted()) {
+            monitorCarga.registrar(System.nanoTime() - inicio);
+        }
+    }
+
+    private String cliente(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication instanceof JwtAuthenticationToken jwt) {
+            return jwt.getName();
+        }
+        return request.getRemoteAddr();
+    }
+
+    private void rechazar(HttpServletResponse response, HttpStatus status, long reintentarSegundos, String mensaje)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(reintentarSegundos));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        writer.writeValue(response.getOutputStream(),
+                new ErrorRespuesta(status.value(), mensaje, Instant.ofEpochMilli(System.currentTimeMillis())));
+    }
+}
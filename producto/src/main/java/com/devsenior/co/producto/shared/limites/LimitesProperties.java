@@ -0,0 +1,41 @@
+package com.devsenior.co.producto.shared.limites;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties("app.limites")
+public class LimitesProperties {
+
+    private boolean habilitado = true;
+
+    // Se usa la primera cuota cuya ruta sea prefijo de la petición, las rutas más especificas van primero
+    private List<Cuota> cuotas = new ArrayList<>();
+
+    // Al llegar a esta cantidad se quitan los clientes con el cupo completo; si no alcanza, los clientes nuevos
+    // comparten un solo contador hasta que se libere espacio
+    private int maxClientes = 100_000;
+
+    private Carga carga = new Carga();
+
+    @Data
+    public static class Cuota {
+        private String ruta;
+        private double porSegundo;
+        private int rafaga = 1;
+    }
+
+    @Data
+    public static class Carga {
+        private boolean habilitado = true;
+        // Latencia promedio de las peticiones atendidas en el ultimo periodo
+        private Duration latenciaMaxima = Duration.ofMillis(500);
+        // Espera promedio por una conexión de Hikari en el ultimo periodo
+        private Duration esperaPoolMaxima = Duration.ofMillis(200);
+        private Duration periodoMuestreo = Duration.ofMillis(250);
+    }
+}
@@ -0,0 +1,101 @@
+package com.devsenior.co.producto.shared.limites;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decide si se rechazan peticiones por sobrecarga. Cada periodo de muestreo compara la latencia promedio
+ * de las peticiones atendidas y la espera promedio por conexiones de Hikari en el periodo con sus umbrales;
+ * la fracción de peticiones rechazadas crece con el exceso (1.5 veces el umbral rechaza el 50%).
+ * Ambas medidas son solo del ultimo periodo, por lo que el rechazo termina en cuanto la carga baja.
+ * En la petición solo se suma la duración y se lee un volatile.
+ */
+@Slf4j
+@Component
+public class MonitorCarga {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private LimitesProperties properties;
+
+    private final LongAdder duracionNanos = new LongAdder();
+    private final LongAdder atendidas = new LongAdder();
+    private volatile double fraccionRechazo;
+    // Conteo y tiempo total de cada pool en el muestreo anterior, solo los usa el hilo del muestreo
+    private final Map<Meter.Id, double[]> esperaAnterior = new HashMap<>();
+
+    public void registrar(long nanos) {
+        duracionNanos.add(nanos);
+        atendidas.increment();
+    }
+
+    public boolean rechazar() {
+        double fraccion = fraccionRechazo;
+        return fraccion > 0 && (fraccion >= 1 || ThreadLocalRandom.current().nextDouble() < fraccion);
+    }
+
+    @Scheduled(fixedDelayString = "${app.limites.carga.periodo-muestreo:250ms}")
+    public void muestrear() {
+        long cantidad = atendidas.sumThenReset();
+        long duracion = duracionNanos.sumThenReset();
+        LimitesProperties.Carga carga = properties.getCarga();
+        if (!carga.isHabilitado()) {
+            fraccionRechazo = 0;
+            return;
+        }
+        double latencia = cantidad == 0 ? 0 : (double) duracion / cantidad;
+        double espera = esperaPoolNanos(carga.getPeriodoMuestreo().toNanos());
+        double exceso = Math.max(latencia / carga.getLatenciaMaxima().toNanos(),
+                espera / carga.getEsperaPoolMaxima().toNanos()) - 1;
+        double anterior = fraccionRechazo;
+        fraccionRechazo = Math.clamp(exceso, 0, 1);
+        if (anterior == 0 && fraccionRechazo > 0) {
+            log.warn("Sobrecarga: latencia promedio {} ms, espera del pool {} ms, se rechaza el {}% de las peticiones",
+                    (long) latencia / 1_000_000, (long) espera / 1_000_000, Math.round(fraccionRechazo * 100));
+        }
+    }
+
+    public double getFraccionRechazo() {
+        return fraccionRechazo;
+    }
+
+    /**
+     * Espera promedio del periodo en el pool que más espera: diferencia del tiempo total y del conteo de
+     * hikaricp.connections.acquire desde el muestreo anterior. Si ningún hilo obtuvo conexión en el periodo pero
+     * hay hilos esperando (hikaricp.connections.pending), la espera es al menos el periodo completo.
+     */
+    private double esperaPoolNanos(long periodoNanos) {
+        double maxima = 0;
+        for (Timer timer : meterRegistry.find("hikaricp.connections.acquire").timers()) {
+            double conteo = timer.count();
+            double total = timer.totalTime(TimeUnit.NANOSECONDS);
+            double[] anterior = esperaAnterior.put(timer.getId(), new double[]{conteo, total});
+            if (anterior != null && conteo > anterior[0]) {
+                maxima = Math.max(maxima, (total - anterior[1]) / (conteo - anterior[0]));
+            } else if (anterior != null && esperando(timer.getId().getTag("pool"))) {
+                maxima = Math.max(maxima, periodoNanos);
+            }
+        }
+        return maxima;
+    }
+
+    private boolean esperando(String pool) {
+        Gauge pendientes = pool == null ? null
+                : meterRegistry.find("hikaricp.connections.pending").tag("pool", pool).gauge();
+        return pendientes != null && pendientes.value() > 0;
+    }
+}
@@ -0,0 +1,63 @@
+package com.devsenior.co.producto.shared.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Registra la cantidad de sentencias SQL por petición y escribe en el log las peticiones que superan
+ * app.metrics.umbral-peticion-lenta, con el detalle de SQL y llamadas a servicios externos.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.metrics.umbral-peticion-lenta:1s}")
+    private Duration umbralPeticionLenta;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestStats stats = RequestStats.iniciar();
+        long inicio = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            long duracionNanos = System.nanoTime() - inicio;
+            RequestStats.finalizar();
+
+            Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = patron != null ? patron.toString() : "UNKNOWN";
+            DistributionSummary.builder("http.server.requests.sql")
+                    .description("Sentencias SQL ejecutadas por petición")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .record(stats.getSentenciasSql());
+
+            if (duracionNanos > umbralPeticionLenta.toNanos()) {
+                log.warn("Petición lenta {} {} -> {} en {} ms, sentencias SQL: {}, llamadas externas: {}",
+                        request.getMethod(), request.getRequestURI(), response.getStatus(), duracionNanos / 1_000_000,
+                        stats.getSentenciasSql(), stats.getLlamadasExternas());
+            }
+        }
+    }
+}
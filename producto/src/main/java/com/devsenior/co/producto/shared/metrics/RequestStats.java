@@ -0,0 +1,77 @@
+package com.devsenior.co.producto.shared.metrics;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Contadores de la petición HTTP en curso: sentencias SQL ejecutadas y llamadas a servicios externos.
+ * Es seguro entre hilos para que las tareas que una petición ejecuta en paralelo registren sobre la misma instancia.
+ */
+public final class RequestStats {
+
+    private static final ThreadLocal<RequestStats> ACTUAL = new ThreadLocal<>();
+
+    private final LongAdder sentenciasSql = new LongAdder();
+    private final Queue<LlamadaExterna> llamadasExternas = new ConcurrentLinkedQueue<>();
+
+    public static RequestStats iniciar() {
+        RequestStats stats = new RequestStats();
+        ACTUAL.set(stats);
+        return stats;
+    }
+
+    public static void finalizar() {
+        ACTUAL.remove();
+    }
+
+    public static RequestStats actual() {
+        return ACTUAL.get();
+    }
+
+    public static void registrarSentenciaSql() {
+        RequestStats stats = ACTUAL.get();
+        if (stats != null) {
+            stats.sentenciasSql.increment();
+        }
+    }
+
+    public static void registrarLlamadaExterna(String servicio, long duracionNanos, boolean exitosa) {
+        RequestStats stats = ACTUAL.get();
+        if (stats != null) {
+            stats.llamadasExternas.add(new LlamadaExterna(servicio, duracionNanos / 1_000_000, exitosa));
+        }
+    }
+
+    /**
+     * Ejecuta la tarea en otro hilo registrando sus contadores en la petición que la creo.
+     */
+    public static <T> Supplier<T> propagar(Supplier<T> tarea) {
+        RequestStats stats = ACTUAL.get();
+        if (stats == null) {
+            return tarea;
+        }
+        return () -> {
+            RequestStats anterior = ACTUAL.get();
+            ACTUAL.set(stats);
+            try {
+                return tarea.get();
+            } finally {
+                ACTUAL.set(anterior);
+            }
+        };
+    }
+
+    public long getSentenciasSql() {
+        return sentenciasSql.sum();
+    }
+
+    public List<LlamadaExterna> getLlamadasExternas() {
+        return List.copyOf(llamadasExternas);
+    }
+
+    public record LlamadaExterna(String servicio, long duracionMs, boolean exitosa) {
+    }
+}
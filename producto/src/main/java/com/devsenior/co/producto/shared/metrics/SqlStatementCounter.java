@@ -0,0 +1,16 @@
+package com.devsenior.co.producto.shared.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Cuenta las sentencias SQL que Hibernate prepara durante la petición en curso.
+ * Se registra con hibernate.session_factory.statement_inspector
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        RequestStats.registrarSentenciaSql();
+        return sql;
+    }
+}
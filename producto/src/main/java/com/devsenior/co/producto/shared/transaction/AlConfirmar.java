@@ -0,0 +1,28 @@
+package com.devsenior.co.producto.shared.transaction;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Ejecuta una acción cuando la transacción actual se confirma, o de inmediato si no hay transacción.
+ * Se usa para el estado en memoria (indice de busqueda, version del catalogo) que no debe reflejar
+ * una escritura que todavia se puede revertir.
+ */
+public final class AlConfirmar {
+
+    private AlConfirmar() {
+    }
+
+    public static void ejecutar(Runnable accion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accion.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                accion.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,154 @@
+package com.devsenior.co.producto.feign;
+
+import com.devsenior.co.producto.model.Post;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Prueba el decorador contra un servidor HTTP local que simula el servicio de posts
+ */
+class PostRestCacheTest {
+
+    private static final PostRestProperties PROPERTIES = new PostRestProperties(
+            Duration.ofSeconds(30), Duration.ofMinutes(10), 100, 50, Duration.ofSeconds(30), 20, Duration.ofMillis(500));
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private final AtomicInteger llamadas = new AtomicInteger();
+    private final AtomicBoolean falla = new AtomicBoolean();
+    private final AtomicLong reloj = new AtomicLong();
+    private HttpServer servidor;
+    private IPostRest cliente;
+
+    @BeforeEach
+    void iniciarServidor() throws IOException {
+        servidor = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        servidor.createContext("/posts", exchange -> {
+            llamadas.incrementAndGet();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            String[] partes = exchange.getRequestURI().getPath().split("/");
+            int id = Integer.parseInt(partes[partes.length - 1]);
+            byte[] body = jsonMapper.writeValueAsBytes(new Post(1, id, "titulo " + llamadas.get(), "body"));
+            exchange.sendResponseHeaders(falla.get() ? 500 : 200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        servidor.setExecutor(Executors.newFixedThreadPool(8));
+        servidor.start();
+        cliente = new ClienteHttp("http://localhost:" + servidor.getAddress().getPort() + "/posts");
+    }
+
+    @AfterEach
+    void detenerServidor() {
+        servidor.stop(0);
+    }
+
+    @Test
+    void agrupaLasConsultasSimultaneasEnUnaSolaLlamada() throws Exception {
+        PostRestCache cache = new PostRestCache(cliente, Runnable::run, PROPERTIES, reloj::get);
+
+        try (ExecutorService hilos = Executors.newFixedThreadPool(20)) {
+            List<Future<Post>> resultados = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                resultados.add(hilos.submit(() -> cache.getPostById(1)));
+            }
+            for (Future<Post> resultado : resultados) {
+                assertThat(resultado.get().getId()).isEqualTo(1);
+            }
+        }
+        assertThat(llamadas.get()).isEqualTo(1);
+    }
+
+    @Test
+    void entregaLaRespuestaVencidaYLaRefrescaEnSegundoPlano() {
+        PostRestCache cache = new PostRestCache(cliente, Runnable::run, PROPERTIES, reloj::get);
+        assertThat(cache.getPostById(1).getTitle()).isEqualTo("titulo 1");
+
+        cache.getPostById(1);
+        assertThat(llamadas.get()).isEqualTo(1);
+
+        reloj.addAndGet(Duration.ofSeconds(31).toNanos());
+        assertThat(cache.getPostById(1).getTitle()).isEqualTo("titulo 1");
+        assertThat(llamadas.get()).isEqualTo(2);
+        assertThat(cache.getPostById(1).getTitle()).isEqualTo("titulo 2");
+    }
+
+    @Test
+    void entregaLaRespuestaVencidaCuandoElServicioFalla() {
+        PostRestCache cache = new PostRestCache(cliente, Runnable::run, PROPERTIES, reloj::get);
+        cache.getPostById(1);
+
+        falla.set(true);
+        reloj.addAndGet(Duration.ofSeconds(31).toNanos());
+        assertThat(cache.getPostById(1).getTitle()).isEqualTo("titulo 1");
+        assertThatThrownBy(() -> cache.getPostById(2)).isInstanceOf(IllegalStateException.class);
+    }
+
+    /**
+     * Cliente minimo con el mismo contrato de IPostRest, equivalente al generado por Feign
+     */
+    private class ClienteHttp implements IPostRest {
+
+        private final HttpClient httpClient = HttpClient.newHttpClient();
+        private final String baseUrl;
+
+        ClienteHttp(String baseUrl) {
+            this.baseUrl = baseUrl;
+        }
+
+        @Override
+        public Post getPostById(Integer id) {
+            return jsonMapper.readValue(get("/" + id), Post.class);
+        }
+
+        @Override
+        public List<Post> getPosts() {
+            return jsonMapper.readValue(get(""), new TypeReference<>() {
+            });
+        }
+
+        private String get(String path) {
+            try {
+                HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(URI.create(baseUrl + path)).build(),
+                        HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+                if (response.statusCode() >= 500) {
+                    throw new IllegalStateException("Error del servicio de posts: " + response.statusCode());
+                }
+                return response.body();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.devsenior.co.producto.perf;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Reemplaza a Keycloak en el perfil perf: firma tokens RS256 con una llave generada al arrancar y con el mismo
+ * formato de roles (realm_access.roles) que lee JwtAuthConverter. El JwtDecoder valida con la llave publica en memoria.
+ */
+class EmisorTokens {
+
+    private final String emisor;
+    private final RSAPublicKey llavePublica;
+    private final JwtEncoder encoder;
+
+    EmisorTokens(String emisor) {
+        this.emisor = emisor;
+        KeyPair llaves = generarLlaves();
+        this.llavePublica = (RSAPublicKey) llaves.getPublic();
+        RSAKey jwk = new RSAKey.Builder(llavePublica).privateKey((RSAPrivateKey) llaves.getPrivate())
+                .keyID(UUID.randomUUID().toString()).build();
+        this.encoder = new NimbusJwtEncoder(new ImmutableJWKSet<>(new JWKSet(jwk)));
+    }
+
+    String emitir(String sujeto, List<String> roles, Duration vigencia) {
+        Instant ahora = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer(emisor)
+                .subject(sujeto)
+                .id(UUID.randomUUID().toString())
+                .issuedAt(ahora)
+                .expiresAt(ahora.plus(vigencia))
+                .claim("scope", "openid profile")
+                .claim("realm_access", Map.of("roles", roles))
+                .build();
+        return encoder.encode(JwtEncoderParameters.from(claims)).getTokenValue();
+    }
+
+    JwtDecoder decoder() {
+        NimbusJwtDecoder decoder = NimbusJwtDecoder.withPublicKey(llavePublica).build();
+        decoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(emisor));
+        return decoder;
+    }
+
+    private static KeyPair generarLlaves() {
+        try {
+            KeyPairGenerator generador = KeyPairGenerator.getInstance("RSA");
+            generador.initialize(2048);
+            return generador.generateKeyPair();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.devsenior.co.producto.perf;
+
+import org.springframework.boot.context.TypeExcludeFilter;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.core.type.ClassMetadata;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+
+/**
+ * Excluye del escaneo de componentes las clases de prueba y sus configuraciones (@TestConfiguration, @TestComponent
+ * y las clases anidadas en *Test), igual que hace Spring Boot dentro de las pruebas.
+ */
+class ExcluirClasesDePruebaFilter extends TypeExcludeFilter {
+
+    @Override
+    public boolean match(MetadataReader metadataReader, MetadataReaderFactory metadataReaderFactory) {
+        if (metadataReader.getAnnotationMetadata().hasAnnotation(TestConfiguration.class.getName())
+                || metadataReader.getAnnotationMetadata().hasAnnotation(TestComponent.class.getName())) {
+            return true;
+        }
+        ClassMetadata clase = metadataReader.getClassMetadata();
+        String externa = clase.getEnclosingClassName() != null ? clase.getEnclosingClassName() : clase.getClassName();
+        return externa.endsWith("Test") || externa.endsWith("Tests");
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj != null && getClass() == obj.getClass();
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+}
@@ -0,0 +1,321 @@
+package com.devsenior.co.producto.perf;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Generador de carga para los endpoints de ProductoController, CategoriaController y PostController.
+ * Ejecuta cada escenario por separado (calentamiento y medición) y reporta throughput y latencia p50/p99/p999.
+ * <p>
+ * Con tasa=0 usa un modelo cerrado: concurrencia clientes envían la siguiente petición al recibir la respuesta.
+ * Con tasa>0 usa un modelo abierto: las peticiones salen a tasa fija y la latencia se mide desde el momento en que
+ * debía salir cada una, asi una pausa del servidor no reduce las peticiones medidas (omisión coordinada).
+ * <p>
+ * Parametros (--clave=valor): url, token-url, concurrencia, tasa, duracion, calentamiento, escenarios (regex), salida.
+ */
+public class GeneradorCarga {
+
+    private static final JsonMapper JSON = new JsonMapper();
+    // Latencias en microsegundos, hasta 60 s con 3 digitos significativos
+    private static final long LATENCIA_MAXIMA_US = TimeUnit.SECONDS.toMicros(60);
+
+    private final String url;
+    private final String token;
+    private final HttpClient cliente;
+    private final int productos;
+    private final List<Integer> categorias;
+    private final Queue<Integer> creados = new ConcurrentLinkedQueue<>();
+
+    private GeneradorCarga(String url, String token, HttpClient cliente, int productos, List<Integer> categorias) {
+        this.url = url;
+        this.token = token;
+        this.cliente = cliente;
+        this.productos = productos;
+        this.categorias = categorias;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opciones = opciones(args);
+        String url = opciones.getOrDefault("url", "http://localhost:8080/producto-api");
+        int concurrencia = Integer.parseInt(opciones.getOrDefault("concurrencia", "32"));
+        double tasa = Double.parseDouble(opciones.getOrDefault("tasa", "0"));
+        Duration duracion = Duration.parse("PT" + opciones.getOrDefault("duracion", "20s"));
+        Duration calentamiento = Duration.parse("PT" + opciones.getOrDefault("calentamiento", "5s"));
+        Pattern filtro = Pattern.compile(opciones.getOrDefault("escenarios", ".*"));
+        Path salida = Path.of(opciones.getOrDefault("salida", "target/prueba-carga/resultados.csv"));
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient cliente = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .executor(executor)
+                    .build();
+            String token = cliente.send(HttpRequest.newBuilder(URI.create(
+                            opciones.getOrDefault("token-url", "http://localhost:8098/token?sub=carga"))).build(),
+                    HttpResponse.BodyHandlers.ofString()).body();
+            GeneradorCarga generador = new GeneradorCarga(url, token, cliente,
+                    totalProductos(cliente, url, token), idsCategorias(cliente, url, token));
+
+            List<Resultado> resultados = new ArrayList<>();
+            System.out.printf("%-32s %9s %8s %10s %9s %9s %9s %9s  %s%n",
+                    "escenario", "peticiones", "errores", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "estados no esperados");
+            for (Escenario escenario : generador.escenarios()) {
+                if (!filtro.matcher(escenario.nombre()).find()) {
+                    continue;
+                }
+                generador.ejecutar(escenario, executor, concurrencia, tasa, calentamiento);
+                Resultado resultado = generador.ejecutar(escenario, executor, concurrencia, tasa, duracion);
+                resultados.add(resultado);
+                System.out.println(resultado.linea());
+            }
+            escribirCsv(salida, resultados, concurrencia, tasa);
+            System.out.println("Resultados en " + salida.toAbsolutePath());
+        }
+    }
+
+    /**
+     * Escenarios en orden: primero las lecturas y despues las escrituras, eliminar usa los productos que creó crear.
+     */
+    private List<Escenario> escenarios() {
+        Set<Integer> ok = Set.of(200);
+        return List.of(
+                new Escenario("productos.listar", ok, () -> get("/productos?limit=20"), null),
+                new Escenario("productos.obtener", ok, () -> get("/productos/" + productoAleatorio()), null),
+                new Escenario("productos.buscar", ok, () -> get("/productos/search?q="
+                        + PerfConfig.NOMBRES[aleatorio(PerfConfig.NOMBRES.length)].toLowerCase() + "&limit=20"), null),
+                new Escenario("productos.estadisticas", ok, () -> get("/productos/estadisticas"), null),
+                new Escenario("productos.estadisticas-memoria", ok, () -> get("/productos/estadisticas?memoria=true"), null),
+                new Escenario("productos.cambios", ok, () -> get("/productos/changes?since=0&limit=100"), null),
+                new Escenario("categorias.listar", ok, () -> get("/categorias"), null),
+                new Escenario("categorias.productos", ok, () -> get("/categorias/"
+                        + categorias.get(aleatorio(categorias.size())) + "/productos?limit=20"), null),
+                new Escenario("posts.obtener", ok, () -> get("/posts/" + (aleatorio(100) + 1)), null),
+                new Escenario("posts.listar", ok, () -> get("/posts"), null),
+                new Escenario("posts.lote", ok, () -> get("/posts?ids=" + ThreadLocalRandom.current().ints(10, 1, 101)
+                        .mapToObj(String::valueOf).collect(Collectors.joining(","))), null),
+                new Escenario("productos.crear", ok, () -> enviar("POST", "/productos", producto()), this::registrarCreado),
+                new Escenario("productos.actualizar", ok, () -> enviar("PUT", "/productos/" + productoAleatorio(), producto()), null),
+                new Escenario("productos.actualizar-asincrono", Set.of(200, 202), () -> enviar("PUT",
+                        "/productos/" + productoAleatorio(), producto()).header("Prefer", "respond-async"), null),
+                // Sin stock suficiente la reserva responde 409, es un resultado esperado
+                new Escenario("productos.reservar", Set.of(200, 409), () -> enviar("POST",
+                        "/productos/" + productoAleatorio() + "/reservas", "{\"cantidad\":1}"), null),
+                new Escenario("productos.liberar", ok, () -> enviar("POST",
+                        "/productos/" + productoAleatorio() + "/liberaciones", "{\"cantidad\":1}"), null),
+                new Escenario("categorias.actualizar", ok, () -> enviar("PUT", "/" + categorias.get(aleatorio(categorias.size())),
+                        "{\"nombre\":\"Categoria " + aleatorio(1000) + "\",\"descripcion\":\"Categoria actualizada por la carga\"}"), null),
+                // Cuando se acaban los productos creados se eliminan ids que no existen (404, el mismo DELETE)
+                new Escenario("productos.eliminar", Set.of(200, 404), () -> {
+                    Integer id = creados.poll();
+                    return HttpRequest.newBuilder(uri("/productos/" + (id != null ? id : -1))).DELETE();
+                }, null)
+        );
+    }
+
+    private Resultado ejecutar(Escenario escenario, ExecutorService executor, int concurrencia, double tasa, Duration duracion)
+            throws InterruptedException {
+        Recorder recorder = new Recorder(LATENCIA_MAXIMA_US, 3);
+        LongAdder errores = new LongAdder();
+        Map<String, LongAdder> inesperados = new ConcurrentHashMap<>();
+        long inicio = System.nanoTime();
+        long fin = inicio + duracion.toNanos();
+
+        if (tasa > 0) {
+            long intervalo = (long) (TimeUnit.SECONDS.toNanos(1) / tasa);
+            List<Future<?>> enCurso = new ArrayList<>();
+            for (long programada = inicio; programada < fin; programada += intervalo) {
+                long espera = programada - System.nanoTime();
+                if (espera > 0) {
+                    LockSupport.parkNanos(espera);
+                }
+                long salida = programada;
+                enCurso.add(executor.submit(() -> enviar(escenario, salida, recorder, errores, inesperados)));
+            }
+            for (Future<?> peticion : enCurso) {
+                try {
+                    peticion.get();
+                } catch (ExecutionException ignored) {
+                    // enviar ya registra los errores
+                }
+            }
+        } else {
+            List<Future<?>> clientes = new ArrayList<>();
+            for (int i = 0; i < concurrencia; i++) {
+                clientes.add(executor.submit(() -> {
+                    while (System.nanoTime() < fin) {
+                        enviar(escenario, System.nanoTime(), recorder, errores, inesperados);
+                    }
+                }));
+            }
+            for (Future<?> clienteActual : clientes) {
+                try {
+                    clienteActual.get();
+                } catch (ExecutionException ignored) {
+                    // enviar ya registra los errores
+                }
+            }
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        return new Resultado(escenario.nombre(), recorder.getIntervalHistogram(), errores.sum(), segundos,
+                new TreeMap<>(inesperados.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().sum()))));
+    }
+
+    private void enviar(Escenario escenario, long salida, Recorder recorder, LongAdder errores, Map<String, LongAdder> inesperados) {
+        String estado;
+        try {
+            HttpResponse<byte[]> respuesta = cliente.send(escenario.solicitud().get()
+                    .header("Authorization", "Bearer " + token)
+                    .timeout(Duration.ofSeconds(30))
+                    .build(), HttpResponse.BodyHandlers.ofByteArray());
+            estado = escenario.esperados().contains(respuesta.statusCode()) ? null : String.valueOf(respuesta.statusCode());
+            if (estado == null && escenario.alResponder() != null) {
+                escenario.alResponder().accept(respuesta);
+            }
+        } catch (IOException e) {
+            estado = e.getClass().getSimpleName();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        recorder.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - salida), LATENCIA_MAXIMA_US));
+        if (estado != null) {
+            errores.increment();
+            inesperados.computeIfAbsent(estado, e -> new LongAdder()).increment();
+        }
+    }
+
+    private void registrarCreado(HttpResponse<byte[]> respuesta) {
+        JsonNode producto = JSON.readTree(respuesta.body());
+        creados.add(producto.get("id").asInt());
+    }
+
+    private HttpRequest.Builder get(String ruta) {
+        return HttpRequest.newBuilder(uri(ruta)).GET();
+    }
+
+    private HttpRequest.Builder enviar(String metodo, String ruta, String json) {
+        return HttpRequest.newBuilder(uri(ruta))
+                .header("Content-Type", "application/json")
+                .method(metodo, HttpRequest.BodyPublishers.ofString(json));
+    }
+
+    private URI uri(String ruta) {
+        return URI.create(url + ruta);
+    }
+
+    private int productoAleatorio() {
+        return aleatorio(productos) + 1;
+    }
+
+    private static String producto() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return "{\"nombre\":\"" + PerfConfig.NOMBRES[random.nextInt(PerfConfig.NOMBRES.length)] + " carga " + random.nextInt(1_000_000)
+                + "\",\"cantidad\":" + random.nextInt(16) + ",\"precio\":" + random.nextInt(100, 50_000) / 100.0
+                + ",\"estaDisponible\":true}";
+    }
+
+    private static int aleatorio(int limite) {
+        return ThreadLocalRandom.current().nextInt(limite);
+    }
+
+    // Los ids de los productos generados son consecutivos desde 1, basta con el total del catalogo
+    private static int totalProductos(HttpClient cliente, String url, String token) throws IOException, InterruptedException {
+        return consultar(cliente, url + "/productos/estadisticas", token).get("total").get("productos").asInt();
+    }
+
+    private static List<Integer> idsCategorias(HttpClient cliente, String url, String token) throws IOException, InterruptedException {
+        List<Integer> ids = new ArrayList<>();
+        consultar(cliente, url + "/categorias", token).forEach(categoria -> ids.add(categoria.get("id").asInt()));
+        return ids;
+    }
+
+    private static JsonNode consultar(HttpClient cliente, String url, String token) throws IOException, InterruptedException {
+        HttpResponse<byte[]> respuesta = cliente.send(HttpRequest.newBuilder(URI.create(url))
+                .header("Authorization", "Bearer " + token).build(), HttpResponse.BodyHandlers.ofByteArray());
+        if (respuesta.statusCode() != 200) {
+            throw new IllegalStateException("GET " + url + " respondió " + respuesta.statusCode());
+        }
+        return JSON.readTree(respuesta.body());
+    }
+
+    private static void escribirCsv(Path salida, List<Resultado> resultados, int concurrencia, double tasa) throws IOException {
+        if (salida.getParent() != null) {
+            Files.createDirectories(salida.getParent());
+        }
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(salida))) {
+            writer.println("escenario,modo,peticiones,errores,req_s,p50_ms,p99_ms,p999_ms,max_ms");
+            String modo = tasa > 0 ? "tasa=" + tasa : "concurrencia=" + concurrencia;
+            for (Resultado resultado : resultados) {
+                Histogram h = resultado.latencias();
+                writer.printf(Locale.ROOT, "%s,%s,%d,%d,%.1f,%.3f,%.3f,%.3f,%.3f%n", resultado.nombre(), modo,
+                        h.getTotalCount(), resultado.errores(), resultado.porSegundo(), ms(h, 50), ms(h, 99), ms(h, 99.9),
+                        h.getMaxValue() / 1000.0);
+            }
+        }
+    }
+
+    private static double ms(Histogram histograma, double percentil) {
+        return histograma.getValueAtPercentile(percentil) / 1000.0;
+    }
+
+    private static Map<String, String> opciones(String[] args) {
+        Map<String, String> opciones = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.indexOf('=') > 2) {
+                opciones.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return opciones;
+    }
+
+    private record Escenario(String nombre, Set<Integer> esperados, Supplier<HttpRequest.Builder> solicitud,
+                             Consumer<HttpResponse<byte[]>> alResponder) {
+    }
+
+    private record Resultado(String nombre, Histogram latencias, long errores, double segundos, Map<String, Long> inesperados) {
+
+        double porSegundo() {
+            return latencias.getTotalCount() / segundos;
+        }
+
+        String linea() {
+            return String.format(Locale.ROOT, "%-32s %9d %8d %10.1f %9.2f %9.2f %9.2f %9.2f  %s", nombre,
+                    latencias.getTotalCount(), errores, porSegundo(), ms(latencias, 50), ms(latencias, 99),
+                    ms(latencias, 99.9), latencias.getMaxValue() / 1000.0, inesperados.isEmpty() ? "" : inesperados);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.devsenior.co.producto.perf;
+
+import com.devsenior.co.producto.model.entity.CategoriaEntity;
+import com.devsenior.co.producto.model.entity.ProductoEntity;
+import com.devsenior.co.producto.repository.ICategoriaRepository;
+import com.devsenior.co.producto.repository.IProductoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Beans del perfil perf. Es @TestConfiguration para que el escaneo de las pruebas no la registre;
+ * PerfProductoApplication la agrega de forma explicita.
+ */
+@Slf4j
+@TestConfiguration(proxyBeanMethods = false)
+public class PerfConfig {
+
+    static final String[] NOMBRES = {"Cafe", "Te", "Galleta", "Chocolate", "Arroz", "Leche", "Queso", "Jugo", "Pan", "Aceite"};
+    private static final String[] VARIANTES = {"Organico", "Premium", "Clasico", "Integral", "Light", "Familiar"};
+
+    @Bean
+    EmisorTokens emisorTokens(@Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri}") String emisor) {
+        return new EmisorTokens(emisor);
+    }
+
+    // Con este bean Spring Boot no consulta el issuer-uri al validar los tokens
+    @Bean
+    JwtDecoder jwtDecoder(EmisorTokens emisorTokens) {
+        return emisorTokens.decoder();
+    }
+
+    @Bean(initMethod = "iniciar", destroyMethod = "detener")
+    ServiciosSimulados serviciosSimulados(@Value("${perf.simulados.puerto}") int puerto,
+                                          @Value("${perf.posts.latencia}") Duration latencia,
+                                          @Value("${perf.posts.variacion}") Duration variacion,
+                                          EmisorTokens emisorTokens) {
+        return new ServiciosSimulados(puerto, latencia, variacion, emisorTokens);
+    }
+
+    /**
+     * Genera el catalogo antes de ApplicationReadyEvent, asi el indice de busqueda y la version del catalogo
+     * se construyen con los datos. Usa una semilla fija para que cada corrida tenga los mismos datos.
+     */
+    @Bean
+    ApplicationRunner datosPerf(ICategoriaRepository iCategoriaRepository, IProductoRepository iProductoRepository,
+                                @Value("${perf.datos.categorias}") int categorias,
+                                @Value("${perf.datos.productos}") int productos) {
+        return args -> {
+            if (iProductoRepository.count() > 0) {
+                return;
+            }
+            List<CategoriaEntity> guardadas = iCategoriaRepository.saveAll(IntStream.rangeClosed(1, categorias)
+                    .mapToObj(i -> CategoriaEntity.builder().nombre("Categoria " + i)
+                            .descripcion("Categoria generada para pruebas de carga").build())
+                    .toList());
+            Random random = new Random(42);
+            for (int inicio = 0; inicio < productos; inicio += 1000) {
+                List<ProductoEntity> lote = new ArrayList<>(1000);
+                for (int i = inicio; i < Math.min(inicio + 1000, productos); i++) {
+                    ProductoEntity producto = new ProductoEntity(
+                            NOMBRES[random.nextInt(NOMBRES.length)] + " " + VARIANTES[random.nextInt(VARIANTES.length)] + " " + i,
+                            random.nextInt(16), Math.round(random.nextDouble(1, 500) * 100) / 100.0, random.nextInt(10) > 0);
+                    producto.setCategoria(guardadas.get(random.nextInt(guardadas.size())));
+                    lote.add(producto);
+                }
+                iProductoRepository.saveAll(lote);
+            }
+            log.info("Datos de prueba generados: {} categorias y {} productos", categorias, productos);
+        };
+    }
+}
@@ -0,0 +1,21 @@
+package com.devsenior.co.producto.perf;
+
+import com.devsenior.co.producto.ProductoApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+/**
+ * Arranca la aplicación con el perfil perf desde el classpath de pruebas: base de datos H2 con datos generados,
+ * emisor local de JWT y el API de posts simulado con latencia configurable. No requiere RDS, Keycloak ni internet.
+ * Se usa desde scripts/prueba-carga.sh junto con GeneradorCarga.
+ */
+public class PerfProductoApplication {
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(ProductoApplication.class, PerfConfig.class)
+                .profiles("perf")
+                // Las configuraciones de las pruebas estan en el mismo paquete base y no deben registrarse aqui
+                .initializers(context -> context.getBeanFactory()
+                        .registerSingleton("excluirClasesDePrueba", new ExcluirClasesDePruebaFilter()))
+                .run(args);
+    }
+}
@@ -0,0 +1,131 @@
+package com.devsenior.co.producto.perf;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Servidor HTTP aparte del Tomcat de la aplicación para no competir por sus hilos:
+ * <ul>
+ *     <li>GET /posts y /posts/{id}: reemplaza a jsonplaceholder con 100 posts, respondiendo despues de
+ *     latencia +- variacion.</li>
+ *     <li>GET /token?sub=&roles=: emite un JWT de prueba para el generador de carga o para usar con curl.</li>
+ * </ul>
+ */
+@Slf4j
+class ServiciosSimulados {
+
+    private static final int POSTS = 100;
+
+    private final int puerto;
+    private final Duration latencia;
+    private final Duration variacion;
+    private final EmisorTokens emisorTokens;
+    private HttpServer servidor;
+    private ExecutorService executor;
+
+    ServiciosSimulados(int puerto, Duration latencia, Duration variacion, EmisorTokens emisorTokens) {
+        this.puerto = puerto;
+        this.latencia = latencia;
+        this.variacion = variacion;
+        this.emisorTokens = emisorTokens;
+    }
+
+    void iniciar() throws IOException {
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        servidor = HttpServer.create(new InetSocketAddress(puerto), 1024);
+        servidor.setExecutor(executor);
+        servidor.createContext("/posts", this::posts);
+        servidor.createContext("/token", this::token);
+        servidor.start();
+        log.info("Servicios simulados en el puerto {}: posts con latencia {} +- {}", puerto, latencia, variacion);
+    }
+
+    void detener() {
+        servidor.stop(0);
+        executor.close();
+    }
+
+    private void posts(HttpExchange exchange) throws IOException {
+        esperarLatencia();
+        String[] partes = exchange.getRequestURI().getPath().split("/");
+        if (partes.length <= 2) {
+            responder(exchange, 200, IntStream.rangeClosed(1, POSTS).mapToObj(ServiciosSimulados::post)
+                    .collect(Collectors.joining(",", "[", "]")));
+            return;
+        }
+        int id;
+        try {
+            id = Integer.parseInt(partes[2]);
+        } catch (NumberFormatException e) {
+            responder(exchange, 400, "{}");
+            return;
+        }
+        responder(exchange, id >= 1 && id <= POSTS ? 200 : 404, id >= 1 && id <= POSTS ? post(id) : "{}");
+    }
+
+    private void token(HttpExchange exchange) throws IOException {
+        Map<String, String> parametros = parametros(exchange.getRequestURI().getRawQuery());
+        List<String> roles = Arrays.asList(parametros.getOrDefault("roles", "producto-rol2").split(","));
+        String token = emisorTokens.emitir(parametros.getOrDefault("sub", "carga"), roles, Duration.ofHours(8));
+        exchange.getResponseHeaders().set("Content-Type", "text/plain");
+        byte[] cuerpo = token.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, cuerpo.length);
+        exchange.getResponseBody().write(cuerpo);
+        exchange.close();
+    }
+
+    private void esperarLatencia() {
+        long base = latencia.toNanos();
+        long rango = variacion.toNanos();
+        long espera = rango > 0 ? base + ThreadLocalRandom.current().nextLong(-rango, rango + 1) : base;
+        if (espera > 0) {
+            try {
+                Thread.sleep(Duration.ofNanos(espera));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static String post(int id) {
+        return "{\"userId\":" + ((id - 1) / 10 + 1) + ",\"id\":" + id + ",\"title\":\"Post simulado " + id
+                + "\",\"body\":\"Contenido del post " + id + " generado por el perfil perf\"}";
+    }
+
+    private static void responder(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] cuerpo = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, cuerpo.length);
+        exchange.getResponseBody().write(cuerpo);
+        exchange.close();
+    }
+
+    private static Map<String, String> parametros(String query) {
+        Map<String, String> parametros = new HashMap<>();
+        if (query != null) {
+            for (String par : query.split("&")) {
+                int igual = par.indexOf('=');
+                if (igual > 0) {
+                    parametros.put(par.substring(0, igual), URLDecoder.decode(par.substring(igual + 1), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return parametros;
+    }
+}
@@ -0,0 +1,82 @@
+package com.devsenior.co.producto.repository;
+
+import com.devsenior.co.producto.model.ProductoProyeccion;
+import com.devsenior.co.producto.model.entity.CategoriaEntity;
+import com.devsenior.co.producto.model.entity.ProductoEntity;
+import com.devsenior.co.producto.shared.metrics.RequestStats;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica que los listados con categoria cuesten una sola sentencia SQL sin importar el tamaño de la página
+ * y que no creen entidades administradas en el contexto de persistencia.
+ * Las sentencias se cuentan con el mismo StatementInspector que usan las metricas por petición.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database=h2",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class IProductoRepositoryTest {
+
+    @Autowired
+    private IProductoRepository iProductoRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private CategoriaEntity bebidas;
+
+    @BeforeEach
+    void crearCatalogo() {
+        bebidas = entityManager.persist(CategoriaEntity.builder().nombre("Bebidas").descripcion("Bebidas frias y calientes").build());
+        CategoriaEntity snacks = entityManager.persist(CategoriaEntity.builder().nombre("Snacks").descripcion("Paquetes y galletas").build());
+        for (int i = 0; i < 10; i++) {
+            ProductoEntity producto = new ProductoEntity("Producto " + i, i, i * 1.5, true);
+            producto.setCategoria(i % 2 == 0 ? bebidas : snacks);
+            entityManager.persist(producto);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @AfterEach
+    void finalizar() {
+        RequestStats.finalizar();
+    }
+
+    @Test
+    void laPaginaDeProductosTraeLaCategoriaEnUnaSolaConsulta() {
+        RequestStats stats = RequestStats.iniciar();
+
+        List<ProductoProyeccion> productos = iProductoRepository.findPaginaDesde(0, Limit.of(10));
+
+        assertThat(productos).extracting(ProductoProyeccion::categoriaNombre).hasSize(10).containsOnly("Bebidas", "Snacks");
+        assertThat(stats.getSentenciasSql()).isEqualTo(1);
+        assertThat(entidadesAdministradas()).isZero();
+    }
+
+    @Test
+    void laPaginaDeUnaCategoriaTraeLaCategoriaEnUnaSolaConsulta() {
+        RequestStats stats = RequestStats.iniciar();
+
+        List<ProductoProyeccion> productos = iProductoRepository.findPaginaDeCategoria(bebidas.getId(), 0, Limit.of(10));
+
+        assertThat(productos).extracting(ProductoProyeccion::categoriaNombre).hasSize(5).containsOnly("Bebidas");
+        assertThat(stats.getSentenciasSql()).isEqualTo(1);
+        assertThat(entidadesAdministradas()).isZero();
+    }
+
+    private int entidadesAdministradas() {
+        return entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount();
+    }
+}
@@ -0,0 +1,97 @@
+package com.devsenior.co.producto.service;
+
+import com.devsenior.co.producto.model.EntidadCatalogo;
+import com.devsenior.co.producto.model.OperacionCambio;
+import com.devsenior.co.producto.model.entity.CambioCatalogoEntity;
+import com.devsenior.co.producto.repository.ICambioCatalogoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jackson.autoconfigure.JacksonAutoConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Al sincronizar solo los eventos publicados por otra instancia reconstruyen las copias en memoria;
+ * los propios ya se aplicaron por producto al confirmar.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database=h2",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({CatalogoVersionService.class, CambioCatalogoService.class})
+class CatalogoVersionServiceTest {
+
+    @Autowired
+    private CatalogoVersionService catalogoVersionService;
+
+    @Autowired
+    private CambioCatalogoService cambioCatalogoService;
+
+    @Autowired
+    private ICambioCatalogoRepository iCambioCatalogoRepository;
+
+    @MockitoBean
+    private CatalogoColumnar catalogoColumnar;
+
+    @MockitoBean
+    private ProductoSearchIndex productoSearchIndex;
+
+    @MockitoBean
+    private RespuestasProductoCache respuestasProductoCache;
+
+    @MockitoBean
+    private CacheManager cacheManager;
+
+    @Test
+    void soloLosCambiosDeOtraInstanciaReconstruyenElCatalogo() {
+        catalogoVersionService.iniciar();
+        String propio = (String) ReflectionTestUtils.getField(cambioCatalogoService, "origen");
+        String etag = catalogoVersionService.getEtag();
+
+        publicar(propio);
+        catalogoVersionService.sincronizar();
+
+        verify(catalogoColumnar, never()).reconstruir();
+        verify(productoSearchIndex, never()).reconstruir();
+        verify(respuestasProductoCache, never()).invalidarTodo();
+        assertThat(catalogoVersionService.getEtag()).isEqualTo(etag);
+
+        publicar("otra-instancia");
+        publicar(propio);
+        catalogoVersionService.sincronizar();
+
+        verify(catalogoColumnar).reconstruir();
+        verify(productoSearchIndex).reconstruir();
+        verify(respuestasProductoCache).invalidarTodo();
+        assertThat(catalogoVersionService.getEtag()).isNotEqualTo(etag);
+
+        // El evento de la otra instancia ya se revisó
+        clearInvocations(catalogoColumnar);
+        catalogoVersionService.sincronizar();
+        verify(catalogoColumnar, never()).reconstruir();
+    }
+
+    private void publicar(String origen) {
+        long secuencia = cambioCatalogoService.getUltimaSecuencia() + 1;
+        iCambioCatalogoRepository.save(CambioCatalogoEntity.builder()
+                .entidad(EntidadCatalogo.PRODUCTO)
+                .entidadId(1)
+                .operacion(OperacionCambio.ELIMINADO)
+                .origen(origen)
+                .secuencia(secuencia)
+                .build());
+    }
+}
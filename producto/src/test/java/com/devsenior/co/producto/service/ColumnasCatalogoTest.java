@@ -0,0 +1,135 @@
+package com.devsenior.co.producto.service;
+
+import com.devsenior.co.producto.model.BusquedaProductoDto;
+import com.devsenior.co.producto.model.FacetaDto;
+import com.devsenior.co.producto.model.ProductoDto;
+import com.devsenior.co.producto.model.ProductoProyeccion;
+import com.devsenior.co.producto.model.ResultadoBusquedaDto;
+import org.assertj.core.groups.Tuple;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * La copia en columnas responde igual que la consulta por proyección y cada cambio crea una copia nueva
+ * sin modificar la que ya tienen los lectores.
+ */
+class ColumnasCatalogoTest {
+
+    private static final int PRODUCTOS = 1000;
+
+    private final List<ProductoProyeccion> filas = IntStream.rangeClosed(1, PRODUCTOS)
+            .mapToObj(id -> new ProductoProyeccion(id * 2, "Producto " + (id % 10), id % 16, id * 1.5, id % 3 == 0,
+                    id % 4 == 0 ? null : id % 4, id % 4 == 0 ? null : "Categoria " + (id % 4)))
+            .toList();
+
+    @Test
+    void respondeIgualQueLaProyeccion() {
+        ColumnasCatalogo columnas = ColumnasCatalogo.desde(filas.iterator());
+
+        assertThat(columnas.todos()).isEqualTo(filas.stream().map(ProductoProyeccion::toDto).toList());
+        assertThat(columnas.buscar(20)).isEqualTo(filas.get(9).toDto());
+        assertThat(columnas.buscar(21)).isNull();
+        assertThat(columnas.pagina(21, null, 3)).containsExactlyElementsOf(filas.subList(10, 13));
+        assertThat(columnas.pagina(0, 2, 3)).extracting(ProductoProyeccion::id).containsExactly(4, 12, 20);
+        assertThat(columnas.pagina(2 * PRODUCTOS, null, 3)).isEmpty();
+    }
+
+    @Test
+    void filtraConElMismoTotalYFacetasQueLaBusqueda() {
+        ColumnasCatalogo columnas = ColumnasCatalogo.desde(filas.iterator());
+        BusquedaProductoDto filtros = BusquedaProductoDto.builder()
+                .precioMin(100.0).precioMax(600.0).cantidadMax(7).estaDisponible(true).categoriaId(1).build();
+
+        List<ProductoProyeccion> esperados = filas.stream()
+                .filter(fila -> fila.precio() >= 100 && fila.precio() <= 600 && fila.cantidad() <= 7 && fila.estaDisponible())
+                .toList();
+        ResultadoBusquedaDto resultado = columnas.filtrar(filtros, 5);
+
+        List<ProductoProyeccion> deCategoria = esperados.stream().filter(fila -> Integer.valueOf(1).equals(fila.categoriaId())).toList();
+        assertThat(resultado.getTotal()).isEqualTo(deCategoria.size());
+        assertThat(resultado.getProductos()).isEqualTo(deCategoria.stream().limit(5).map(ProductoProyeccion::toDto).toList());
+        Tuple[] facetas = IntStream.rangeClosed(1, 3)
+                .mapToObj(categoria -> tuple(categoria, esperados.stream()
+                        .filter(fila -> Integer.valueOf(categoria).equals(fila.categoriaId())).count()))
+                .toArray(Tuple[]::new);
+        assertThat(resultado.getCategorias()).extracting(FacetaDto::getCategoriaId, FacetaDto::getCantidad)
+                .containsExactlyInAnyOrder(facetas);
+    }
+
+    @Test
+    void losCambiosCreanUnaCopiaNueva() {
+        ColumnasCatalogo original = ColumnasCatalogo.desde(filas.iterator());
+        List<ProductoDto> antes = original.todos();
+
+        ColumnasCatalogo actualizada = original.conCambios(List.of(
+                new ColumnasCatalogo.Fila(2, "Renombrado", 9, 99.0, false, 3, null),
+                new ColumnasCatalogo.Fila(3, "Nuevo", 1, 1.0, true, 7, "Categoria nueva")), List.of(4, 5));
+        ColumnasCatalogo conStock = actualizada.conCantidad(6, -2).conCategoria(3, "Categoria 3 renombrada");
+
+        assertThat(original.todos()).isEqualTo(antes);
+        assertThat(conStock.tamano()).isEqualTo(PRODUCTOS);
+        assertThat(conStock.buscar(2)).extracting(ProductoDto::getNombre, ProductoDto::getCantidad, ProductoDto::getEstaDisponible)
+                .containsExactly("Renombrado", 9, false);
+        assertThat(conStock.buscar(2).getCategoria().getNombre()).isEqualTo("Categoria 3 renombrada");
+        assertThat(conStock.buscar(3).getCategoria().getNombre()).isEqualTo("Categoria nueva");
+        assertThat(conStock.buscar(4)).isNull();
+        assertThat(conStock.buscar(6).getCantidad()).isEqualTo(filas.get(2).cantidad() - 2);
+        assertThat(actualizada.buscar(6).getCantidad()).isEqualTo(filas.get(2).cantidad());
+        assertThat(conStock.pagina(0, null, 3)).extracting(ProductoProyeccion::id).containsExactly(2, 3, 6);
+    }
+
+    @Test
+    void losCambiosEntreVariosBloquesRespondenIgualQueLasFilas() {
+        int productos = 3 * ColumnasCatalogo.BLOQUE + 10;
+        List<ProductoProyeccion> grandes = IntStream.rangeClosed(1, productos)
+                .mapToObj(id -> new ProductoProyeccion(id * 2, "Producto " + (id % 10), id % 16, id * 1.5, id % 3 == 0,
+                        null, null))
+                .toList();
+        ColumnasCatalogo original = ColumnasCatalogo.desde(grandes.iterator());
+        int enSegundoBloque = grandes.get(ColumnasCatalogo.BLOQUE + 5).id();
+
+        // Actualización en un bloque del medio y productos nuevos al final que llenan el ultimo bloque
+        List<ColumnasCatalogo.Fila> nuevas = IntStream.rangeClosed(1, ColumnasCatalogo.BLOQUE)
+                .mapToObj(i -> new ColumnasCatalogo.Fila(2 * productos + i, "Nuevo " + i, 1, 1.0, true, 0, null))
+                .toList();
+        ColumnasCatalogo agregada = original
+                .conCambios(List.of(new ColumnasCatalogo.Fila(enSegundoBloque, "Actualizado", 3, 3.0, true, 0, null)), List.of())
+                .conCambios(nuevas, List.of());
+        // Eliminar desplaza las filas siguientes entre bloques
+        ColumnasCatalogo sinPrimero = agregada.conCambios(List.of(), List.of(2)).conCantidad(2 * productos + 1, 5);
+
+        assertThat(original.todos()).isEqualTo(grandes.stream().map(ProductoProyeccion::toDto).toList());
+        assertThat(original.buscar(enSegundoBloque).getNombre()).isEqualTo(grandes.get(ColumnasCatalogo.BLOQUE + 5).nombre());
+        assertThat(original.buscar(2 * productos + 1)).isNull();
+        assertThat(agregada.tamano()).isEqualTo(productos + ColumnasCatalogo.BLOQUE);
+        assertThat(agregada.buscar(enSegundoBloque).getNombre()).isEqualTo("Actualizado");
+        assertThat(agregada.pagina(2 * productos - 2, null, 3)).extracting(ProductoProyeccion::id)
+                .containsExactly(2 * productos, 2 * productos + 1, 2 * productos + 2);
+        assertThat(sinPrimero.tamano()).isEqualTo(productos + ColumnasCatalogo.BLOQUE - 1);
+        assertThat(sinPrimero.buscar(2)).isNull();
+        assertThat(sinPrimero.buscar(2 * productos + 1).getCantidad()).isEqualTo(6);
+        assertThat(sinPrimero.buscar(2 * productos + ColumnasCatalogo.BLOQUE).getNombre()).isEqualTo("Nuevo " + ColumnasCatalogo.BLOQUE);
+        assertThat(sinPrimero.proyecciones().map(ProductoProyeccion::id).toList())
+                .isSorted().hasSize(sinPrimero.tamano()).doesNotHaveDuplicates();
+        assertThat(sinPrimero.filtrar(BusquedaProductoDto.builder().precioMax(1.0).build(), 5).getTotal())
+                .isEqualTo(ColumnasCatalogo.BLOQUE);
+    }
+
+    @Test
+    void compactaElDiccionarioCuandoLosNombresReemplazadosSuperanALasFilas() {
+        ColumnasCatalogo columnas = ColumnasCatalogo.desde(filas.iterator());
+        long inicial = columnas.bytes();
+        for (int i = 0; i < 5 * PRODUCTOS; i++) {
+            columnas = columnas.conCambios(List.of(new ColumnasCatalogo.Fila(2, "Nombre " + i, 1, 1.0, true, 0, null)), List.of());
+        }
+
+        assertThat(columnas.buscar(2).getNombre()).isEqualTo("Nombre " + (5 * PRODUCTOS - 1));
+        assertThat(columnas.buscar(4).getNombre()).isEqualTo("Producto 2");
+        assertThat(columnas.bytes()).isLessThan(inicial + 3L * PRODUCTOS * 48);
+    }
+}
@@ -0,0 +1,113 @@
+package com.devsenior.co.producto.service;
+
+import com.devsenior.co.producto.model.EstadisticasCategoriaDto;
+import com.devsenior.co.producto.model.EstadisticasDto;
+import com.devsenior.co.producto.model.entity.CategoriaEntity;
+import com.devsenior.co.producto.model.entity.ProductoEntity;
+import com.devsenior.co.producto.repository.IProductoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.when;
+
+/**
+ * La consulta de agregación y el calculo en memoria deben dar el mismo resultado, incluidos los
+ * percentiles interpolados y los productos sin categoria. Con el catalogo en columnas el calculo usa esa copia.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database=h2",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "producto.estadisticas.vigencia-memoria=0s"
+})
+@Import(EstadisticasService.class)
+class EstadisticasServiceTest {
+
+    @Autowired
+    private EstadisticasService estadisticasService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private IProductoRepository iProductoRepository;
+
+    @MockitoBean
+    private CatalogoVersionService catalogoVersionService;
+
+    @MockitoBean
+    private CatalogoColumnar catalogoColumnar;
+
+    @BeforeEach
+    void crearCatalogo() {
+        when(catalogoVersionService.getEtag()).thenReturn("W/\"1\"");
+        CategoriaEntity bebidas = entityManager.persist(CategoriaEntity.builder().nombre("Bebidas").descripcion("Bebidas frias y calientes").build());
+        CategoriaEntity snacks = entityManager.persist(CategoriaEntity.builder().nombre("Snacks").descripcion("Paquetes y galletas").build());
+        for (int i = 0; i < 30; i++) {
+            ProductoEntity producto = new ProductoEntity("Producto " + i, i % 16, (i * 7 % 30) + 0.5, i % 3 != 0);
+            producto.setCategoria(i % 5 == 0 ? null : i % 2 == 0 ? bebidas : snacks);
+            entityManager.persist(producto);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void elCalculoEnMemoriaCoincideConLaConsultaDeAgregacion() {
+        EstadisticasDto sql = estadisticasService.calcular();
+        EstadisticasDto memoria = estadisticasService.calcularEnMemoria();
+
+        assertThat(sql.getTotal().getProductos()).isEqualTo(30);
+        assertThat(sql.getTotal().getDisponibles()).isEqualTo(20);
+        assertThat(sql.getCategorias()).extracting(EstadisticasCategoriaDto::getCategoria)
+                .containsExactly("Bebidas", "Snacks", null);
+
+        assertIguales(memoria.getTotal(), sql.getTotal());
+        assertThat(memoria.getCategorias()).hasSameSizeAs(sql.getCategorias());
+        for (int i = 0; i < sql.getCategorias().size(); i++) {
+            assertIguales(memoria.getCategorias().get(i), sql.getCategorias().get(i));
+        }
+    }
+
+    @Test
+    void conElCatalogoEnColumnasSeCalculaDesdeEsaCopia() {
+        ColumnasCatalogo catalogo = ColumnasCatalogo.desde(iProductoRepository.findAllProyectados().iterator());
+        EstadisticasDto sql = estadisticasService.calcular();
+        // Un producto eliminado solo en la copia: el resultado en memoria no viene de la base de datos
+        Integer eliminado = iProductoRepository.findAllProyectados().getFirst().id();
+        // Otra versión para no reutilizar la copia de las estadisticas de otro test
+        when(catalogoVersionService.getEtag()).thenReturn("W/\"2\"");
+        when(catalogoColumnar.actual()).thenReturn(catalogo.conCambios(List.of(), List.of(eliminado)));
+
+        EstadisticasDto memoria = estadisticasService.calcularEnMemoria();
+
+        assertThat(memoria.getTotal().getProductos()).isEqualTo(sql.getTotal().getProductos() - 1);
+        assertThat(memoria.getCategorias()).extracting(EstadisticasCategoriaDto::getCategoria)
+                .containsExactly("Bebidas", "Snacks", null);
+    }
+
+    private void assertIguales(EstadisticasCategoriaDto memoria, EstadisticasCategoriaDto sql) {
+        assertThat(memoria.getCategoriaId()).isEqualTo(sql.getCategoriaId());
+        assertThat(memoria.getCategoria()).isEqualTo(sql.getCategoria());
+        assertThat(memoria.getProductos()).isEqualTo(sql.getProductos());
+        assertThat(memoria.getDisponibles()).isEqualTo(sql.getDisponibles());
+        for (List<Double> valores : List.of(
+                List.of(memoria.getValorInventario(), sql.getValorInventario()),
+                List.of(memoria.getPrecioMinimo(), sql.getPrecioMinimo()),
+                List.of(memoria.getPrecioMaximo(), sql.getPrecioMaximo()),
+                List.of(memoria.getPrecioPromedio(), sql.getPrecioPromedio()),
+                List.of(memoria.getPrecioP50(), sql.getPrecioP50()),
+                List.of(memoria.getPrecioP90(), sql.getPrecioP90()),
+                List.of(memoria.getPrecioP99(), sql.getPrecioP99()))) {
+            assertThat(valores.get(0)).isCloseTo(valores.get(1), within(1e-9));
+        }
+    }
+}
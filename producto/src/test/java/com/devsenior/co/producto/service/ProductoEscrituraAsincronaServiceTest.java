@@ -0,0 +1,156 @@
+package com.devsenior.co.producto.service;
+
+import com.devsenior.co.producto.model.EstadoEscritura;
+import com.devsenior.co.producto.model.ProductoDto;
+import com.devsenior.co.producto.model.TicketEscrituraDto;
+import com.devsenior.co.producto.model.entity.ProductoEntity;
+import com.devsenior.co.producto.repository.IProductoRepository;
+import com.devsenior.co.producto.shared.metrics.RequestStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jackson.autoconfigure.JacksonAutoConfiguration;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.validation.autoconfigure.ValidationAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Las actualizaciones asincronas del mismo producto se combinan (gana la ultima) y se escriben en lote.
+ * Se cuentan las sentencias SQL por producto contra el PUT sincrono, que hace SELECT + UPDATE + evento por producto.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database=h2",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "producto.escritura-asincrona.intervalo=1h",
+        "producto.escritura-asincrona.tamano-lote=1000"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ImportAutoConfiguration({JacksonAutoConfiguration.class, ValidationAutoConfiguration.class})
+@Import({ProductoService.class, ProductoLoteService.class, ProductoEscrituraAsincronaService.class, CambioCatalogoService.class})
+class ProductoEscrituraAsincronaServiceTest {
+
+    private static final int PRODUCTOS = 200;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private ProductoEscrituraAsincronaService escrituraAsincrona;
+
+    @Autowired
+    private IProductoRepository iProductoRepository;
+
+    @MockitoBean
+    private ProductoSearchIndex productoSearchIndex;
+
+    @MockitoBean
+    private CatalogoVersionService catalogoVersionService;
+
+    @MockitoBean
+    private CatalogoColumnar catalogoColumnar;
+
+    @MockitoBean
+    private RespuestasProductoCache respuestasProductoCache;
+
+    @MockitoBean
+    private StockReservaService stockReservaService;
+
+    @Test
+    void escribeEnLotesConMenosSentenciasPorProductoSinCombinar() {
+        List<Integer> ids = crearProductos();
+
+        RequestStats sincrono = RequestStats.iniciar();
+        ids.subList(0, 20).forEach(id -> productoService.update(id, producto("Sincrono " + id, 2)));
+        RequestStats.finalizar();
+
+        // Una actualización por producto: nada se combina, la diferencia es solo por escribir en lote
+        ids.forEach(id -> escrituraAsincrona.encolar(id, producto("Asincrono " + id, 3)));
+        RequestStats asincrono = RequestStats.iniciar();
+        escrituraAsincrona.vaciar();
+        RequestStats.finalizar();
+
+        double porProductoSincrono = sincrono.getSentenciasSql() / 20.0;
+        double porProductoAsincrono = asincrono.getSentenciasSql() / (double) PRODUCTOS;
+        assertThat(porProductoSincrono).isGreaterThanOrEqualTo(porProductoAsincrono * 10);
+        assertThat(iProductoRepository.findAllById(ids)).extracting(ProductoEntity::getCantidad).containsOnly(3);
+    }
+
+    @Test
+    void combinaLasActualizacionesDelMismoProducto() {
+        List<Integer> ids = crearProductos();
+
+        List<TicketEscrituraDto> primeros = new ArrayList<>();
+        List<TicketEscrituraDto> ultimos = new ArrayList<>();
+        ids.forEach(id -> primeros.add(escrituraAsincrona.encolar(id, producto("Primera " + id, 3))));
+        ids.forEach(id -> ultimos.add(escrituraAsincrona.encolar(id, producto("Ultima " + id, 4))));
+        TicketEscrituraDto inexistente = escrituraAsincrona.encolar(-1, producto("No existe", 1));
+        escrituraAsincrona.vaciar();
+
+        assertThat(escrituraAsincrona.consultar(primeros.getFirst().getId()))
+                .extracting(TicketEscrituraDto::getEstado, TicketEscrituraDto::isCombinada)
+                .containsExactly(EstadoEscritura.APLICADA, true);
+        assertThat(escrituraAsincrona.consultar(ultimos.getLast().getId()))
+                .extracting(TicketEscrituraDto::getEstado, TicketEscrituraDto::isCombinada)
+                .containsExactly(EstadoEscritura.APLICADA, false);
+        assertThat(escrituraAsincrona.consultar(inexistente.getId()).getEstado()).isEqualTo(EstadoEscritura.NO_ENCONTRADO);
+        assertThat(iProductoRepository.findAllById(ids))
+                .allSatisfy(producto -> {
+                    assertThat(producto.getNombre()).isEqualTo("Ultima " + producto.getId());
+                    assertThat(producto.getCantidad()).isEqualTo(4);
+                });
+    }
+
+    @Test
+    void unaActualizacionSincronaEsperaALaAsincronaPendiente() {
+        Integer id = crearProductos().getFirst();
+        TicketEscrituraDto ticket = escrituraAsincrona.encolar(id, producto("Asincrona", 3));
+
+        escrituraAsincrona.esperarPendiente(id);
+        productoService.update(id, producto("Sincrona", 5));
+        escrituraAsincrona.vaciar();
+
+        assertThat(escrituraAsincrona.consultar(ticket.getId()).getEstado()).isEqualTo(EstadoEscritura.APLICADA);
+        assertThat(iProductoRepository.findById(id)).get()
+                .extracting(ProductoEntity::getNombre, ProductoEntity::getCantidad)
+                .containsExactly("Sincrona", 5);
+    }
+
+    private List<Integer> crearProductos() {
+        return iProductoRepository.saveAll(IntStream.range(0, PRODUCTOS)
+                        .mapToObj(i -> new ProductoEntity("Producto " + i, 1, 10.0, true)).toList())
+                .stream().map(ProductoEntity::getId).toList();
+    }
+
+    private static ProductoDto producto(String nombre, int cantidad) {
+        return ProductoDto.builder().nombre(nombre).cantidad(cantidad).precio(12.5).estaDisponible(true).build();
+    }
+
+    @TestConfiguration
+    static class Configuracion {
+
+        @Bean
+        TaskExecutor applicationTaskExecutor() {
+            return new SyncTaskExecutor();
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.devsenior.co.producto.service;
+
+import com.devsenior.co.producto.controller.ProductoLoteController;
+import com.devsenior.co.producto.model.ErrorLoteDto;
+import com.devsenior.co.producto.model.ProductoActualizacionDto;
+import com.devsenior.co.producto.model.ProductoDto;
+import com.devsenior.co.producto.model.ResultadoLoteDto;
+import com.devsenior.co.producto.model.entity.ProductoEntity;
+import com.devsenior.co.producto.repository.IProductoRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jackson.autoconfigure.JacksonAutoConfiguration;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.validation.autoconfigure.ValidationAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Un lote con registros validos e invalidos: los errores de JSON y de validación se reportan por registro,
+ * y un error de la base de datos revierte solo el bloque en el que ocurre.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database=h2",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "producto.lote.tamano-chunk=2"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ImportAutoConfiguration({JacksonAutoConfiguration.class, ValidationAutoConfiguration.class})
+@Import({ProductoLoteController.class, ProductoLoteService.class, CambioCatalogoService.class})
+class ProductoLoteServiceTest {
+
+    @Autowired
+    private ProductoLoteController productoLoteController;
+
+    @Autowired
+    private ProductoLoteService productoLoteService;
+
+    @Autowired
+    private IProductoRepository iProductoRepository;
+
+    @MockitoBean
+    private ProductoSearchIndex productoSearchIndex;
+
+    @MockitoBean
+    private CatalogoVersionService catalogoVersionService;
+
+    @MockitoBean
+    private CatalogoColumnar catalogoColumnar;
+
+    @MockitoBean
+    private RespuestasProductoCache respuestasProductoCache;
+
+    @MockitoBean
+    private StockReservaService stockReservaService;
+
+    @Test
+    void creaLosValidosYReportaLosErroresPorRegistro() throws IOException {
+        String ndjson = String.join("\n",
+                producto("Lote A", 1),
+                "{no es json",
+                producto("Lote B", 2),
+                producto("Lote cantidad invalida", 20),
+                "",
+                producto("Lote C", 3),
+                // Pasa la validación pero no cabe en la columna: falla el bloque completo (Lote C y este)
+                producto("Lote " + "x".repeat(300), 4),
+                producto("Lote D", 5));
+
+        ResultadoLoteDto resultado = productoLoteController.createNdjson(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(resultado.getProcesados()).isEqualTo(7);
+        assertThat(resultado.getExitosos()).isEqualTo(3);
+        assertThat(resultado.getErrores()).extracting(ErrorLoteDto::getIndice).containsExactly(1, 3, 4, 5);
+        assertThat(resultado.getErrores().get(0).getErrores()).containsExactly("El registro no es un JSON valido");
+        assertThat(resultado.getErrores().get(1).getErrores()).containsExactly("La cantidad no puede ser mayor a 15");
+        assertThat(resultado.getErrores().get(2).getErrores().getFirst()).startsWith("Error al guardar el bloque");
+        assertThat(iProductoRepository.findAll()).extracting(ProductoEntity::getNombre)
+                .contains("Lote A", "Lote B", "Lote D")
+                .doesNotContain("Lote C");
+    }
+
+    @Test
+    void actualizaLosExistentesYReportaLosQueNoExisten() {
+        ProductoEntity existente = iProductoRepository.save(new ProductoEntity("Existente", 1, 1.0, true));
+
+        ResultadoLoteDto resultado = productoLoteService.actualizar(List.of(
+                new ProductoActualizacionDto(existente.getId(), new ProductoDto("Actualizado", 7, 2.0, false)),
+                new ProductoActualizacionDto(-1, new ProductoDto("No existe", 1, 1.0, true))).iterator());
+
+        assertThat(resultado.getExitosos()).isEqualTo(1);
+        assertThat(resultado.getErrores()).extracting(ErrorLoteDto::getIndice, ErrorLoteDto::getId).containsExactly(tuple(1, -1));
+        assertThat(iProductoRepository.findById(existente.getId())).get()
+                .extracting(ProductoEntity::getNombre, ProductoEntity::getCantidad)
+                .containsExactly("Actualizado", 7);
+    }
+
+    private static String producto(String nombre, int cantidad) {
+        return "{\"nombre\":\"" + nombre + "\",\"cantidad\":" + cantidad + ",\"precio\":10.5,\"estaDisponible\":true}";
+    }
+
+    @TestConfiguration
+    static class Configuracion {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
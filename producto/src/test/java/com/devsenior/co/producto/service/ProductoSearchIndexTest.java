@@ -0,0 +1,193 @@
+package com.devsenior.co.producto.service;
+
+import com.devsenior.co.producto.model.BusquedaProductoDto;
+import com.devsenior.co.producto.model.FacetaDto;
+import com.devsenior.co.producto.model.ProductoDto;
+import com.devsenior.co.producto.model.ProductoProyeccion;
+import com.devsenior.co.producto.model.ResultadoBusquedaDto;
+import com.devsenior.co.producto.model.entity.CategoriaEntity;
+import com.devsenior.co.producto.model.entity.ProductoEntity;
+import com.devsenior.co.producto.repository.IProductoRepository;
+import com.devsenior.co.producto.shared.exceptions.ServicioNoDisponibleException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.when;
+
+/**
+ * Las busquedas solo con disponibilidad o categoria (bitmaps) deben dar el mismo total y facetas que
+ * recorrer los productos; el texto se busca por prefijo o aproximado y los rangos por los indices ordenados.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ProductoSearchIndexTest {
+
+    private static final int PRODUCTOS = 300;
+
+    @Mock
+    private IProductoRepository iProductoRepository;
+
+    @Mock
+    private ICategoriaService iCategoriaService;
+
+    @InjectMocks
+    private ProductoSearchIndex indice;
+
+    private final List<ProductoProyeccion> productos = IntStream.rangeClosed(1, PRODUCTOS)
+            .mapToObj(id -> new ProductoProyeccion(id, nombre(id), id % 16, id * 2.5, id % 3 == 0,
+                    id % 4 == 0 ? null : id % 4, id % 4 == 0 ? null : "Categoria " + (id % 4)))
+            .toList();
+
+    @BeforeEach
+    void crearCatalogo() {
+        when(iProductoRepository.streamAll()).thenAnswer(invocacion -> productos.stream());
+        when(iCategoriaService.findAll()).thenReturn(IntStream.rangeClosed(1, 3)
+                .mapToObj(id -> CategoriaEntity.builder().id(id).nombre("Categoria " + id).build()).toList());
+    }
+
+    @Test
+    void tokenizaSinTildesNiMayusculas() {
+        assertThat(ProductoSearchIndex.tokenizar("Café con LECHE-descremada  2L"))
+                .containsExactly("cafe", "con", "leche", "descremada", "2l");
+        assertThat(ProductoSearchIndex.tokenizar(null)).isEmpty();
+    }
+
+    @Test
+    void calculaLaDistanciaYSeDetieneAlSuperarElMaximo() {
+        assertThat(ProductoSearchIndex.distancia("leche", "leche", 1)).isZero();
+        assertThat(ProductoSearchIndex.distancia("leche", "lecha", 1)).isEqualTo(1);
+        assertThat(ProductoSearchIndex.distancia("teclado", "tecaldo", 2)).isEqualTo(2);
+        assertThat(ProductoSearchIndex.distancia("abcdef", "uvwxyz", 1)).isEqualTo(2);
+    }
+
+    @Test
+    void respondeNoDisponibleHastaQueTerminaLaConstruccion() {
+        assertThatThrownBy(() -> indice.buscar(new BusquedaProductoDto()))
+                .isInstanceOf(ServicioNoDisponibleException.class);
+
+        indice.construir();
+        assertThat(indice.buscar(new BusquedaProductoDto()).getTotal()).isEqualTo(PRODUCTOS);
+    }
+
+    @Test
+    void losFiltrosDeBitmapsCoincidenConRecorrerLosProductos() {
+        indice.construir();
+        for (Boolean disponible : Arrays.asList(null, true, false)) {
+            for (Integer categoria : Arrays.asList(null, 1, 2, 99)) {
+                BusquedaProductoDto filtros = BusquedaProductoDto.builder()
+                        .estaDisponible(disponible).categoriaId(categoria).limit(5).build();
+                verificar(filtros, producto -> disponible == null || disponible.equals(producto.estaDisponible()));
+            }
+        }
+    }
+
+    @Test
+    void buscaPorPrefijoAproximadoYRangos() {
+        indice.construir();
+
+        assertThat(nombres(indice.buscar(BusquedaProductoDto.builder().q("tecla").limit(100).build())))
+                .allMatch(nombre -> nombre.startsWith("Teclado")).hasSize(PRODUCTOS / 3);
+        assertThat(indice.buscar(BusquedaProductoDto.builder().q("tecaldo").build()).getTotal()).isZero();
+        assertThat(indice.buscar(BusquedaProductoDto.builder().q("tecaldo").fuzzy(true).build()).getTotal())
+                .isEqualTo(PRODUCTOS / 3);
+        assertThat(indice.buscar(BusquedaProductoDto.builder().q("Mouse inalambrico").build()).getTotal())
+                .isEqualTo(PRODUCTOS / 3);
+
+        verificar(BusquedaProductoDto.builder().precioMin(100.0).precioMax(200.0).categoriaId(2).build(),
+                producto -> producto.precio() >= 100 && producto.precio() <= 200);
+        verificar(BusquedaProductoDto.builder().cantidadMax(3).estaDisponible(true).build(),
+                producto -> producto.cantidad() <= 3 && producto.estaDisponible());
+        verificar(BusquedaProductoDto.builder().q("monitor").cantidadMin(10).build(),
+                producto -> producto.nombre().startsWith("Monitor") && producto.cantidad() >= 10);
+    }
+
+    @Test
+    void indexarYEliminarActualizanTodosLosIndices() {
+        indice.construir();
+        ProductoEntity actualizado = new ProductoEntity("Parlante portatil", 15, 9999.0, true);
+        actualizado.setId(4);
+        actualizado.setCategoria(CategoriaEntity.builder().id(3).nombre("Categoria 3").build());
+
+        indice.indexar(actualizado);
+        indice.eliminar(8);
+
+        assertThat(nombres(indice.buscar(BusquedaProductoDto.builder().q("parlante").build())))
+                .containsExactly("Parlante portatil");
+        assertThat(indice.buscar(BusquedaProductoDto.builder().precioMin(9000.0).build()).getTotal()).isEqualTo(1);
+        assertThat(indice.buscar(BusquedaProductoDto.builder().estaDisponible(true).categoriaId(3).limit(100).build())
+                .getProductos()).extracting(ProductoDto::getNombre).contains("Parlante portatil");
+        assertThat(indice.buscar(new BusquedaProductoDto()).getTotal()).isEqualTo(PRODUCTOS - 1);
+    }
+
+    @Test
+    void reconstruirReemplazaElContenidoYConservaLosCambiosDuranteLaLectura() {
+        indice.construir();
+        ProductoEntity indexadoDuranteLaLectura = new ProductoEntity("Parlante portatil", 15, 9999.0, true);
+        indexadoDuranteLaLectura.setId(2);
+        when(iProductoRepository.streamAll()).thenAnswer(invocacion -> {
+            // Cambios de esta instancia mientras se lee el catalogo: la versión leida puede ser anterior
+            indice.indexar(indexadoDuranteLaLectura);
+            indice.eliminar(3);
+            return productos.stream().limit(100);
+        });
+
+        indice.reconstruir();
+
+        assertThat(indice.buscar(new BusquedaProductoDto()).getTotal()).isEqualTo(99);
+        assertThat(indice.buscar(BusquedaProductoDto.builder().cantidadMin(0).limit(100).build()).getTotal())
+                .isEqualTo(99);
+        assertThat(nombres(indice.buscar(BusquedaProductoDto.builder().q("parlante").build())))
+                .containsExactly("Parlante portatil");
+        assertThat(indice.buscar(BusquedaProductoDto.builder().q("mouse 298").build()).getTotal()).isZero();
+        assertThat(indice.buscar(BusquedaProductoDto.builder().q("teclado 3").build()).getProductos())
+                .extracting(ProductoDto::getNombre).doesNotContain("Teclado mecanico 3");
+    }
+
+    private void verificar(BusquedaProductoDto filtros, Predicate<ProductoProyeccion> cumple) {
+        List<ProductoProyeccion> esperados = productos.stream().filter(cumple).toList();
+        List<ProductoProyeccion> deCategoria = esperados.stream()
+                .filter(producto -> filtros.getCategoriaId() == null || filtros.getCategoriaId().equals(producto.categoriaId()))
+                .toList();
+        Map<Integer, Long> facetas = esperados.stream().map(ProductoProyeccion::categoriaId).filter(Objects::nonNull)
+                .collect(Collectors.groupingBy(id -> id, Collectors.counting()));
+
+        ResultadoBusquedaDto resultado = indice.buscar(filtros);
+
+        assertThat(resultado.getTotal()).as(filtros.toString()).isEqualTo(deCategoria.size());
+        assertThat(resultado.getProductos()).as(filtros.toString())
+                .isEqualTo(deCategoria.stream().limit(filtros.getLimit()).map(ProductoProyeccion::toDto).toList());
+        assertThat(resultado.getCategorias()).as(filtros.toString())
+                .extracting(FacetaDto::getCategoriaId, FacetaDto::getCantidad)
+                .containsExactlyInAnyOrderElementsOf(facetas.entrySet().stream()
+                        .map(faceta -> tuple(faceta.getKey(), faceta.getValue())).toList());
+    }
+
+    private static List<String> nombres(ResultadoBusquedaDto resultado) {
+        return resultado.getProductos().stream().map(ProductoDto::getNombre).toList();
+    }
+
+    private static String nombre(int id) {
+        return switch (id % 3) {
+            case 0 -> "Teclado mecanico " + id;
+            case 1 -> "Mouse inalambrico " + id;
+            default -> "Monitor curvo " + id;
+        };
+    }
+}
@@ -0,0 +1,146 @@
+package com.devsenior.co.producto.service;
+
+import com.devsenior.co.producto.model.CambioCatalogoDto;
+import com.devsenior.co.producto.model.EntidadCatalogo;
+import com.devsenior.co.producto.model.FeedCambiosDto;
+import com.devsenior.co.producto.model.OperacionCambio;
+import com.devsenior.co.producto.model.entity.CambioCatalogoEntity;
+import com.devsenior.co.producto.model.entity.ProductoEntity;
+import com.devsenior.co.producto.repository.ICambioCatalogoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jackson.autoconfigure.JacksonAutoConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Prueba el outbox y el relay con la base de datos embebida: los eventos se confirman o se revierten
+ * con la transacción que los escribe, y el relay los publica por lotes en orden con una secuencia sin huecos.
+ * Sin transacción de prueba para que cada escritura y cada lote del relay se confirmen de verdad.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database=h2",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "producto.outbox.periodo=1h",
+        "producto.outbox.tamano-lote=2"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({CambioCatalogoService.class, RelayCambiosService.class, RelayCambiosServiceTest.Capturador.class})
+class RelayCambiosServiceTest {
+
+    @Autowired
+    private CambioCatalogoService cambioCatalogoService;
+
+    @Autowired
+    private RelayCambiosService relayCambiosService;
+
+    @Autowired
+    private ICambioCatalogoRepository iCambioCatalogoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private Capturador capturador;
+
+    @Test
+    void publicaLosEventosConfirmadosPorLotesYEnOrden() {
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        long inicial = cambioCatalogoService.getUltimaSecuencia();
+        transaccion.executeWithoutResult(status -> {
+            cambioCatalogoService.registrar(producto(1, "Cafe"), OperacionCambio.CREADO);
+            cambioCatalogoService.registrar(producto(2, "Te"), OperacionCambio.CREADO);
+        });
+        transaccion.executeWithoutResult(status -> {
+            cambioCatalogoService.registrar(producto(1, "Cafe molido"), OperacionCambio.ACTUALIZADO);
+            cambioCatalogoService.registrarEliminacion(EntidadCatalogo.PRODUCTO, 2);
+        });
+        // El evento de una transacción revertida no debe publicarse
+        transaccion.executeWithoutResult(status -> {
+            cambioCatalogoService.registrar(producto(3, "Revertido"), OperacionCambio.CREADO);
+            status.setRollbackOnly();
+        });
+        transaccion.executeWithoutResult(status ->
+                cambioCatalogoService.registrar(producto(4, "Agua"), OperacionCambio.CREADO));
+
+        assertThat(relayCambiosService.publicarPendientes()).isEqualTo(5);
+        assertThat(relayCambiosService.publicarPendientes()).isZero();
+
+        // Con tamano-lote=2 el relay entrega tres lotes
+        assertThat(capturador.lotes).extracting(List::size).containsExactly(2, 2, 1);
+        List<CambioCatalogoDto> publicados = capturador.lotes.stream().flatMap(List::stream).toList();
+        assertThat(publicados).extracting(CambioCatalogoDto::getSecuencia)
+                .containsExactly(inicial + 1, inicial + 2, inicial + 3, inicial + 4, inicial + 5);
+        assertThat(publicados).extracting(CambioCatalogoDto::getEntidadId).containsExactly(1, 2, 1, 2, 4);
+        assertThat(publicados.get(3).getOperacion()).isEqualTo(OperacionCambio.ELIMINADO);
+        assertThat(publicados.get(2).getDatos()).contains("\"nombre\":\"Cafe molido\"");
+
+        // El feed continua desde la secuencia que el cliente ya recibió
+        FeedCambiosDto feed = cambioCatalogoService.findDesde(inicial + 2, 2);
+        assertThat(feed.getCambios()).extracting(CambioCatalogoDto::getSecuencia).containsExactly(inicial + 3, inicial + 4);
+        assertThat(feed.isHayMas()).isTrue();
+        feed = cambioCatalogoService.findDesde(feed.getUltimaSecuencia(), 2);
+        assertThat(feed.getCambios()).extracting(CambioCatalogoDto::getEntidadId).containsExactly(4);
+        assertThat(feed.isHayMas()).isFalse();
+        assertThat(iCambioCatalogoRepository.count()).isEqualTo(5);
+    }
+
+    @Test
+    @DirtiesContext
+    void purgaLosPublicadosAntiguosYConservaElUltimoYLosPendientes() {
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        transaccion.executeWithoutResult(status -> {
+            cambioCatalogoService.registrar(producto(1, "Cafe"), OperacionCambio.CREADO);
+            cambioCatalogoService.registrar(producto(2, "Te"), OperacionCambio.CREADO);
+            cambioCatalogoService.registrar(producto(3, "Agua"), OperacionCambio.CREADO);
+        });
+        relayCambiosService.publicarPendientes();
+        long ultima = cambioCatalogoService.getUltimaSecuencia();
+        transaccion.executeWithoutResult(status ->
+                cambioCatalogoService.registrar(producto(4, "Pendiente"), OperacionCambio.CREADO));
+
+        ReflectionTestUtils.setField(relayCambiosService, "retencion", Duration.ofHours(1));
+        assertThat(relayCambiosService.purgarPublicados()).isZero();
+
+        // Todos menos el ultimo publicado y el pendiente, incluidos los de otras pruebas
+        long antiguos = iCambioCatalogoRepository.count() - 2;
+        ReflectionTestUtils.setField(relayCambiosService, "retencion", Duration.ofMillis(-1));
+        assertThat(relayCambiosService.purgarPublicados()).isEqualTo(antiguos);
+        assertThat(iCambioCatalogoRepository.findAll()).extracting(CambioCatalogoEntity::getSecuencia)
+                .containsExactlyInAnyOrder(ultima, null);
+
+        // La secuencia continua desde el ultimo publicado
+        relayCambiosService.publicarPendientes();
+        assertThat(cambioCatalogoService.getUltimaSecuencia()).isEqualTo(ultima + 1);
+    }
+
+    private ProductoEntity producto(Integer id, String nombre) {
+        ProductoEntity producto = new ProductoEntity(nombre, 10, 2.5, true);
+        producto.setId(id);
+        return producto;
+    }
+
+    static class Capturador implements PublicadorCambios {
+
+        private final List<List<CambioCatalogoDto>> lotes = new ArrayList<>();
+
+        @Override
+        public void publicar(List<CambioCatalogoDto> cambios) {
+            lotes.add(cambios);
+        }
+    }
+}
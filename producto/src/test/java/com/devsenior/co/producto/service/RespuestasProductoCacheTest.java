@@ -0,0 +1,100 @@
+package com.devsenior.co.producto.service;
+
+import com.devsenior.co.producto.model.PaginaDto;
+import com.devsenior.co.producto.model.ProductoDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Las respuestas se serializan una vez y cada escritura invalida solo el producto y las páginas que lo contienen.
+ */
+class RespuestasProductoCacheTest {
+
+    private final JsonMapper mapper = new JsonMapper();
+    private final RespuestasProductoCache cache = new RespuestasProductoCache(mapper, new SimpleMeterRegistry());
+    private final AtomicInteger lecturas = new AtomicInteger();
+
+    @BeforeEach
+    void configurar() {
+        ReflectionTestUtils.setField(cache, "habilitado", true);
+        ReflectionTestUtils.setField(cache, "maxProductos", 100);
+        ReflectionTestUtils.setField(cache, "maxPaginas", 100);
+        ReflectionTestUtils.setField(cache, "minimoGzip", DataSize.ofKilobytes(2));
+    }
+
+    @Test
+    void serializaIgualQueJacksonYComprimeSoloLasRespuestasGrandes() throws IOException {
+        PaginaDto<ProductoDto> pagina = pagina(100);
+        ProductoDto producto = new ProductoDto("Producto 1", 3, 1.5, true);
+
+        RespuestasProductoCache.RespuestaSerializada grande = cache.pagina(0, 100, () -> leer(pagina, 100));
+        RespuestasProductoCache.RespuestaSerializada pequena = cache.producto(1, () -> producto);
+
+        assertThat(grande.json()).isEqualTo(mapper.writeValueAsBytes(pagina));
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(grande.gzip()))) {
+            assertThat(gzip.readAllBytes()).isEqualTo(grande.json());
+        }
+        assertThat(pequena.json()).isEqualTo(mapper.writeValueAsBytes(producto));
+        assertThat(pequena.gzip()).isNull();
+    }
+
+    @Test
+    void invalidaSoloElProductoYLasPaginasQueLoContienen() {
+        cache.pagina(0, 20, () -> leer(pagina(20), 20));
+        cache.pagina(20, 20, () -> leer(pagina(20), 40));
+        cache.pagina(40, 20, () -> leer(pagina(5), Integer.MAX_VALUE));
+        cache.producto(25, () -> new ProductoDto("Producto 25", 1, 1.0, true));
+        cache.producto(26, () -> new ProductoDto("Producto 26", 1, 1.0, true));
+        lecturas.set(0);
+
+        cache.invalidar(25);
+        cache.invalidar(List.of(3, 500));
+
+        cache.pagina(0, 20, () -> leer(pagina(20), 20));
+        cache.pagina(20, 20, () -> leer(pagina(20), 40));
+        cache.pagina(40, 20, () -> leer(pagina(5), Integer.MAX_VALUE));
+        cache.producto(25, () -> leido(new ProductoDto("Producto 25", 2, 1.0, true)));
+        cache.producto(26, () -> leido(new ProductoDto("Producto 26", 2, 1.0, true)));
+        assertThat(lecturas).hasValue(4);
+    }
+
+    @Test
+    void noConservaLaRespuestaLeidaMientrasSeInvalida() {
+        cache.producto(1, () -> {
+            cache.invalidar(1);
+            return leido(new ProductoDto("Anterior", 1, 1.0, true));
+        });
+        RespuestasProductoCache.RespuestaSerializada actual = cache.producto(1, () -> leido(new ProductoDto("Actual", 1, 1.0, true)));
+
+        assertThat(lecturas).hasValue(2);
+        assertThat(mapper.readTree(actual.json()).get("nombre").asString()).isEqualTo("Actual");
+    }
+
+    private PaginaDto<ProductoDto> pagina(int productos) {
+        return new PaginaDto<>(IntStream.range(0, productos)
+                .mapToObj(i -> new ProductoDto("Producto " + i, i % 16, i * 1.5, i % 2 == 0)).toList(), null, productos);
+    }
+
+    private RespuestasProductoCache.LecturaPagina leer(PaginaDto<ProductoDto> pagina, int hasta) {
+        lecturas.incrementAndGet();
+        return new RespuestasProductoCache.LecturaPagina(pagina, hasta);
+    }
+
+    private <T> T leido(T valor) {
+        lecturas.incrementAndGet();
+        return valor;
+    }
+}
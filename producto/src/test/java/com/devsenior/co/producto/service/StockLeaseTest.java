@@ -0,0 +1,50 @@
+package com.devsenior.co.producto.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StockLeaseTest {
+
+    @Test
+    void conservaElStockArrendadoSiLaBaseDeDatosFalla() {
+        StockLease lease = new StockLease(4);
+        assertThat(lease.tomar(1, faltante -> 10)).isEqualTo(StockLease.Resultado.RESERVADO);
+
+        try {
+            lease.tomar(20, faltante -> {
+                throw new IllegalStateException("sin conexión");
+            });
+        } catch (IllegalStateException ignored) {
+            // esperado
+        }
+
+        assertThat(lease.drenar()).isEqualTo(9);
+    }
+
+    @Test
+    void lasLiberacionesVuelvenAlContador() {
+        StockLease lease = new StockLease(4);
+        assertThat(lease.tomar(5, faltante -> 5)).isEqualTo(StockLease.Resultado.RESERVADO);
+        assertThat(lease.tomar(1, faltante -> 0)).isEqualTo(StockLease.Resultado.SIN_STOCK);
+
+        assertThat(lease.devolver(3)).isZero();
+
+        assertThat(lease.tomar(3, faltante -> 0)).isEqualTo(StockLease.Resultado.RESERVADO);
+        assertThat(lease.drenar()).isZero();
+    }
+
+    @Test
+    void cerradoNoArriendaYLoDevueltoSaleDeMemoria() {
+        StockLease lease = new StockLease(4);
+        assertThat(lease.tomar(1, faltante -> 5)).isEqualTo(StockLease.Resultado.RESERVADO);
+
+        assertThat(lease.cerrar()).isEqualTo(4);
+
+        assertThat(lease.tomar(1, faltante -> {
+            throw new AssertionError("no debe arrendar");
+        })).isEqualTo(StockLease.Resultado.CERRADO);
+        assertThat(lease.devolver(2)).isEqualTo(2);
+        assertThat(lease.disponible()).isZero();
+    }
+}
@@ -0,0 +1,180 @@
+package com.devsenior.co.producto.service;
+
+import com.devsenior.co.producto.model.OperacionCambio;
+import com.devsenior.co.producto.model.entity.CambioCatalogoEntity;
+import com.devsenior.co.producto.model.entity.ProductoEntity;
+import com.devsenior.co.producto.repository.ICambioCatalogoRepository;
+import com.devsenior.co.producto.repository.IProductoRepository;
+import com.devsenior.co.producto.shared.config.CacheConfig;
+import com.devsenior.co.producto.shared.exceptions.RecursoNoEncontradoException;
+import com.devsenior.co.producto.shared.exceptions.StockInsuficienteException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jackson.autoconfigure.JacksonAutoConfiguration;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Reservas contra H2: el UPDATE condicional no deja la cantidad negativa, cada cambio registra su evento
+ * y llega al indice y a la cache, y con el stock arrendado en memoria varios hilos no reservan más de lo que hay.
+ * Un producto que deja de ser caliente, o cuya cantidad se va a fijar, devuelve el stock arrendado.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database=h2",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "producto.stock.umbral-caliente=5",
+        "producto.stock.tamano-lease=5",
+        "producto.stock.franjas=2"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({StockReservaService.class, CambioCatalogoService.class})
+class StockReservaServiceTest {
+
+    @Autowired
+    private StockReservaService stockReservaService;
+
+    @Autowired
+    private IProductoRepository iProductoRepository;
+
+    @Autowired
+    private ICambioCatalogoRepository iCambioCatalogoRepository;
+
+    @MockitoBean
+    private ProductoSearchIndex productoSearchIndex;
+
+    @MockitoBean
+    private CatalogoVersionService catalogoVersionService;
+
+    @MockitoBean
+    private CatalogoColumnar catalogoColumnar;
+
+    @MockitoBean
+    private RespuestasProductoCache respuestasProductoCache;
+
+    @MockitoBean
+    private CacheManager cacheManager;
+
+    private final Cache productos = mock(Cache.class);
+
+    @Test
+    void elUpdateCondicionalRechazaLoQueNoAlcanzaYRegistraCadaCambio() {
+        when(cacheManager.getCache(CacheConfig.PRODUCTOS)).thenReturn(productos);
+        Integer id = iProductoRepository.save(new ProductoEntity("Reservable", 10, 5.0, true)).getId();
+
+        stockReservaService.reservar(id, 4);
+        assertThatThrownBy(() -> stockReservaService.reservar(id, 7)).isInstanceOf(StockInsuficienteException.class);
+        assertThatThrownBy(() -> stockReservaService.reservar(-1, 1)).isInstanceOf(RecursoNoEncontradoException.class);
+        stockReservaService.liberar(id, 2);
+
+        assertThat(cantidad(id)).isEqualTo(8);
+        assertThat(ajustesDeStock(id)).extracting(CambioCatalogoEntity::getDatos)
+                .containsExactly("{\"id\":" + id + ",\"diferencia\":-4}", "{\"id\":" + id + ",\"diferencia\":2}");
+        verify(productoSearchIndex).ajustarCantidad(id, -4);
+        verify(productoSearchIndex).ajustarCantidad(id, 2);
+        verify(productos, times(2)).clear();
+    }
+
+    @Test
+    void elStockEnMemoriaNoSobrevendeConVariosHilos() throws InterruptedException {
+        Integer id = iProductoRepository.save(new ProductoEntity("Caliente", 15, 5.0, true)).getId();
+        // El indice no conoce la cantidad: los bloques son de tamanoLease
+        when(productoSearchIndex.cantidad(id)).thenReturn(null);
+        for (int i = 0; i < 5; i++) {
+            stockReservaService.reservar(id, 1);
+        }
+        stockReservaService.consolidar();
+        assertThat(stockReservaService.getStockEnMemoria()).containsKey(id);
+
+        int hilos = 4;
+        AtomicInteger reservadas = new AtomicInteger();
+        CountDownLatch fin = new CountDownLatch(hilos);
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        for (int i = 0; i < hilos; i++) {
+            executor.execute(() -> {
+                try {
+                    // Solo hay reservas, un rechazo significa que el stock se agotó
+                    while (true) {
+                        stockReservaService.reservar(id, 1);
+                        reservadas.incrementAndGet();
+                    }
+                } catch (StockInsuficienteException e) {
+                    // esperado
+                } finally {
+                    fin.countDown();
+                }
+            });
+        }
+        assertThat(fin.await(30, TimeUnit.SECONDS)).isTrue();
+        executor.shutdown();
+        stockReservaService.consolidar();
+
+        assertThat(reservadas).hasValue(10);
+        assertThat(cantidad(id)).isZero();
+        assertThat(stockReservaService.getStockEnMemoria()).containsEntry(id, 0);
+        // Con el stock arrendado por bloques de 5 la base de datos recibe dos descuentos en lugar de diez
+        assertThat(ajustesDeStock(id)).hasSize(5 + 2);
+    }
+
+    @Test
+    void devuelveElArriendoCuandoDejaDeSerCalienteOAntesDeFijarLaCantidad() {
+        Integer id = iProductoRepository.save(new ProductoEntity("Tibio", 15, 5.0, true)).getId();
+        when(productoSearchIndex.cantidad(id)).thenReturn(null);
+        calentar(id);
+        stockReservaService.reservar(id, 1);
+        assertThat(cantidad(id)).isEqualTo(15 - 5 - 5);
+
+        // Sin operaciones en el periodo deja de ser caliente y el sobrante vuelve a la base de datos
+        stockReservaService.consolidar();
+        assertThat(stockReservaService.getStockEnMemoria()).doesNotContainKey(id);
+        assertThat(cantidad(id)).isEqualTo(15 - 5 - 1);
+        assertThat(stockReservaService.reservar(id, 1).isEnMemoria()).isFalse();
+
+        calentar(id);
+        stockReservaService.reservar(id, 1);
+        stockReservaService.devolverArriendo(id);
+        assertThat(stockReservaService.getStockEnMemoria()).doesNotContainKey(id);
+        assertThat(cantidad(id)).isEqualTo(15 - 5 - 1 - 1 - 5 - 1);
+    }
+
+    /**
+     * Cinco reservas en la base de datos hacen caliente al producto en la siguiente consolidación.
+     */
+    private void calentar(Integer id) {
+        for (int i = 0; i < 5; i++) {
+            stockReservaService.reservar(id, 1);
+        }
+        stockReservaService.consolidar();
+        assertThat(stockReservaService.getStockEnMemoria()).containsKey(id);
+    }
+
+    private int cantidad(Integer id) {
+        return iProductoRepository.findById(id).orElseThrow().getCantidad();
+    }
+
+    private List<CambioCatalogoEntity> ajustesDeStock(Integer id) {
+        return iCambioCatalogoRepository.findAll().stream()
+                .filter(cambio -> cambio.getOperacion() == OperacionCambio.STOCK_AJUSTADO && id.equals(cambio.getEntidadId()))
+                .toList();
+    }
+}
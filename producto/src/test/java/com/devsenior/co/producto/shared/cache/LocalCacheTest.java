@@ -0,0 +1,95 @@
+package com.devsenior.co.producto.shared.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalCacheTest {
+
+    private final AtomicLong reloj = new AtomicLong();
+
+    @Test
+    void desalojaLaEntradaMenosUsadaAlSuperarElTamano() {
+        LocalCache<Integer, String> cache = new LocalCache<>(2, Duration.ofMinutes(1), reloj::get);
+        cache.put(1, "uno");
+        cache.put(2, "dos");
+        cache.get(1);
+        cache.put(3, "tres");
+
+        assertThat(cache.get(1)).isEqualTo("uno");
+        assertThat(cache.get(2)).isNull();
+        assertThat(cache.get(3)).isEqualTo("tres");
+        assertThat(cache.stats().desalojos()).isEqualTo(1);
+    }
+
+    @Test
+    void expiraLasEntradasDespuesDelTtl() {
+        LocalCache<Integer, String> cache = new LocalCache<>(10, Duration.ofSeconds(5), reloj::get);
+        cache.put(1, "uno");
+
+        reloj.addAndGet(Duration.ofSeconds(4).toNanos());
+        assertThat(cache.get(1)).isEqualTo("uno");
+
+        reloj.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertThat(cache.get(1)).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void cuentaAciertosYFallos() {
+        LocalCache<Integer, String> cache = new LocalCache<>(10, Duration.ofMinutes(1), reloj::get);
+        cache.put(1, "uno");
+        cache.get(1);
+        cache.get(1);
+        cache.get(2);
+
+        CacheStats stats = cache.stats();
+        assertThat(stats.aciertos()).isEqualTo(2);
+        assertThat(stats.fallos()).isEqualTo(1);
+        assertThat(stats.tasaAciertos()).isEqualTo(2.0 / 3);
+    }
+
+    @Test
+    void tieredCacheConsultaElSegundoNivelYLoInvalida() {
+        InMemorySecondLevel secondLevel = new InMemorySecondLevel();
+        secondLevel.put("productos", "pagina", "valor-compartido");
+        TieredCache cache = new TieredCache("productos", new LocalCache<>(10, Duration.ofMinutes(1), reloj::get), secondLevel);
+
+        assertThat(cache.get("pagina").get()).isEqualTo("valor-compartido");
+        assertThat(cache.getStats().entradas()).isEqualTo(1);
+
+        cache.clear();
+        assertThat(cache.get("pagina")).isNull();
+    }
+
+    private static class InMemorySecondLevel implements SecondLevelCacheProvider {
+
+        private final Map<String, Object> valores = new HashMap<>();
+
+        @Override
+        public Optional<Object> get(String cacheName, Object key) {
+            return Optional.ofNullable(valores.get(cacheName + ":" + key));
+        }
+
+        @Override
+        public void put(String cacheName, Object key, Object value) {
+            valores.put(cacheName + ":" + key, value);
+        }
+
+        @Override
+        public void evict(String cacheName, Object key) {
+            valores.remove(cacheName + ":" + key);
+        }
+
+        @Override
+        public void clear(String cacheName) {
+            valores.keySet().removeIf(key -> key.startsWith(cacheName + ":"));
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.devsenior.co.producto.shared.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtAuthConverterTest {
+
+    private final AtomicLong reloj = new AtomicLong();
+    private final JwtAuthConverter converter = new JwtAuthConverter(100, Duration.ofMinutes(10), reloj::get);
+
+    @Test
+    void reutilizaLasAutoridadesDelMismoTokenConYSinJti() {
+        Jwt conJti = jwt("token-1", "jti-1", Duration.ofHours(1));
+        Jwt sinJti = jwt("token-2", null, Duration.ofHours(1));
+
+        Collection<GrantedAuthority> primera = converter.convert(conJti);
+        Collection<GrantedAuthority> sinJtiPrimera = converter.convert(sinJti);
+
+        assertThat(converter.convert(conJti)).isSameAs(primera);
+        assertThat(converter.convert(jwt("token-2", null, Duration.ofHours(1)))).isSameAs(sinJtiPrimera);
+        assertThat(converter.convert(jwt("token-3", null, Duration.ofHours(1)))).isNotSameAs(sinJtiPrimera);
+        assertThat(primera).extracting(GrantedAuthority::getAuthority).contains("ROLE_producto-rol1");
+        assertThat(converter.getStats().aciertos()).isEqualTo(2);
+        assertThat(converter.getStats().fallos()).isEqualTo(3);
+    }
+
+    @Test
+    void laEntradaDuraHastaLaExpiracionDelTokenSinSuperarElMaximo() {
+        Jwt corto = jwt("token-corto", "corto", Duration.ofMinutes(1));
+        Jwt largo = jwt("token-largo", "largo", Duration.ofHours(1));
+        Jwt expirado = jwt("token-expirado", "expirado", Duration.ofMinutes(-1));
+        converter.convert(corto);
+        converter.convert(largo);
+        converter.convert(expirado);
+
+        reloj.addAndGet(Duration.ofMinutes(2).toNanos());
+        converter.convert(corto);
+        converter.convert(largo);
+        converter.convert(expirado);
+        assertThat(converter.getStats().aciertos()).isEqualTo(1);
+
+        reloj.addAndGet(Duration.ofMinutes(9).toNanos());
+        converter.convert(largo);
+        assertThat(converter.getStats().aciertos()).isEqualTo(1);
+    }
+
+    @Test
+    void alLlegarAlMaximoQuitaLosTokensVencidosYNoGuardaSiSigueLleno() {
+        JwtAuthConverter limitado = new JwtAuthConverter(2, Duration.ofMinutes(10), reloj::get);
+        limitado.convert(jwt("token-1", "1", Duration.ofMinutes(1)));
+        limitado.convert(jwt("token-2", "2", Duration.ofHours(1)));
+
+        // Lleno sin vencidos: el token nuevo no se guarda
+        limitado.convert(jwt("token-3", "3", Duration.ofHours(1)));
+        assertThat(limitado.getStats().entradas()).isEqualTo(2);
+
+        reloj.addAndGet(Duration.ofMinutes(2).toNanos());
+        limitado.convert(jwt("token-3", "3", Duration.ofHours(1)));
+        limitado.convert(jwt("token-3", "3", Duration.ofHours(1)));
+        assertThat(limitado.getStats().desalojos()).isEqualTo(1);
+        assertThat(limitado.getStats().entradas()).isEqualTo(2);
+        assertThat(limitado.getStats().aciertos()).isEqualTo(1);
+    }
+
+    private static Jwt jwt(String token, String jti, Duration vigencia) {
+        Instant ahora = Instant.now();
+        Jwt.Builder builder = Jwt.withTokenValue(token)
+                .header("alg", "RS256")
+                .issuedAt(ahora.minusSeconds(600))
+                .expiresAt(ahora.plus(vigencia))
+                .claim("realm_access", Map.of("roles", List.of("producto-rol1")));
+        return (jti == null ? builder : builder.jti(jti)).build();
+    }
+}
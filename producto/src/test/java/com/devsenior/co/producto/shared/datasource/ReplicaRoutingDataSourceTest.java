@@ -0,0 +1,117 @@
+package com.devsenior.co.producto.shared.datasource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Dos bases H2 en memoria hacen de primaria y replica; cada una tiene una tabla que dice cual es,
+ * asi la consulta muestra a donde se envió la transacción.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private DataSource primaria;
+    private DataSource replica;
+    private String cliente;
+
+    @BeforeEach
+    void crearBases() {
+        primaria = base("primaria");
+        replica = base("replica");
+    }
+
+    @Test
+    void lasTransaccionesDeSoloLecturaVanALaReplica() {
+        Enrutado enrutado = new Enrutado(Duration.ZERO);
+
+        assertThat(enrutado.leer()).isEqualTo("replica");
+        assertThat(enrutado.escribir()).isEqualTo("primaria");
+        assertThat(enrutado.leer()).isEqualTo("replica");
+        // Sin transacción se usa la primaria
+        assertThat(enrutado.jdbcTemplate.queryForObject("select nombre from origen", String.class)).isEqualTo("primaria");
+    }
+
+    @Test
+    void despuesDeUnaEscrituraLasLecturasSiguenEnLaPrimariaDuranteLaVentana() throws InterruptedException {
+        Enrutado enrutado = new Enrutado(Duration.ofMillis(200));
+        cliente = "cliente-a";
+
+        assertThat(enrutado.leer()).isEqualTo("replica");
+        enrutado.escribir();
+        assertThat(enrutado.leer()).isEqualTo("primaria");
+        Thread.sleep(250);
+        assertThat(enrutado.leer()).isEqualTo("replica");
+    }
+
+    @Test
+    void laVentanaSoloAplicaAlClienteQueEscribio() {
+        Enrutado enrutado = new Enrutado(Duration.ofMinutes(1));
+        cliente = "cliente-a";
+        enrutado.escribir();
+
+        assertThat(enrutado.leer()).isEqualTo("primaria");
+        cliente = "cliente-b";
+        assertThat(enrutado.leer()).isEqualTo("replica");
+        // Sin cliente (tareas programadas) se lee de la replica
+        cliente = null;
+        assertThat(enrutado.leer()).isEqualTo("replica");
+    }
+
+    @Test
+    void unaEscrituraRevertidaNoAbreLaVentana() {
+        Enrutado enrutado = new Enrutado(Duration.ofMinutes(1));
+        cliente = "cliente-a";
+
+        enrutado.transaccion.executeWithoutResult(status -> {
+            enrutado.jdbcTemplate.update("update origen set escrituras = escrituras + 1");
+            status.setRollbackOnly();
+        });
+        assertThat(enrutado.leer()).isEqualTo("replica");
+    }
+
+    private DataSource base(String nombre) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + nombre + "-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table origen (nombre varchar(20), escrituras int)");
+        jdbcTemplate.update("insert into origen values (?, 0)", nombre);
+        return dataSource;
+    }
+
+    private class Enrutado {
+
+        private final JdbcTemplate jdbcTemplate;
+        private final TransactionTemplate transaccion;
+        private final TransactionTemplate lectura;
+
+        private Enrutado(Duration lecturaPropia) {
+            DataSource dataSource = new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primaria, replica,
+                    lecturaPropia, () -> cliente));
+            DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+            jdbcTemplate = new JdbcTemplate(dataSource);
+            transaccion = new TransactionTemplate(transactionManager);
+            lectura = new TransactionTemplate(transactionManager);
+            lectura.setReadOnly(true);
+        }
+
+        private String leer() {
+            return lectura.execute(status -> jdbcTemplate.queryForObject("select nombre from origen", String.class));
+        }
+
+        private String escribir() {
+            return transaccion.execute(status -> {
+                jdbcTemplate.update("update origen set escrituras = escrituras + 1");
+                return jdbcTemplate.queryForObject("select nombre from origen", String.class);
+            });
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.devsenior.co.producto.shared.exceptions;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GlobalExceptionHandlerTest {
+
+    private final JsonMapper mapper = new JsonMapper();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler(mapper, meterRegistry);
+
+    @Test
+    void losErroresEsperadosNoCapturanElStackTrace() {
+        assertThat(new RecursoNoEncontradoException("no existe").getStackTrace()).isEmpty();
+        assertThat(new SolicitudInvalidaException("invalida").getStackTrace()).isEmpty();
+    }
+
+    @Test
+    void escribeElCuerpoConElEstadoDelTipoYCuentaPorTipo() {
+        ResponseEntity<byte[]> noEncontrado = handler.handleException(new RecursoNoEncontradoException("El producto con id: 1 no existe."));
+        handler.handleException(new RecursoNoEncontradoException("El producto con id: 2 no existe."));
+        ResponseEntity<byte[]> invalida = handler.handleException(new SolicitudInvalidaException("El cursor: x no es valido."));
+
+        assertThat(noEncontrado.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(noEncontrado.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        JsonNode cuerpo = mapper.readTree(new String(noEncontrado.getBody(), StandardCharsets.UTF_8));
+        assertThat(cuerpo.get("status").asInt()).isEqualTo(404);
+        assertThat(cuerpo.get("error").asString()).isEqualTo("El producto con id: 1 no existe.");
+        assertThat(cuerpo.get("timestamp").asString()).matches("\\d{4}-\\d{2}-\\d{2}T[\\d:.]+Z");
+        assertThat(cuerpo.has("errors")).isFalse();
+        assertThat(invalida.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+
+        assertThat(meterRegistry.get("app.errores").tag("tipo", "RecursoNoEncontradoException").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("app.errores").tag("tipo", "SolicitudInvalidaException").tag("status", "400").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void cuentaPorTipoYEstado() {
+        handler.handleException(new CustomException("No existe", new Date()));
+        handler.handleException(new CustomException("En conflicto", HttpStatus.CONFLICT));
+        handler.handleException(new CustomException("En conflicto", HttpStatus.CONFLICT));
+
+        assertThat(meterRegistry.get("app.errores").tag("tipo", "CustomException").tag("status", "404").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("app.errores").tag("tipo", "CustomException").tag("status", "409").counter().count()).isEqualTo(2);
+    }
+}
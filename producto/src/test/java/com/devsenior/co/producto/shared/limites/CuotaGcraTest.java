@@ -0,0 +1,89 @@
+package com.devsenior.co.producto.shared.limites;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CuotaGcraTest {
+
+    private static final long SEGUNDO = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void permiteLaRafagaYLuegoLaTasaSostenida() {
+        CuotaGcra cuota = new CuotaGcra("/productos", 10, 5, 1000);
+        long ahora = 0;
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(cuota.intentar("cliente", ahora)).isZero();
+        }
+        // Con la rafaga agotada la siguiente se habilita en un intervalo (100 ms)
+        assertThat(cuota.intentar("cliente", ahora)).isEqualTo(SEGUNDO / 10);
+        assertThat(cuota.intentar("cliente", ahora + SEGUNDO / 10)).isZero();
+        assertThat(cuota.intentar("cliente", ahora + SEGUNDO / 10)).isPositive();
+
+        // Otro cliente tiene su propio cupo
+        assertThat(cuota.intentar("otro", ahora)).isZero();
+
+        // Despues de medio segundo inactivo vuelve a tener la rafaga completa
+        long despues = ahora + SEGUNDO / 10 + SEGUNDO / 2;
+        for (int i = 0; i < 5; i++) {
+            assertThat(cuota.intentar("cliente", despues)).isZero();
+        }
+        assertThat(cuota.intentar("cliente", despues)).isPositive();
+    }
+
+    @Test
+    void losClientesConElCupoCompletoSeLimpian() {
+        CuotaGcra cuota = new CuotaGcra("/productos", 10, 5, 1000);
+        cuota.intentar("a", 0);
+        cuota.intentar("b", 0);
+        cuota.limpiar(SEGUNDO);
+        assertThat(cuota.getClientes()).isZero();
+    }
+
+    @Test
+    void conLaTablaLlenaSeQuitanLosClientesConCupoAntesDeCompartirElContador() {
+        CuotaGcra cuota = new CuotaGcra("/productos", 10, 2, 2);
+        cuota.intentar("a", 0);
+        cuota.intentar("b", 0);
+
+        // a y b no recuperaron el cupo: c y d comparten el contador de desbordamiento
+        assertThat(cuota.intentar("c", 0)).isZero();
+        assertThat(cuota.intentar("d", 0)).isZero();
+        assertThat(cuota.intentar("c", 0)).isPositive();
+
+        // Un segundo despues todos recuperaron el cupo y se quitan al llegar un cliente nuevo
+        assertThat(cuota.intentar("e", SEGUNDO)).isZero();
+        assertThat(cuota.getClientes()).isEqualTo(1);
+    }
+
+    @Test
+    void conHilosConcurrentesNoSePermiteMasQueLaRafaga() throws InterruptedException {
+        CuotaGcra cuota = new CuotaGcra("/productos", 1, 100, 1000);
+        AtomicInteger permitidas = new AtomicInteger();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 1000; i++) {
+                executor.submit(() -> {
+                    if (cuota.intentar("cliente", 0) == 0) {
+                        permitidas.incrementAndGet();
+                    }
+                });
+            }
+        }
+        assertThat(permitidas).hasValue(100);
+    }
+
+    @Test
+    void laRutaAplicaSoloASusSubrutas() {
+        CuotaGcra cuota = new CuotaGcra("/productos", 10, 5, 1000);
+        assertThat(cuota.aplica("/productos")).isTrue();
+        assertThat(cuota.aplica("/productos/search")).isTrue();
+        assertThat(cuota.aplica("/productosx")).isFalse();
+        assertThat(cuota.aplica("/posts")).isFalse();
+    }
+}
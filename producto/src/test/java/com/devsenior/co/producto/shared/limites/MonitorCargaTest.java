@@ -0,0 +1,72 @@
+package com.devsenior.co.producto.shared.limites;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+/**
+ * La espera del pool se mide por periodo con los timers de Hikari registrados en un SimpleMeterRegistry:
+ * al terminar el pico el rechazo vuelve a 0 aunque el maximo del timer todavia recuerde las esperas largas.
+ */
+class MonitorCargaTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger pendientes = new AtomicInteger();
+    private final MonitorCarga monitorCarga = new MonitorCarga();
+    private Timer adquisicion;
+
+    @BeforeEach
+    void crearMetricasDelPool() {
+        adquisicion = Timer.builder("hikaricp.connections.acquire").tag("pool", "primaria").register(meterRegistry);
+        Gauge.builder("hikaricp.connections.pending", pendientes, AtomicInteger::get).tag("pool", "primaria")
+                .register(meterRegistry);
+        ReflectionTestUtils.setField(monitorCarga, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(monitorCarga, "properties", new LimitesProperties());
+        monitorCarga.muestrear();
+    }
+
+    @Test
+    void elRechazoVuelveACeroCuandoTerminaElPico() {
+        registrarEsperas(10, Duration.ofMillis(400));
+        monitorCarga.muestrear();
+        assertThat(monitorCarga.getFraccionRechazo()).isEqualTo(1);
+
+        registrarEsperas(10, Duration.ofMillis(1));
+        monitorCarga.muestrear();
+        assertThat(adquisicion.max(TimeUnit.MILLISECONDS)).isEqualTo(400);
+        assertThat(monitorCarga.getFraccionRechazo()).isZero();
+
+        // Sin peticiones tampoco se rechaza
+        monitorCarga.muestrear();
+        assertThat(monitorCarga.getFraccionRechazo()).isZero();
+    }
+
+    @Test
+    void hilosEsperandoSinConexionesEntregadasCuentanComoUnPeriodoDeEspera() {
+        pendientes.set(3);
+        monitorCarga.muestrear();
+        // Periodo de 250 ms contra 200 ms de espera maxima: se rechaza el 25%
+        assertThat(monitorCarga.getFraccionRechazo()).isCloseTo(0.25, offset(1e-9));
+
+        pendientes.set(0);
+        monitorCarga.muestrear();
+        assertThat(monitorCarga.getFraccionRechazo()).isZero();
+    }
+
+    private void registrarEsperas(int cantidad, Duration espera) {
+        for (int i = 0; i < cantidad; i++) {
+            adquisicion.record(espera);
+        }
+    }
+}